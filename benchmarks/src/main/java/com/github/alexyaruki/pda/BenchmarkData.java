@@ -0,0 +1,72 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Synthetic dependency data shared by benchmarks.
+ */
+final class BenchmarkData {
+
+    /**
+     * Timestamp of oldest generated dependency (2010-01-01).
+     */
+    private static final long OLDEST = 1262304000000L;
+
+    /**
+     * Time between timestamps of consecutive generated dependencies (one hour).
+     */
+    private static final long STEP = 3_600_000L;
+
+    /**
+     * Number of distinct groupIds of generated dependencies.
+     */
+    private static final int GROUPS = 50;
+
+    /**
+     * Utility class, not instantiated.
+     */
+    private BenchmarkData() {
+    }
+
+    /**
+     * Generates dependencies with timestamps, oldest first.
+     *
+     * @param rows number of dependencies
+     * @return map of dependencies to theirs timestamps
+     */
+    static Map<Dependency, Long> timestamps(final int rows) {
+        final Map<Dependency, Long> timestamps = new LinkedHashMap<>();
+        for (int row = 0; row < rows; row++) {
+            final Dependency dependency = new Dependency();
+            dependency.setGroupId("org.example.group" + row % GROUPS);
+            dependency.setArtifactId("artifact-" + row);
+            dependency.setVersion("1." + row % GROUPS + ".0");
+            timestamps.put(dependency, OLDEST + row * STEP);
+        }
+        return timestamps;
+    }
+
+    /**
+     * Generates path to every dependency, every second dependency being transitive.
+     *
+     * @param timestamps dependencies
+     * @return map of dependency name to path leading to it
+     */
+    static Map<String, String> paths(final Map<Dependency, Long> timestamps) {
+        final Map<String, String> paths = new LinkedHashMap<>();
+        int row = 0;
+        for (final Dependency dependency : timestamps.keySet()) {
+            final String name = InfoGenerator.coordinates(dependency);
+            if (row % 2 == 0) {
+                paths.put(name, name);
+            } else {
+                paths.put(name, "org.example:direct:1.0 > " + name);
+            }
+            row++;
+        }
+        return paths;
+    }
+}
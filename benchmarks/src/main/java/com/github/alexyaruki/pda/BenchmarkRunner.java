@@ -0,0 +1,38 @@
+package com.github.alexyaruki.pda;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks jar.
+ * <p>
+ * Accepts standard JMH command line options and always adds GC profiler,
+ * so allocation rates are reported next to throughput.
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * Utility class, not instantiated.
+     */
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Runs benchmarks selected by command line options.
+     *
+     * @param args JMH command line options
+     * @throws CommandLineOptionException if options cannot be parsed
+     * @throws RunnerException            if benchmarks cannot be run
+     */
+    public static void main(final String[] args) throws CommandLineOptionException, RunnerException {
+        new Runner(new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build())
+            .run();
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of creating log of {@link DependencyAgeCheck}, with timestamps already looked up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckLogBenchmark {
+
+    /**
+     * Number of checked dependencies.
+     */
+    @Param({"10", "1000", "50000"})
+    private int rows;
+
+    /**
+     * Checked dependencies.
+     */
+    private Map<Dependency, Long> timestamps;
+
+    /**
+     * Paths of checked dependencies.
+     */
+    private Map<String, String> paths;
+
+    /**
+     * Compiled policy of checked dependencies.
+     */
+    private AgePolicies policies;
+
+    /**
+     * Generates checked dependencies.
+     */
+    @Setup
+    public void generateDependencies() {
+        timestamps = BenchmarkData.timestamps(rows);
+        paths = BenchmarkData.paths(timestamps);
+        policies = AgePolicies.compile(AgePolicy.ofLimiters(0, 30, 0, 0, AgePolicy.Severity.FAIL), null, AgePolicy.Severity.FAIL);
+    }
+
+    /**
+     * Creates check log with days policy failing most of dependencies.
+     *
+     * @return check log
+     */
+    @Benchmark
+    public Map<AgePolicy.Severity, List<String>> createCheckLog() {
+        return DependencyAgeCheck.createCheckLog(timestamps, paths, policies, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,390 @@
+package com.github.alexyaruki.pda;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Embedded stub of Maven Central search API, for load tests without network access.
+ * <p>
+ * Answers {@code solrsearch/select} queries with documents in format of recorded responses
+ * (see {@code fixtures/gav-single.json}). Every queried GAV is found, with timestamp derived
+ * from its coordinates, so repeated runs see same ages. Artifact level queries get versions
+ * {@code 1.0.0} to {@code 1.49.0}, matching synthetic dependencies of {@link BenchmarkData}.
+ * <p>
+ * Responses carry {@code ETag} derived from their body, requests with matching {@code If-None-Match}
+ * are answered with 304 and bodies are gzip compressed if client accepts it.
+ * <p>
+ * Latency, jitter, throttling (429 with {@code Retry-After}), failures (503) and bandwidth
+ * cap are configurable. Handling time of every request is recorded.
+ */
+final class FakeCentral implements AutoCloseable {
+
+    /**
+     * Path of search API.
+     */
+    static final String SEARCH_PATH = "/solrsearch/select";
+
+    /**
+     * Pattern of query clause, with optional version.
+     */
+    private static final Pattern CLAUSE = Pattern.compile("g:\"([^\"]*)\" AND a:\"([^\"]*)\"(?: AND v:\"([^\"]*)\")?");
+
+    /**
+     * Pattern of rows query parameter.
+     */
+    private static final Pattern ROWS = Pattern.compile("(?:^|&)rows=(\\d+)");
+
+    /**
+     * Number of versions of artifact known to stub.
+     */
+    private static final int VERSIONS = 50;
+
+    /**
+     * Timestamp of oldest release (2008-01-01).
+     */
+    private static final long OLDEST = 1199145600000L;
+
+    /**
+     * Span of release timestamps, about ten years.
+     */
+    private static final long SPAN = 315_360_000_000L;
+
+    /**
+     * Size of chunks written under bandwidth cap.
+     */
+    private static final int CHUNK_SIZE = 1024;
+
+    /**
+     * HTTP status of throttled request.
+     */
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /**
+     * HTTP status of failed request.
+     */
+    private static final int UNAVAILABLE = 503;
+
+    /**
+     * HTTP status of answered request.
+     */
+    private static final int OK = 200;
+
+    /**
+     * HTTP status of request with still valid entity tag.
+     */
+    private static final int NOT_MODIFIED = 304;
+
+    /**
+     * Nanoseconds in second.
+     */
+    private static final long NANOS_IN_SECOND = 1_000_000_000L;
+
+    /**
+     * Embedded HTTP server.
+     */
+    private final HttpServer server;
+
+    /**
+     * Threads handling requests.
+     */
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+
+    /**
+     * Fixed latency of every response, in milliseconds.
+     */
+    private final long latency;
+
+    /**
+     * Maximum random latency added to fixed one, in milliseconds.
+     */
+    private final long jitter;
+
+    /**
+     * Probability of answering with 429.
+     */
+    private final double throttleRate;
+
+    /**
+     * Probability of answering with 503.
+     */
+    private final double failureRate;
+
+    /**
+     * Maximum bytes per second written to every response, 0 if not limited.
+     */
+    private final long bandwidth;
+
+    /**
+     * Number of received requests.
+     */
+    private final AtomicInteger requests = new AtomicInteger();
+
+    /**
+     * Number of requests answered with 429.
+     */
+    private final AtomicInteger throttled = new AtomicInteger();
+
+    /**
+     * Number of requests answered with 503.
+     */
+    private final AtomicInteger failed = new AtomicInteger();
+
+    /**
+     * Handling times of requests, in nanoseconds.
+     */
+    private final Queue<Long> handlingTimes = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Starts stub on free local port.
+     *
+     * @param fixedLatency     fixed latency of every response, in milliseconds
+     * @param randomLatency    maximum random latency added to fixed one, in milliseconds
+     * @param throttleFraction probability of answering with 429
+     * @param failureFraction  probability of answering with 503
+     * @param bytesPerSecond   maximum bytes per second written to every response, 0 if not limited
+     * @throws IOException if server cannot be started
+     */
+    FakeCentral(final long fixedLatency, final long randomLatency, final double throttleFraction, final double failureFraction,
+                final long bytesPerSecond) throws IOException {
+        this.latency = fixedLatency;
+        this.jitter = randomLatency;
+        this.throttleRate = throttleFraction;
+        this.failureRate = failureFraction;
+        this.bandwidth = bytesPerSecond;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(SEARCH_PATH, this::handle);
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    /**
+     * Returns address of search API of stub.
+     *
+     * @return search API URL
+     */
+    String getSearchUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + SEARCH_PATH;
+    }
+
+    /**
+     * Returns number of received requests.
+     *
+     * @return number of requests
+     */
+    int getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Returns number of requests answered with 429.
+     *
+     * @return number of throttled requests
+     */
+    int getThrottled() {
+        return throttled.get();
+    }
+
+    /**
+     * Returns number of requests answered with 503.
+     *
+     * @return number of failed requests
+     */
+    int getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * Returns percentile of request handling times.
+     *
+     * @param percentile percentile, from 0 to 100
+     * @return handling time in milliseconds, 0 if no request was handled
+     */
+    double getLatencyPercentile(final double percentile) {
+        final List<Long> sorted = new ArrayList<>(handlingTimes);
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        Collections.sort(sorted);
+        final int index = (int) Math.ceil(percentile / 100 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Clears counters and recorded handling times.
+     */
+    void reset() {
+        requests.set(0);
+        throttled.set(0);
+        failed.set(0);
+        handlingTimes.clear();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+
+    /**
+     * Handles single search request.
+     *
+     * @param exchange HTTP exchange
+     * @throws IOException if response cannot be written
+     */
+    private void handle(final HttpExchange exchange) throws IOException {
+        final long start = System.nanoTime();
+        requests.incrementAndGet();
+        try {
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            long delay = latency;
+            if (jitter > 0) {
+                delay += random.nextLong(jitter + 1);
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(delay));
+            final double outcome = random.nextDouble();
+            if (outcome < throttleRate) {
+                throttled.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                exchange.sendResponseHeaders(TOO_MANY_REQUESTS, -1);
+                return;
+            }
+            if (outcome < throttleRate + failureRate) {
+                failed.incrementAndGet();
+                exchange.sendResponseHeaders(UNAVAILABLE, -1);
+                return;
+            }
+            byte[] body = createResponse(exchange.getRequestURI().getRawQuery()).getBytes(StandardCharsets.UTF_8);
+            final String etag = "\"" + Integer.toHexString(Arrays.hashCode(body)) + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(NOT_MODIFIED, -1);
+                return;
+            }
+            final String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                body = compress(body);
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(OK, body.length);
+            try (OutputStream responseStream = exchange.getResponseBody()) {
+                write(responseStream, body);
+            }
+        } finally {
+            exchange.close();
+            handlingTimes.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Compresses response body with gzip.
+     *
+     * @param body response body
+     * @return compressed body
+     * @throws IOException if body cannot be compressed
+     */
+    private static byte[] compress(final byte[] body) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Writes response body, respecting bandwidth cap.
+     *
+     * @param responseStream response stream
+     * @param body           response body
+     * @throws IOException if body cannot be written
+     */
+    private void write(final OutputStream responseStream, final byte[] body) throws IOException {
+        if (bandwidth <= 0) {
+            responseStream.write(body);
+            return;
+        }
+        final long chunkNanos = CHUNK_SIZE * NANOS_IN_SECOND / bandwidth;
+        for (int offset = 0; offset < body.length; offset += CHUNK_SIZE) {
+            responseStream.write(body, offset, Math.min(CHUNK_SIZE, body.length - offset));
+            responseStream.flush();
+            LockSupport.parkNanos(chunkNanos);
+        }
+    }
+
+    /**
+     * Creates search response answering query.
+     *
+     * @param rawQuery encoded query string of request
+     * @return JSON response
+     * @throws IOException if query cannot be decoded
+     */
+    private static String createResponse(final String rawQuery) throws IOException {
+        final String query = URLDecoder.decode(rawQuery, StandardCharsets.UTF_8.name());
+        final Matcher rowsMatcher = ROWS.matcher(rawQuery);
+        int rows = 1;
+        if (rowsMatcher.find()) {
+            rows = Integer.parseInt(rowsMatcher.group(1));
+        }
+        final StringBuilder docs = new StringBuilder();
+        int found = 0;
+        final Matcher clause = CLAUSE.matcher(query);
+        while (clause.find() && found < rows) {
+            if (clause.group(3) == null) {
+                for (int version = VERSIONS - 1; version >= 0 && found < rows; version--) {
+                    appendDoc(docs, clause.group(1), clause.group(2), "1." + version + ".0", found++);
+                }
+            } else {
+                appendDoc(docs, clause.group(1), clause.group(2), clause.group(3), found++);
+            }
+        }
+        return "{\"responseHeader\":{\"status\":0,\"QTime\":1,\"params\":{\"core\":\"gav\",\"rows\":\"" + rows + "\",\"wt\":\"json\"}},"
+            + "\"response\":{\"numFound\":" + found + ",\"start\":0,\"docs\":[" + docs + "]}}";
+    }
+
+    /**
+     * Appends search document of GAV.
+     *
+     * @param docs     documents array content
+     * @param group    groupId
+     * @param artifact artifactId
+     * @param version  version
+     * @param index    index of document in array
+     */
+    private static void appendDoc(final StringBuilder docs, final String group, final String artifact, final String version,
+                                  final int index) {
+        if (index > 0) {
+            docs.append(',');
+        }
+        final String id = group + ":" + artifact + ":" + version;
+        final long timestamp = OLDEST + Math.floorMod((long) id.hashCode() * id.length(), SPAN);
+        docs.append("{\"id\":\"").append(id)
+            .append("\",\"g\":\"").append(group)
+            .append("\",\"a\":\"").append(artifact)
+            .append("\",\"v\":\"").append(version)
+            .append("\",\"p\":\"jar\",\"timestamp\":").append(timestamp)
+            .append(",\"ec\":[\"-sources.jar\",\"-javadoc.jar\",\".jar\",\".pom\"],\"tags\":[\"library\"]}");
+    }
+}
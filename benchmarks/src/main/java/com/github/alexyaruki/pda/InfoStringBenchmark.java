@@ -0,0 +1,61 @@
+package com.github.alexyaruki.pda;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of formatting dependency age, as done for every dependency of report and check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InfoStringBenchmark {
+
+    /**
+     * Timestamp of formatted dependency (2017-10-10).
+     */
+    private long timestamp = 1507676163000L;
+
+    /**
+     * Age of split dependency, about 3 years.
+     */
+    private long age = 94_694_400_000L;
+
+    /**
+     * Formats age of dependency from its timestamp.
+     *
+     * @return age info
+     */
+    @Benchmark
+    public String generateInfo() {
+        return InfoGenerator.generateInfo(timestamp);
+    }
+
+    /**
+     * Splits age of dependency into units.
+     *
+     * @param blackhole consumer of units
+     */
+    @Benchmark
+    public void splitDuration(final Blackhole blackhole) {
+        final DurationSplitter durationSplitter = new DurationSplitter(age);
+        blackhole.consume(durationSplitter.getYears());
+        blackhole.consume(durationSplitter.getDays());
+        blackhole.consume(durationSplitter.getHours());
+        blackhole.consume(durationSplitter.getMinutes());
+        blackhole.consume(durationSplitter.getSeconds());
+    }
+}
@@ -0,0 +1,191 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end load test of lookup pipeline against {@link FakeCentral}.
+ * <p>
+ * Runs work of {@code show}, {@code check} or {@code report} goal for synthetic project with
+ * selected number of dependencies, wired like mojos do, and prints wall time, request count and
+ * p50/p99 request handling time of every run, followed by metrics collected by plugin itself.
+ * Settings are read from system properties named like mojo parameters ({@code pda.concurrency},
+ * {@code pda.batchSize}, {@code pda.lookupMode}, {@code pda.cache}, ...) plus harness ones
+ * ({@code pda.harness.*}), for example:
+ * <pre>
+ * java -Dpda.harness.dependencies=5000 -Dpda.harness.latency=80 -Dpda.concurrency=16 \
+ *      -cp target/benchmarks.jar com.github.alexyaruki.pda.LoadHarness
+ * </pre>
+ * With cache enabled, runs after first one show warm cache behaviour.
+ */
+public final class LoadHarness {
+
+    /**
+     * Prefix of harness properties.
+     */
+    private static final String PREFIX = "pda.harness.";
+
+    /**
+     * Utility class, not instantiated.
+     */
+    private LoadHarness() {
+    }
+
+    /**
+     * Runs load test.
+     *
+     * @param args ignored, settings are read from system properties
+     * @throws IOException            if stub or temporary directories cannot be created
+     * @throws MojoExecutionException if goal fails
+     */
+    public static void main(final String[] args) throws IOException, MojoExecutionException {
+        final String goal = System.getProperty(PREFIX + "goal", "show");
+        final int dependencyCount = Integer.getInteger(PREFIX + "dependencies", 1000);
+        final int runs = Integer.getInteger(PREFIX + "runs", 2);
+        final Log log = new QuietLog();
+        final Path workDirectory = Files.createTempDirectory("pda-load");
+        try (FakeCentral central = new FakeCentral(
+            Long.getLong(PREFIX + "latency", 50),
+            Long.getLong(PREFIX + "jitter", 20),
+            Double.parseDouble(System.getProperty(PREFIX + "throttleRate", "0")),
+            Double.parseDouble(System.getProperty(PREFIX + "failureRate", "0")),
+            Long.getLong(PREFIX + "bandwidth", 0));
+             LookupClient client = createClient()) {
+            TimestampCache cache = TimestampCache.disabled();
+            if (Boolean.getBoolean("pda.cache")) {
+                cache = TimestampCache.open(workDirectory.resolve("cache"), true, log);
+            }
+            final Path localRepository = Files.createDirectories(workDirectory.resolve("repository"));
+            final List<Dependency> dependencies = new ArrayList<>(BenchmarkData.timestamps(dependencyCount).keySet());
+            System.out.println("goal=" + goal + " dependencies=" + dependencyCount + " concurrency=" + Integer.getInteger("pda.concurrency", 8)
+                + " batchSize=" + Integer.getInteger("pda.batchSize", 20) + " lookupMode=" + System.getProperty("pda.lookupMode", "VERSION")
+                + " cache=" + Boolean.getBoolean("pda.cache"));
+            for (int run = 1; run <= runs; run++) {
+                central.reset();
+                final LookupMetrics metrics = new LookupMetrics();
+                final InfoGenerator infoGenerator = createInfoGenerator(log, client.metered(metrics), central.getSearchUrl(), cache,
+                    localRepository, metrics);
+                final long start = System.nanoTime();
+                final int failedLookups = runGoal(goal, log, infoGenerator, dependencies, workDirectory);
+                final long wallTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                System.out.println(String.format(Locale.ROOT,
+                    "run %d: wall %d ms, requests %d (429: %d, 503: %d), p50 %.1f ms, p99 %.1f ms, failed lookups %d",
+                    run, wallTime, central.getRequests(), central.getThrottled(), central.getFailed(),
+                    central.getLatencyPercentile(50), central.getLatencyPercentile(99), failedLookups));
+                metrics.summarize().forEach(line -> System.out.println("  " + line));
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(workDirectory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * Creates lookup client configured like mojos, with system properties as parameters.
+     *
+     * @return lookup client
+     */
+    private static LookupClient createClient() {
+        return new LookupClient(
+            Integer.getInteger("pda.maxConnectionsPerRoute", 20),
+            Integer.getInteger("pda.maxConnections", 40),
+            Long.getLong("pda.keepAlive", 30000),
+            Integer.getInteger("pda.connectTimeout", 10000),
+            Integer.getInteger("pda.timeout", 30000),
+            new RetryPolicy(Integer.getInteger("pda.retries", 3), Long.getLong("pda.retryDelay", 500), Long.getLong("pda.maxRetryDelay", 20000)),
+            new CircuitBreaker(Integer.getInteger("pda.breakerThreshold", 5), Long.getLong("pda.breakerDelay", 60000)));
+    }
+
+    /**
+     * Creates info generator configured like mojos, with system properties as parameters.
+     *
+     * @param log             logger
+     * @param client          lookup client
+     * @param searchUrl       address of search API
+     * @param cache           timestamp cache
+     * @param localRepository empty local repository
+     * @param metrics         metrics of run
+     * @return info generator
+     */
+    private static InfoGenerator createInfoGenerator(final Log log, final LookupClient client, final String searchUrl, final TimestampCache cache,
+                                                     final Path localRepository, final LookupMetrics metrics) {
+        final CentralLookup centralLookup = new CentralLookup(log, client, searchUrl,
+            LookupMode.valueOf(System.getProperty("pda.lookupMode", "VERSION").toUpperCase(Locale.ROOT)),
+            Integer.getInteger("pda.lookupRows", 1000), Integer.getInteger("pda.batchSize", 20), Integer.getInteger("pda.maxUrlLength", 2000));
+        return new InfoGenerator(log, new ResolverRoutes(centralLookup), new LocalRepositoryLookup(log, localRepository.toString(), metrics, new HashMap<>()), false,
+            cache, Integer.getInteger("pda.concurrency", 8), metrics);
+    }
+
+    /**
+     * Runs work of goal.
+     *
+     * @param goal          name of goal (show, check or report)
+     * @param log           logger
+     * @param infoGenerator info generator
+     * @param dependencies  dependencies of synthetic project
+     * @param workDirectory directory receiving reports
+     * @return number of failed lookups
+     * @throws MojoExecutionException if report cannot be written
+     */
+    private static int runGoal(final String goal, final Log log, final InfoGenerator infoGenerator, final List<Dependency> dependencies,
+                               final Path workDirectory) throws MojoExecutionException {
+        final Map<Dependency, Long> timestampMap = infoGenerator.generateTimestampMap(dependencies, DependencyFilter.compile(null, null));
+        final Map<String, String> paths = new HashMap<>();
+        switch (goal) {
+            case "check":
+                DependencyAgeCheck.createCheckLog(timestampMap, paths, AgePolicies.compile(AgePolicy.ofLimiters(0, 30, 0, 0, AgePolicy.Severity.FAIL), null, AgePolicy.Severity.FAIL),
+                    System.currentTimeMillis()).get(AgePolicy.Severity.FAIL).forEach(log::error);
+                break;
+
+            case "report":
+                new ReportGenerator(log, workDirectory.resolve("dependency-age"), "dependency-age-report", "Load test", "Path")
+                    .generate("JSON,HTML,EXCEL", InfoGenerator.generateInfoMap(timestampMap, Collections.emptyMap()), paths);
+                break;
+
+            default:
+                final Map<String, String> pdaInfo = InfoGenerator.generateInfoMap(timestampMap, Collections.emptyMap());
+                final int width = pdaInfo.keySet().stream().mapToInt(String::length).max().orElse(0);
+                pdaInfo.forEach((name, info) -> log.info(StringUtils.rightPad(name, width) + " -> " + info));
+                break;
+        }
+        return (int) timestampMap.values().stream().filter(timestamp -> timestamp == -1).count();
+    }
+
+    /**
+     * Logger dropping info messages, so output of goals does not drown results.
+     */
+    private static final class QuietLog extends SystemStreamLog {
+
+        @Override
+        public boolean isInfoEnabled() {
+            return false;
+        }
+
+        @Override
+        public void info(final CharSequence content) {
+            // dropped
+        }
+
+        @Override
+        public void error(final CharSequence content) {
+            // check log entries are expected, dropped
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks of writing reports by {@link ReportGenerator}, for every report type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportBenchmark {
+
+    /**
+     * Number of reported dependencies.
+     */
+    @Param({"10", "1000", "50000"})
+    private int rows;
+
+    /**
+     * Generated report type.
+     */
+    @Param({"JSON", "HTML", "EXCEL"})
+    private String reportType;
+
+    /**
+     * Directory receiving reports.
+     */
+    private Path destination;
+
+    /**
+     * Information about dependencies age.
+     */
+    private Map<String, String> pdaInfo;
+
+    /**
+     * Paths of reported dependencies.
+     */
+    private Map<String, String> paths;
+
+    /**
+     * Generates reported dependencies and creates destination directory.
+     *
+     * @throws IOException if destination directory cannot be created
+     */
+    @Setup(Level.Trial)
+    public void generateDependencies() throws IOException {
+        final Map<Dependency, Long> timestamps = BenchmarkData.timestamps(rows);
+        pdaInfo = InfoGenerator.generateInfoMap(timestamps, Collections.emptyMap());
+        paths = BenchmarkData.paths(timestamps);
+        destination = Files.createTempDirectory("pda-report-benchmark");
+    }
+
+    /**
+     * Deletes destination directory.
+     *
+     * @throws IOException if destination directory cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void deleteReports() throws IOException {
+        try (Stream<Path> files = Files.walk(destination)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    /**
+     * Writes report of selected type.
+     *
+     * @throws MojoExecutionException if destination directory cannot be created
+     */
+    @Benchmark
+    public void generate() throws MojoExecutionException {
+        new ReportGenerator(new SystemStreamLog(), destination, "dependency-age-report", "Benchmark", "Path")
+            .generate(reportType, pdaInfo, paths);
+    }
+}
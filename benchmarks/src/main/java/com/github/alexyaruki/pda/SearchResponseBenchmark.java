@@ -0,0 +1,119 @@
+package com.github.alexyaruki.pda;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of parsing Maven Central search responses, as done by {@link CentralLookup}.
+ * <p>
+ * Responses are read from fixtures recorded from {@code solrsearch/select} with {@code core=gav}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchResponseBenchmark {
+
+    /**
+     * Size of buffer used for reading fixtures.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Factory of JSON parsers, shared like in lookup client.
+     */
+    private final JsonFactory factory = new JsonFactory();
+
+    /**
+     * Response to query of single GAV.
+     */
+    private byte[] single;
+
+    /**
+     * Response to batched query of 100 GAVs.
+     */
+    private byte[] batch;
+
+    /**
+     * Reads fixtures.
+     *
+     * @throws IOException if fixture cannot be read
+     */
+    @Setup
+    public void readFixtures() throws IOException {
+        single = readFixture("gav-single.json");
+        batch = readFixture("gav-batch-100.json");
+    }
+
+    /**
+     * Parses timestamp of single GAV.
+     *
+     * @return parsed timestamps
+     * @throws IOException in case of malformed response
+     */
+    @Benchmark
+    public Map<String, Long> parseSingle() throws IOException {
+        final Map<String, Long> timestamps = new HashMap<>();
+        try (JsonParser parser = factory.createParser(single)) {
+            SearchResponseParser.parseTimestamps(parser, timestamps);
+        }
+        return timestamps;
+    }
+
+    /**
+     * Parses timestamps of batch of GAVs.
+     *
+     * @return parsed timestamps
+     * @throws IOException in case of malformed response
+     */
+    @Benchmark
+    public Map<String, Long> parseBatch() throws IOException {
+        final Map<String, Long> timestamps = new HashMap<>();
+        try (JsonParser parser = factory.createParser(batch)) {
+            SearchResponseParser.parseTimestamps(parser, timestamps);
+        }
+        return timestamps;
+    }
+
+    /**
+     * Reads fixture from classpath.
+     *
+     * @param name name of fixture
+     * @return content of fixture
+     * @throws IOException if fixture cannot be read
+     */
+    private static byte[] readFixture(final String name) throws IOException {
+        try (InputStream fixture = SearchResponseBenchmark.class.getResourceAsStream("/fixtures/" + name)) {
+            if (fixture == null) {
+                throw new IOException("Missing fixture " + name);
+            }
+            final ByteArrayOutputStream content = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read = fixture.read(buffer);
+            while (read != -1) {
+                content.write(buffer, 0, read);
+                read = fixture.read(buffer);
+            }
+            return content.toByteArray();
+        }
+    }
+}
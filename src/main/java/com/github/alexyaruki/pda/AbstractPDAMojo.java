@@ -1,34 +1,257 @@
 package com.github.alexyaruki.pda;
 
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Dependency;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.apache.maven.shared.dependency.graph.DependencyGraphBuilder;
+import org.apache.maven.shared.dependency.graph.DependencyGraphBuilderException;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
+import org.eclipse.aether.SessionData;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 
 /**
  * Base class for all mojo's in plugin.
  */
-public abstract class AbstractPDAMojo extends AbstractMojo {
+public abstract class AbstractPDAMojo extends AbstractMojo { //NOPMD
+
+    /**
+     * Name of Maven Central search endpoint.
+     */
+    private static final String CENTRAL_SEARCH = "central-search";
 
     /**
      * Object representing current Maven project.
      */
     @Parameter(defaultValue = "${project}", readonly = true, required = true)
-    protected MavenProject project;
+    protected MavenProject project; //NOPMD
 
     /**
      * Object representing current Maven session.
      */
     @Parameter(defaultValue = "${session}", readonly = true, required = true)
-    protected MavenSession session;
+    protected MavenSession session; //NOPMD
+
+    /**
+     * Object representing current mojo execution.
+     */
+    @Parameter(defaultValue = "${mojoExecution}", readonly = true)
+    protected MojoExecution mojoExecution; //NOPMD
+
+    /**
+     * Metrics of current goal execution.
+     */
+    protected final LookupMetrics metrics = new LookupMetrics(); //NOPMD
+
+    /**
+     * Sources of timestamps found in local repository during current goal execution, by coordinates (groupId:artifactId:version).
+     */
+    protected final Map<String, String> localSources = new ConcurrentHashMap<>(); //NOPMD
 
     /**
      * Parameter for ignoring dependencies containing specified string in group
      * or artifact id.
      */
     @Parameter(property = "pda.ignoreString")
-    protected String ignoreString;
+    protected String ignoreString; //NOPMD
+
+    /**
+     * Parameter for ignoring dependencies matching rules of form {@code groupId[:artifactId[:version]]},
+     * parts being globs or regular expressions enclosed in slashes; rule starting with {@code !}
+     * keeps matching dependencies even if other rules ignore them (for example {@code com.acme.*,!com.acme.oss:*}).
+     */
+    @Parameter(property = "pda.ignore")
+    protected List<String> ignoreRules; //NOPMD
+
+    /**
+     * Parameter for checking whole resolved dependency graph instead of direct dependencies only
+     * (prefetch goal always prefetches direct dependencies only).
+     */
+    @Parameter(defaultValue = "false", property = "pda.transitive")
+    protected boolean transitive; //NOPMD
+
+    /**
+     * Builder of resolved dependency graph.
+     */
+    @Component(hint = "default")
+    private DependencyGraphBuilder graphBuilder; //NOPMD
+
+    /**
+     * Parameter for maximum number of timestamp lookups running at once.
+     */
+    @Parameter(defaultValue = "8", property = "pda.concurrency")
+    protected int concurrency; //NOPMD
+
+    /**
+     * Parameter for address of Maven Central search API, for mirrors or stub servers.
+     */
+    @Parameter(defaultValue = "http://search.maven.org/solrsearch/select", property = "pda.searchUrl")
+    protected String searchUrl; //NOPMD
+
+    /**
+     * Parameter for selecting how Maven Central is queried (VERSION or ARTIFACT).
+     */
+    @Parameter(defaultValue = "VERSION", property = "pda.lookupMode")
+    protected String lookupModeString; //NOPMD
+
+    /**
+     * Parameter for number of versions requested per dependency in ARTIFACT lookup mode.
+     */
+    @Parameter(defaultValue = "1000", property = "pda.lookupRows")
+    protected int lookupRows; //NOPMD
+
+    /**
+     * Parameter for maximum number of dependencies looked up in single request (VERSION lookup mode only).
+     */
+    @Parameter(defaultValue = "20", property = "pda.batchSize")
+    protected int batchSize; //NOPMD
+
+    /**
+     * Parameter for maximum length of batched query URL.
+     */
+    @Parameter(defaultValue = "2000", property = "pda.maxUrlLength")
+    protected int maxUrlLength; //NOPMD
+
+    /**
+     * Parameter for timeout (in milliseconds) of single timestamp lookup.
+     */
+    @Parameter(defaultValue = "30000", property = "pda.timeout")
+    protected int timeout; //NOPMD
+
+    /**
+     * Parameter for timeout (in milliseconds) of establishing connection.
+     */
+    @Parameter(defaultValue = "10000", property = "pda.connectTimeout")
+    protected int connectTimeout; //NOPMD
+
+    /**
+     * Parameter for maximum number of pooled connections per repository.
+     */
+    @Parameter(defaultValue = "20", property = "pda.maxConnectionsPerRoute")
+    protected int maxPerRoute; //NOPMD
+
+    /**
+     * Parameter for maximum number of pooled connections in total.
+     */
+    @Parameter(defaultValue = "40", property = "pda.maxConnections")
+    protected int maxConnections; //NOPMD
+
+    /**
+     * Parameter for how long (in milliseconds) idle connection is kept alive.
+     */
+    @Parameter(defaultValue = "30000", property = "pda.keepAlive")
+    protected long keepAlive; //NOPMD
+
+    /**
+     * Parameter for maximum number of retries of throttled or failed lookup request.
+     */
+    @Parameter(defaultValue = "3", property = "pda.retries")
+    protected int retries; //NOPMD
+
+    /**
+     * Parameter for base delay (in milliseconds) before retry, doubled with every attempt.
+     */
+    @Parameter(defaultValue = "500", property = "pda.retryDelay")
+    protected long retryDelay; //NOPMD
+
+    /**
+     * Parameter for maximum delay (in milliseconds) before retry, also caps delay requested by server.
+     */
+    @Parameter(defaultValue = "20000", property = "pda.maxRetryDelay")
+    protected long maxRetryDelay; //NOPMD
+
+    /**
+     * Parameter for number of consecutive failed requests after which repository is not contacted for a while
+     * (0 disables circuit breaker).
+     */
+    @Parameter(defaultValue = "5", property = "pda.breakerThreshold")
+    protected int breakerThreshold; //NOPMD
+
+    /**
+     * Parameter for how long (in milliseconds) repository is not contacted after too many failed requests.
+     */
+    @Parameter(defaultValue = "60000", property = "pda.breakerDelay")
+    protected long breakerDelay; //NOPMD
+
+    /**
+     * Parameter for routing lookups of groupId prefixes to remote repositories declared in POM or settings,
+     * comma separated list of {@code groupIdPrefix=repositoryId} (for example {@code com.acme=internal}).
+     * Dependencies not routed anywhere are looked up in Maven Central search.
+     */
+    @Parameter(property = "pda.routes")
+    protected String routes; //NOPMD
+
+    /**
+     * Parameter for resolving timestamps from local repository only, implied by Maven offline mode.
+     */
+    @Parameter(defaultValue = "false", property = "pda.offline")
+    protected boolean offline; //NOPMD
+
+    /**
+     * Parameter for enabling persistent cache of release timestamps.
+     */
+    @Parameter(defaultValue = "true", property = "pda.cache")
+    protected boolean useCache; //NOPMD
+
+    /**
+     * Parameter for clearing persistent cache of release timestamps before lookups.
+     */
+    @Parameter(defaultValue = "false", property = "pda.clearCache")
+    protected boolean clearCache; //NOPMD
+
+    /**
+     * Parameter for directory of persistent cache, defaults to ".pda-cache" in local repository.
+     */
+    @Parameter(property = "pda.cacheDirectory")
+    protected File cacheDirectory; //NOPMD
+
+    /**
+     * Parameter for how long (in milliseconds) stored version list of artifact is used before it is revalidated,
+     * version lists are stored in ARTIFACT lookup mode only.
+     */
+    @Parameter(defaultValue = "86400000", property = "pda.revalidateAfter")
+    protected long revalidateAfter; //NOPMD
+
+    /**
+     * Parameter for indexing all released versions of looked up artifacts, enabling release distance
+     * limiters of check and version columns of reports; implies ARTIFACT lookup mode.
+     */
+    @Parameter(property = "pda.versions")
+    protected boolean indexVersions; //NOPMD
+
+    /**
+     * Parameter for directory of dependency age history, defaults to ".pda-history" in directory where build was started.
+     */
+    @Parameter(property = "pda.historyDirectory")
+    protected File historyDirectory; //NOPMD
+
+    /**
+     * Parameter for writing metrics of goal execution as JSON file to "dependency-age" in target build directory.
+     */
+    @Parameter(property = "pda.metrics")
+    protected boolean writeMetrics; //NOPMD
 
     /**
      * Parameter-less constructor.
@@ -37,5 +260,341 @@ public abstract class AbstractPDAMojo extends AbstractMojo {
         super();
     }
 
+    /**
+     * Generates map of dependency name to textual description of its age for current project.
+     *
+     * @param paths map receiving dependency name to path leading to it in dependency graph,
+     *              filled only in transitive mode
+     * @return map of infos (name -> textual description of its age), ordered by timestamp
+     * @throws MojoExecutionException if lookup cannot be configured or dependency graph cannot be resolved
+     */
+    protected final Map<String, String> generateInfoMap(final Map<String, String> paths) throws MojoExecutionException {
+        final Map<Dependency, Long> timestampMap = generateTimestampMap(paths);
+        final long start = System.nanoTime();
+        final Map<String, String> pdaInfo = InfoGenerator.generateInfoMap(timestampMap, localSources);
+        metrics.recordPhase(LookupMetrics.Phase.FORMAT, start);
+        return pdaInfo;
+    }
+
+    /**
+     * Generates map of dependencies to theirs timestamps for current project.
+     *
+     * @param paths map receiving dependency name to path leading to it in dependency graph,
+     *              filled only in transitive mode
+     * @return timestamp map, ordered by timestamp
+     * @throws MojoExecutionException if lookup cannot be configured or dependency graph cannot be resolved
+     */
+    protected final Map<Dependency, Long> generateTimestampMap(final Map<String, String> paths) throws MojoExecutionException {
+        final InfoGenerator infoGenerator = createInfoGenerator();
+        long start = System.nanoTime();
+        final Map<Dependency, Long> timestampMap;
+        if (transitive) {
+            final DependencyNode root = buildDependencyGraph();
+            metrics.recordPhase(LookupMetrics.Phase.RESOLVE, start);
+            start = System.nanoTime();
+            timestampMap = infoGenerator.generateTimestampMap(root, getDependencyFilter(), paths);
+        } else {
+            timestampMap = infoGenerator.generateTimestampMap(project.getDependencies(), getDependencyFilter());
+        }
+        metrics.recordPhase(LookupMetrics.Phase.LOOKUP, start);
+        return timestampMap;
+    }
+
+    /**
+     * Compiles filter of ignored dependencies from ignore parameters.
+     *
+     * @return filter of ignored dependencies
+     * @throws MojoExecutionException if ignore rule is malformed
+     */
+    protected final DependencyFilter getDependencyFilter() throws MojoExecutionException {
+        try {
+            return DependencyFilter.compile(ignoreString, ignoreRules);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException("Malformed ignore rule: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Resolves dependency graph of current project.
+     *
+     * @return root node of dependency graph
+     * @throws MojoExecutionException if dependency graph cannot be resolved
+     */
+    protected final DependencyNode buildDependencyGraph() throws MojoExecutionException {
+        final ProjectBuildingRequest buildingRequest = new DefaultProjectBuildingRequest(session.getProjectBuildingRequest());
+        buildingRequest.setProject(project);
+        try {
+            return graphBuilder.buildDependencyGraph(buildingRequest, null);
+        } catch (DependencyGraphBuilderException e) {
+            throw new MojoExecutionException("Cannot resolve dependency graph of " + project.getId(), e);
+        }
+    }
+
+    /**
+     * Creates info generator configured with parameters of this mojo.
+     *
+     * @return info generator for current execution
+     * @throws MojoExecutionException if lookup mode is unknown
+     */
+    protected final InfoGenerator createInfoGenerator() throws MojoExecutionException {
+        CentralLookup centralLookup = new CentralLookup(getLog(), getLookupClient(CENTRAL_SEARCH), searchUrl, getLookupMode(), lookupRows, batchSize, maxUrlLength);
+        if (indexVersions) {
+            centralLookup = centralLookup.indexed(getVersionIndex());
+        }
+        final ResponseStore responseStore = getResponseStore();
+        if (responseStore.isEnabled()) {
+            centralLookup = centralLookup.revalidating(responseStore, revalidateAfter);
+        }
+        final LocalRepositoryLookup localLookup = new LocalRepositoryLookup(getLog(), session.getLocalRepository().getBasedir(), metrics, localSources);
+        final InfoGenerator infoGenerator = new InfoGenerator(getLog(), createRoutes(centralLookup), localLookup, offline || session.isOffline(),
+            getTimestampCache(), concurrency, metrics);
+        final SessionData sessionData = session.getRepositorySession().getData();
+        final LookupPrefetch prefetch = (LookupPrefetch) sessionData.get(getPrefetchKey());
+        Map<String, Long> prefetched = Collections.emptyMap();
+        if (prefetch != null) {
+            final long start = System.nanoTime();
+            prefetched = prefetch.await(getLog());
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("Waited " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms for prefetched lookups");
+            }
+        }
+        infoGenerator.share(prefetched, InFlightLookups.shared(sessionData));
+        return infoGenerator;
+    }
+
+    /**
+     * Stores lookups started by prefetch goal, so later goals of current project join them.
+     *
+     * @param prefetch started lookups
+     */
+    protected final void storePrefetch(final LookupPrefetch prefetch) {
+        session.getRepositorySession().getData().set(getPrefetchKey(), prefetch);
+    }
+
+    /**
+     * Creates session data key of lookups prefetched for current project.
+     *
+     * @return session data key
+     */
+    private String getPrefetchKey() {
+        return LookupPrefetch.class.getName() + ":" + project.getId();
+    }
+
+    /**
+     * Creates routing of dependencies to remote repositories selected by user.
+     *
+     * @param centralLookup resolver of dependencies not routed to any repository
+     * @return routing of dependencies
+     * @throws MojoExecutionException if route is malformed or refers to unknown repository
+     */
+    protected final ResolverRoutes createRoutes(final TimestampResolver centralLookup) throws MojoExecutionException {
+        final ResolverRoutes resolverRoutes = new ResolverRoutes(centralLookup);
+        if (StringUtils.isBlank(routes)) {
+            return resolverRoutes;
+        }
+        final Map<String, TimestampResolver> resolvers = new HashMap<>();
+        for (final String route : routes.split(",")) {
+            final String[] parts = route.split("=");
+            if (parts.length != 2 || StringUtils.isBlank(parts[0])) {
+                throw new MojoExecutionException("Malformed route \"" + route + "\", expected groupIdPrefix=repositoryId");
+            }
+            final String repositoryId = parts[1].trim();
+            TimestampResolver resolver = resolvers.get(repositoryId);
+            if (resolver == null) {
+                resolver = createRepositoryLookup(repositoryId);
+                resolvers.put(repositoryId, resolver);
+            }
+            resolverRoutes.add(parts[0], resolver);
+        }
+        return resolverRoutes;
+    }
+
+    /**
+     * Creates lookup of remote repository of current project.
+     *
+     * @param repositoryId id of repository declared in POM or settings
+     * @return repository lookup
+     * @throws MojoExecutionException if project has no such repository
+     */
+    protected final RepositoryLookup createRepositoryLookup(final String repositoryId) throws MojoExecutionException {
+        for (final ArtifactRepository repository : project.getRemoteArtifactRepositories()) {
+            if (repositoryId.equals(repository.getId())) {
+                return new RepositoryLookup(getLog(), getLookupClient(repository.getUrl()), repository.getUrl(), repository.getAuthentication());
+            }
+        }
+        throw new MojoExecutionException("Unknown repository in pda.routes: " + repositoryId);
+    }
+
+    /**
+     * Parses selected lookup mode.
+     *
+     * @return selected lookup mode
+     * @throws MojoExecutionException if lookup mode is unknown
+     */
+    protected final LookupMode getLookupMode() throws MojoExecutionException {
+        try {
+            return LookupMode.valueOf(lookupModeString.toUpperCase(Locale.getDefault()));
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException("Unknown lookup mode: " + lookupModeString, e);
+        }
+    }
+
+    /**
+     * Provides persistent timestamp cache shared by all mojo executions of current build.
+     *
+     * @return shared timestamp cache, disabled one if cache is not used
+     */
+    protected final TimestampCache getTimestampCache() {
+        if (!useCache) {
+            return TimestampCache.disabled();
+        }
+        final Path directory = getCacheDirectory();
+        final String key = TimestampCache.class.getName() + ":" + directory.toAbsolutePath();
+        final SessionData sessionData = session.getRepositorySession().getData();
+        synchronized (TimestampCache.class) {
+            TimestampCache timestampCache = (TimestampCache) sessionData.get(key);
+            if (timestampCache == null) {
+                timestampCache = TimestampCache.open(directory, clearCache, getLog());
+                sessionData.set(key, timestampCache);
+            }
+            return timestampCache;
+        }
+    }
+
+    /**
+     * Provides persistent store of version lists shared by all mojo executions of current build.
+     *
+     * @return shared response store, disabled one if cache is not used
+     */
+    protected final ResponseStore getResponseStore() {
+        if (!useCache) {
+            return ResponseStore.disabled();
+        }
+        final Path directory = getCacheDirectory();
+        final String key = ResponseStore.sessionKey(directory);
+        final SessionData sessionData = session.getRepositorySession().getData();
+        synchronized (ResponseStore.class) {
+            ResponseStore responseStore = (ResponseStore) sessionData.get(key);
+            if (responseStore == null) {
+                responseStore = ResponseStore.open(directory, clearCache, getLog());
+                sessionData.set(key, responseStore);
+            }
+            return responseStore;
+        }
+    }
+
+    /**
+     * Resolves directory of persistent cache.
+     *
+     * @return selected cache directory, ".pda-cache" in local repository by default
+     */
+    private Path getCacheDirectory() {
+        if (cacheDirectory != null) {
+            return cacheDirectory.toPath();
+        }
+        return Paths.get(session.getLocalRepository().getBasedir(), ".pda-cache");
+    }
+
+    /**
+     * Provides index of released versions shared by all mojo executions of current build.
+     *
+     * @return shared version index
+     */
+    protected final VersionIndex getVersionIndex() {
+        final String key = VersionIndex.class.getName();
+        final SessionData sessionData = session.getRepositorySession().getData();
+        synchronized (VersionIndex.class) {
+            VersionIndex versionIndex = (VersionIndex) sessionData.get(key);
+            if (versionIndex == null) {
+                versionIndex = new VersionIndex();
+                sessionData.set(key, versionIndex);
+            }
+            return versionIndex;
+        }
+    }
+
+    /**
+     * Adds columns describing distance from latest release to report, if versions are indexed.
+     *
+     * @param reportGenerator report generator
+     * @param dependencies    reported dependencies
+     */
+    protected final void addVersionColumns(final ReportGenerator reportGenerator, final Collection<Dependency> dependencies) {
+        if (!indexVersions) {
+            return;
+        }
+        final VersionIndex versionIndex = getVersionIndex();
+        final Map<String, String> latest = new HashMap<>();
+        final Map<String, String> releases = new HashMap<>();
+        final Map<String, String> majors = new HashMap<>();
+        final Map<String, String> minors = new HashMap<>();
+        for (final Dependency dependency : dependencies) {
+            final ArtifactVersions versions = versionIndex.get(dependency);
+            if (versions != null && !versions.isEmpty()) {
+                final String name = InfoGenerator.coordinates(dependency);
+                latest.put(name, versions.getLatest());
+                releases.put(name, String.valueOf(versions.releasesBehind(dependency.getVersion())));
+                majors.put(name, String.valueOf(versions.majorsBehind(dependency.getVersion())));
+                minors.put(name, String.valueOf(versions.minorsBehind(dependency.getVersion())));
+            }
+        }
+        reportGenerator.addColumn("Latest release", latest);
+        reportGenerator.addColumn("Releases behind", releases);
+        reportGenerator.addColumn("Majors behind", majors);
+        reportGenerator.addColumn("Minors behind", minors);
+    }
+
+    /**
+     * Provides lookup client of endpoint shared by all mojo executions of current build.
+     * <p>
+     * Every endpoint has its own client (with its own connection pool, concurrency limit
+     * and circuit breaker), so slow endpoint never holds up requests to fast one.
+     * Client is created by first execution that needs it, so its settings
+     * come from that execution. Clients are closed once last project of the build releases them,
+     * see {@link #releaseLookupClients()}.
+     *
+     * @param endpoint name of endpoint, for example repository URL
+     * @return view of shared lookup client, recording metrics of this execution
+     */
+    protected final LookupClient getLookupClient(final String endpoint) {
+        return SharedLookupClients.shared(session.getRepositorySession().getData())
+            .get(endpoint, this, () -> new LookupClient(maxPerRoute, maxConnections, keepAlive, connectTimeout, timeout,
+                new RetryPolicy(retries, retryDelay, maxRetryDelay), new CircuitBreaker(breakerThreshold, breakerDelay)))
+            .metered(metrics);
+    }
+
+    /**
+     * Releases shared lookup clients used by this execution once its lookups are done.
+     * <p>
+     * Clients are closed when last project of the build releases them and no other execution uses them.
+     */
+    protected final void releaseLookupClients() {
+        final List<MavenProject> projects = session.getProjects();
+        SharedLookupClients.shared(session.getRepositorySession().getData()).release(this, projects.indexOf(project) == projects.size() - 1);
+    }
+
+    /**
+     * Logs summary of metrics of this execution and writes them to JSON file if requested.
+     * <p>
+     * Pending revalidations of stored responses are awaited first, so their requests are counted,
+     * then shared lookup clients are released. Failure to write metrics is logged, it never fails the build.
+     */
+    protected final void reportMetrics() {
+        ResponseStore.awaitRevalidations(session.getRepositorySession().getData(), getCacheDirectory(), timeout, getLog());
+        releaseLookupClients();
+        getLog().info("Dependency age metrics of " + mojoExecution.getGoal() + ":");
+        metrics.summarize().forEach(line -> getLog().info("  " + line));
+        if (!writeMetrics) {
+            return;
+        }
+        final Path metricsFile = Paths.get(project.getBuild().getDirectory(), "dependency-age", "dependency-age-" + mojoExecution.getGoal() + "-metrics.json");
+        try {
+            Files.createDirectories(metricsFile.getParent());
+            metrics.writeJson(metricsFile, mojoExecution.getGoal(), project.getId());
+            getLog().info("Metrics saved to " + metricsFile);
+        } catch (IOException e) {
+            getLog().warn("Cannot write metrics to " + metricsFile + ": " + e.getMessage());
+        }
+    }
 
 }
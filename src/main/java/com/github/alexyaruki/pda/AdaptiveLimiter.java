@@ -0,0 +1,88 @@
+package com.github.alexyaruki.pda;
+
+/**
+ * Limit of concurrently running lookup requests, adapted to server load (AIMD).
+ * <p>
+ * Every healthy response raises limit additively, by one request per full window of
+ * requests. Every throttled or failed request halves it. Limit stays between one
+ * request and configured maximum, so throughput settles close to what server accepts.
+ */
+final class AdaptiveLimiter {
+
+    /**
+     * Factor applied to limit when server is overloaded.
+     */
+    private static final double DECREASE = 0.5;
+
+    /**
+     * Maximum limit.
+     */
+    private final int maxLimit;
+
+    /**
+     * Lock guarding limit and number of running requests.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Current limit, fraction is accumulated additive increase.
+     */
+    private double limit;
+
+    /**
+     * Number of running requests.
+     */
+    private int inFlight;
+
+    /**
+     * Creates limiter starting at half of maximum limit.
+     *
+     * @param maximum maximum number of concurrently running requests
+     */
+    AdaptiveLimiter(final int maximum) {
+        this.maxLimit = Math.max(1, maximum);
+        this.limit = Math.max(1, maxLimit / 2);
+    }
+
+    /**
+     * Returns current limit.
+     *
+     * @return number of requests which can run at once
+     */
+    int getLimit() {
+        synchronized (lock) {
+            return (int) limit;
+        }
+    }
+
+    /**
+     * Waits until request can be started.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void acquire() throws InterruptedException {
+        synchronized (lock) {
+            while (inFlight >= (int) limit) {
+                lock.wait();
+            }
+            inFlight++;
+        }
+    }
+
+    /**
+     * Marks request as finished and adapts limit to its outcome.
+     *
+     * @param overloaded whether request was throttled or failed
+     */
+    void release(final boolean overloaded) {
+        synchronized (lock) {
+            inFlight--;
+            if (overloaded) {
+                limit = Math.max(1, limit * DECREASE);
+            } else {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            lock.notifyAll();
+        }
+    }
+}
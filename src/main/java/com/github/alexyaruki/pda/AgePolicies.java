@@ -0,0 +1,215 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.model.Dependency;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Default age policy with per groupId overrides.
+ * <p>
+ * Override has form {@code groupId=age[:severity]}, groupId ending with {@code *} matches groupIds
+ * starting with it. Override without severity has configured default severity. Literal groupId takes precedence over prefixes, longer prefix over shorter one.
+ * Policies are compiled into cutoff timestamps, so every dependency is checked with single
+ * comparison and only violations are described.
+ */
+final class AgePolicies {
+
+    /**
+     * Separator of groupId and age of override.
+     */
+    private static final char GROUP_SEPARATOR = '=';
+
+    /**
+     * Separator of age and severity of override.
+     */
+    private static final char LEVEL_SEPARATOR = ':';
+
+    /**
+     * Policy number of groupIds without policy.
+     */
+    private static final int NO_POLICY = -1;
+
+    /**
+     * Policies, default policy (if any) is first.
+     */
+    private final List<AgePolicy> policies = new ArrayList<>();
+
+    /**
+     * Policy numbers of literal groupIds.
+     */
+    private final Map<String, Integer> exact = new HashMap<>();
+
+    /**
+     * GroupId prefixes, longest first.
+     */
+    private final List<String> prefixes = new ArrayList<>();
+
+    /**
+     * Policy numbers of groupId prefixes.
+     */
+    private final Map<String, Integer> prefixPolicies = new HashMap<>();
+
+    /**
+     * Policy number of groupIds without override.
+     */
+    private int fallback = NO_POLICY;
+
+    /**
+     * Creates policies, use {@link #compile(AgePolicy, Collection, AgePolicy.Severity)}.
+     */
+    private AgePolicies() {
+    }
+
+    /**
+     * Compiles policies.
+     *
+     * @param defaultPolicy   policy of groupIds without override, may be {@code null}
+     * @param overrides       overrides of policy per groupId, may be {@code null}
+     * @param defaultSeverity severity of overrides not specifying one
+     * @return compiled policies
+     * @throws IllegalArgumentException if override is malformed
+     */
+    static AgePolicies compile(final AgePolicy defaultPolicy, final Collection<String> overrides, final AgePolicy.Severity defaultSeverity) {
+        final AgePolicies compiled = new AgePolicies();
+        if (defaultPolicy != null) {
+            compiled.fallback = compiled.addPolicy(defaultPolicy);
+        }
+        if (overrides != null) {
+            for (final String override : overrides) {
+                if (StringUtils.isNotBlank(override)) {
+                    compiled.addOverride(override.trim(), defaultSeverity);
+                }
+            }
+        }
+        compiled.prefixes.sort(Comparator.comparingInt(String::length).reversed());
+        return compiled;
+    }
+
+    /**
+     * Checks whether there is no policy.
+     *
+     * @return true if neither default policy nor overrides are defined
+     */
+    boolean isEmpty() {
+        return policies.isEmpty();
+    }
+
+    /**
+     * Checks timestamps of dependencies.
+     *
+     * @param timestampMap map of dependencies to theirs timestamps
+     * @param now          current time, in milliseconds since epoch
+     * @param violations   consumer of dependencies (with timestamps) violating policies
+     */
+    void check(final Map<Dependency, Long> timestampMap, final long now, final BiConsumer<Map.Entry<Dependency, Long>, AgePolicy> violations) {
+        final long[] cutoffs = new long[policies.size()];
+        for (int number = 0; number < cutoffs.length; number++) {
+            cutoffs[number] = policies.get(number).cutoff(now);
+        }
+        final Map<String, Integer> groupPolicies = new HashMap<>();
+        for (final Map.Entry<Dependency, Long> entry : timestampMap.entrySet()) {
+            final int number = groupPolicies.computeIfAbsent(entry.getKey().getGroupId(), this::findPolicy);
+            if (number != NO_POLICY && entry.getValue() <= cutoffs[number]) {
+                violations.accept(entry, policies.get(number));
+            }
+        }
+    }
+
+    /**
+     * Checks timestamp of single dependency.
+     *
+     * @param dependency dependency
+     * @param timestamp  its timestamp
+     * @param now        current time, in milliseconds since epoch
+     * @return policy violated by dependency, {@code null} if dependency meets its policy or has none
+     */
+    AgePolicy findViolated(final Dependency dependency, final long timestamp, final long now) {
+        final int number = findPolicy(dependency.getGroupId());
+        if (number == NO_POLICY || timestamp > policies.get(number).cutoff(now)) {
+            return null;
+        }
+        return policies.get(number);
+    }
+
+    /**
+     * Finds policy of groupId.
+     *
+     * @param groupId groupId
+     * @return policy number, {@link #NO_POLICY} if groupId has no policy
+     */
+    private int findPolicy(final String groupId) {
+        final Integer number = exact.get(groupId);
+        if (number != null) {
+            return number;
+        }
+        for (final String prefix : prefixes) {
+            if (groupId.startsWith(prefix)) {
+                return prefixPolicies.get(prefix);
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Parses and adds override.
+     *
+     * @param override        override
+     * @param defaultSeverity severity used if override does not specify one
+     */
+    private void addOverride(final String override, final AgePolicy.Severity defaultSeverity) {
+        final int groupEnd = override.indexOf(GROUP_SEPARATOR);
+        if (groupEnd <= 0) {
+            throw new IllegalArgumentException("Malformed age policy: " + override);
+        }
+        final String group = override.substring(0, groupEnd).trim();
+        String age = override.substring(groupEnd + 1);
+        AgePolicy.Severity severity = defaultSeverity;
+        final int severityStart = age.lastIndexOf(LEVEL_SEPARATOR);
+        if (severityStart >= 0) {
+            severity = parseSeverity(age.substring(severityStart + 1));
+            age = age.substring(0, severityStart);
+        }
+        final int number = addPolicy(AgePolicy.parse(age, severity));
+        if (group.endsWith("*")) {
+            final String prefix = group.substring(0, group.length() - 1);
+            prefixes.add(prefix);
+            prefixPolicies.put(prefix, number);
+        } else {
+            exact.put(group, number);
+        }
+    }
+
+    /**
+     * Adds policy.
+     *
+     * @param policy policy
+     * @return policy number
+     */
+    private int addPolicy(final AgePolicy policy) {
+        policies.add(policy);
+        return policies.size() - 1;
+    }
+
+    /**
+     * Parses severity.
+     *
+     * @param severity name of severity, case insensitive
+     * @return severity
+     * @throws IllegalArgumentException if severity is unknown
+     */
+    static AgePolicy.Severity parseSeverity(final String severity) {
+        try {
+            return AgePolicy.Severity.valueOf(severity.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown severity: " + severity, e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.github.alexyaruki.pda;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maximal age of dependencies with severity of its violation.
+ * <p>
+ * Age may combine units, e.g. {@code 1 year 30 days} or {@code 1y30d}, year is 365 days.
+ */
+final class AgePolicy {
+
+    /**
+     * Severity of policy violation.
+     */
+    enum Severity {
+        /**
+         * Violation is logged as warning.
+         */
+        WARN,
+        /**
+         * Violation is logged as error and fails build.
+         */
+        FAIL
+    }
+
+    /**
+     * Days in year.
+     */
+    private static final long DAYS_IN_YEAR = 365;
+
+    /**
+     * Units of age components, by first letter.
+     */
+    private static final String UNITS = "ydhm";
+
+    /**
+     * Single component of age, amount followed by unit.
+     */
+    private static final Pattern COMPONENT = Pattern.compile("(\\d+)\\s*(years?|y|days?|d|hours?|h|minutes?|min|m)(?![a-z])[\\s,]*");
+
+    /**
+     * Maximal age, in milliseconds.
+     */
+    private final long limit;
+
+    /**
+     * Severity of violation.
+     */
+    private final Severity severity;
+
+    /**
+     * Human readable maximal age.
+     */
+    private final String description;
+
+    /**
+     * Creates policy.
+     *
+     * @param limitMillis     maximal age, in milliseconds
+     * @param policySeverity  severity of violation
+     * @param limitDescription human readable maximal age
+     */
+    private AgePolicy(final long limitMillis, final Severity policySeverity, final String limitDescription) {
+        this.limit = limitMillis;
+        this.severity = policySeverity;
+        this.description = limitDescription;
+    }
+
+    /**
+     * Creates policy from limiters.
+     *
+     * @param years    years limiter, 0 if not used
+     * @param days     days limiter, 0 if not used
+     * @param hours    hours limiter, 0 if not used
+     * @param minutes  minutes limiter, 0 if not used
+     * @param severity severity of violation
+     * @return policy with sum of limiters as maximal age, null if no limiter is used
+     */
+    static AgePolicy ofLimiters(final long years, final long days, final long hours, final long minutes, final Severity severity) {
+        final long limit = TimeUnit.DAYS.toMillis(years * DAYS_IN_YEAR + days) + TimeUnit.HOURS.toMillis(hours) + TimeUnit.MINUTES.toMillis(minutes);
+        if (limit <= 0) {
+            return null;
+        }
+        final StringJoiner description = new StringJoiner(" ");
+        describe(description, years, "year");
+        describe(description, days, "day");
+        describe(description, hours, "hour");
+        describe(description, minutes, "minute");
+        return new AgePolicy(limit, severity, description.toString());
+    }
+
+    /**
+     * Parses policy.
+     *
+     * @param age      maximal age, e.g. {@code 1 year 30 days}
+     * @param severity severity of violation
+     * @return policy
+     * @throws IllegalArgumentException if age is malformed or zero
+     */
+    static AgePolicy parse(final String age, final Severity severity) {
+        final Matcher matcher = COMPONENT.matcher(age.trim().toLowerCase(Locale.ROOT));
+        final long[] amounts = new long[UNITS.length()];
+        int end = 0;
+        while (matcher.lookingAt()) {
+            amounts[UNITS.indexOf(matcher.group(2).charAt(0))] += Long.parseLong(matcher.group(1));
+            end = matcher.end();
+            matcher.region(end, matcher.regionEnd());
+        }
+        final AgePolicy policy = ofLimiters(amounts[0], amounts[1], amounts[2], amounts[UNITS.length() - 1], severity);
+        if (end != matcher.regionEnd() || policy == null) {
+            throw new IllegalArgumentException("Malformed age: " + age);
+        }
+        return policy;
+    }
+
+    /**
+     * Computes oldest timestamp not violating policy.
+     *
+     * @param now current time, in milliseconds since epoch
+     * @return timestamps lower or equal to cutoff violate policy
+     */
+    long cutoff(final long now) {
+        return now - limit;
+    }
+
+    /**
+     * Returns severity of violation.
+     *
+     * @return severity of violation
+     */
+    Severity getSeverity() {
+        return severity;
+    }
+
+    /**
+     * Returns human readable maximal age.
+     *
+     * @return human readable maximal age
+     */
+    String getDescription() {
+        return description;
+    }
+
+    /**
+     * Adds component of age to description.
+     *
+     * @param description description being built
+     * @param amount      amount of unit, not added if 0
+     * @param unit        singular name of unit
+     */
+    private static void describe(final StringJoiner description, final long amount, final String unit) {
+        if (amount == 1) {
+            description.add(amount + " " + unit);
+        } else if (amount > 0) {
+            description.add(amount + " " + unit + "s");
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.regex.Pattern;
+
+/**
+ * Released versions of single artifact, sorted in Maven version order.
+ * <p>
+ * Versions are parsed once, so distance of used version from latest release is found
+ * with binary searches. Snapshots, milestones, alphas, betas and release candidates are
+ * not counted as releases.
+ */
+final class ArtifactVersions {
+
+    /**
+     * Qualifiers of versions which are not releases.
+     */
+    private static final Pattern PRE_RELEASE = Pattern.compile("(?i).*[-._\\d](alpha|beta|rc|cr|m|milestone|snapshot|preview|ea)[-._]?\\d*$");
+
+    /**
+     * Number of bits of minor line key holding minor version.
+     */
+    private static final int MINOR_BITS = 32;
+
+    /**
+     * Released versions, ascending.
+     */
+    private final ComparableVersion[] releases;
+
+    /**
+     * Distinct major versions of releases, ascending.
+     */
+    private final int[] majors;
+
+    /**
+     * Distinct minor lines (major and minor version) of releases, ascending.
+     */
+    private final long[] minors;
+
+    /**
+     * Creates sorted list of released versions.
+     *
+     * @param versions all versions of artifact, in any order
+     */
+    ArtifactVersions(final Collection<String> versions) {
+        releases = versions.stream()
+            .filter(version -> !PRE_RELEASE.matcher(version).matches())
+            .map(ComparableVersion::new)
+            .sorted()
+            .toArray(ComparableVersion[]::new);
+        majors = Arrays.stream(releases).mapToInt(release -> parse(release.toString()).getMajorVersion()).sorted().distinct().toArray();
+        minors = Arrays.stream(releases).mapToLong(release -> minorLine(release.toString())).sorted().distinct().toArray();
+    }
+
+    /**
+     * Checks whether artifact has any release.
+     *
+     * @return true if no release is known
+     */
+    boolean isEmpty() {
+        return releases.length == 0;
+    }
+
+    /**
+     * Returns latest release.
+     *
+     * @return latest release, {@code null} if artifact has no release
+     */
+    String getLatest() {
+        if (isEmpty()) {
+            return null;
+        }
+        return releases[releases.length - 1].toString();
+    }
+
+    /**
+     * Counts releases newer than version.
+     *
+     * @param version used version
+     * @return number of releases newer than used version
+     */
+    int releasesBehind(final String version) {
+        final int found = Arrays.binarySearch(releases, new ComparableVersion(version));
+        if (found >= 0) {
+            return releases.length - found - 1;
+        }
+        return releases.length + found + 1;
+    }
+
+    /**
+     * Counts major versions newer than major version of version.
+     *
+     * @param version used version
+     * @return number of released major versions newer than used one
+     */
+    int majorsBehind(final String version) {
+        return countNewer(Arrays.binarySearch(majors, parse(version).getMajorVersion()), majors.length);
+    }
+
+    /**
+     * Counts minor lines (major and minor version) newer than minor line of version.
+     *
+     * @param version used version
+     * @return number of released minor lines newer than used one
+     */
+    int minorsBehind(final String version) {
+        return countNewer(Arrays.binarySearch(minors, minorLine(version)), minors.length);
+    }
+
+    /**
+     * Counts elements of sorted array after searched value.
+     *
+     * @param found  result of binary search
+     * @param length length of searched array
+     * @return number of elements greater than searched value
+     */
+    private static int countNewer(final int found, final int length) {
+        if (found >= 0) {
+            return length - found - 1;
+        }
+        return length + found + 1;
+    }
+
+    /**
+     * Creates sortable key of minor line of version.
+     *
+     * @param version version
+     * @return major version in high bits, minor version in low bits
+     */
+    private static long minorLine(final String version) {
+        final DefaultArtifactVersion parsed = parse(version);
+        return ((long) parsed.getMajorVersion() << MINOR_BITS) | parsed.getMinorVersion();
+    }
+
+    /**
+     * Parses version into numeric components.
+     *
+     * @param version version
+     * @return parsed version, components of unparseable version are 0
+     */
+    private static DefaultArtifactVersion parse(final String version) {
+        return new DefaultArtifactVersion(version);
+    }
+}
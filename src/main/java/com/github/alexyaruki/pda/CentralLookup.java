@@ -0,0 +1,323 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class for looking up dependency timestamps in Maven Central search API.
+ */
+final class CentralLookup implements TimestampResolver {
+
+    /**
+     * Operator joining clauses of batched query.
+     */
+    private static final String OR_OPERATOR = "+OR+";
+
+    /**
+     * Longest possible part of batched query URL other than clauses.
+     */
+    private static final String BATCH_SUFFIX = "?q=&core=gav&rows=2147483647&wt=json";
+
+    /**
+     * Maven logger instance.
+     */
+    private final Log log;
+
+    /**
+     * Client used for HTTP requests.
+     */
+    private final LookupClient client;
+
+    /**
+     * Address of Maven Central search API.
+     */
+    private final String searchUrl;
+
+    /**
+     * How Maven Central is queried.
+     */
+    private final LookupMode mode;
+
+    /**
+     * Number of versions requested in {@link LookupMode#ARTIFACT} mode.
+     */
+    private final int rows;
+
+    /**
+     * Maximum number of dependencies queried in single request.
+     */
+    private final int batchSize;
+
+    /**
+     * Maximum length of batched query URL.
+     */
+    private final int maxUrlLength;
+
+    /**
+     * Index receiving all versions of looked up artifacts, {@code null} if versions are not indexed.
+     */
+    private final VersionIndex versionIndex;
+
+    /**
+     * Fetcher of stored and revalidated version lists, {@code null} if responses are not stored.
+     */
+    private final RevalidatingFetcher fetcher;
+
+    /**
+     * Creates Maven Central lookup.
+     *
+     * @param mavenLog       Maven logger instance
+     * @param lookupClient   client used for HTTP requests
+     * @param centralUrl     address of Maven Central search API
+     * @param lookupMode     how Maven Central is queried
+     * @param lookupRows     number of versions requested in {@link LookupMode#ARTIFACT} mode
+     * @param lookupBatch    maximum number of dependencies queried in single request
+     * @param urlLengthLimit maximum length of batched query URL
+     */
+    CentralLookup(final Log mavenLog, final LookupClient lookupClient, final String centralUrl, final LookupMode lookupMode,
+                  final int lookupRows, final int lookupBatch, final int urlLengthLimit) {
+        this.log = mavenLog;
+        this.client = lookupClient;
+        this.searchUrl = centralUrl;
+        this.mode = lookupMode;
+        this.rows = Math.max(1, lookupRows);
+        this.batchSize = Math.max(1, lookupBatch);
+        this.maxUrlLength = urlLengthLimit;
+        this.versionIndex = null;
+        this.fetcher = null;
+    }
+
+    /**
+     * Creates copy of lookup with different mode, index or fetcher.
+     *
+     * @param lookup          lookup to copy
+     * @param lookupMode      how Maven Central is queried
+     * @param index           index receiving all versions of looked up artifacts, {@code null} if versions are not indexed
+     * @param responseFetcher fetcher of stored version lists, {@code null} if responses are not stored
+     */
+    private CentralLookup(final CentralLookup lookup, final LookupMode lookupMode, final VersionIndex index,
+                          final RevalidatingFetcher responseFetcher) {
+        this.log = lookup.log;
+        this.client = lookup.client;
+        this.searchUrl = lookup.searchUrl;
+        this.mode = lookupMode;
+        this.rows = lookup.rows;
+        this.batchSize = lookup.batchSize;
+        this.maxUrlLength = lookup.maxUrlLength;
+        this.versionIndex = index;
+        this.fetcher = responseFetcher;
+    }
+
+    /**
+     * Creates lookup keeping all versions of every looked up artifact in index.
+     * <p>
+     * Lookup is switched to {@link LookupMode#ARTIFACT} mode, versions come from the same responses
+     * as timestamps, so indexing needs no extra requests.
+     *
+     * @param index index receiving all versions of looked up artifacts
+     * @return indexing lookup
+     */
+    CentralLookup indexed(final VersionIndex index) {
+        return new CentralLookup(this, LookupMode.ARTIFACT, index, fetcher);
+    }
+
+    /**
+     * Creates lookup keeping version lists of artifacts in store and revalidating them once they are stale.
+     * <p>
+     * Only responses of {@link LookupMode#ARTIFACT} mode are stored, responses of other modes
+     * are specific to single version or batch and their timestamps are cached anyway.
+     *
+     * @param store           store of version lists
+     * @param revalidateAfter how long (in milliseconds) stored version list is used without revalidation
+     * @return revalidating lookup
+     */
+    CentralLookup revalidating(final ResponseStore store, final long revalidateAfter) {
+        return new CentralLookup(this, mode, versionIndex, new RevalidatingFetcher(log, client, store, revalidateAfter));
+    }
+
+    /**
+     * Checks whether dependency must be looked up even if its timestamp is cached.
+     *
+     * @param dependency dependency to look up
+     * @return true if versions of its artifact are indexed, but were not looked up yet
+     */
+    @Override
+    public boolean needsLookup(final Dependency dependency) {
+        return versionIndex != null && !versionIndex.contains(dependency);
+    }
+
+    /**
+     * Identifies request looking up dependency.
+     * <p>
+     * In {@link LookupMode#ARTIFACT} mode whole version list of artifact is fetched, so lookups
+     * of all versions of the same artifact share single request.
+     *
+     * @param dependency dependency to look up
+     * @return groupId:artifactId in {@link LookupMode#ARTIFACT} mode, coordinates (groupId:artifactId:version) otherwise
+     */
+    @Override
+    public String lookupKey(final Dependency dependency) {
+        if (mode == LookupMode.ARTIFACT) {
+            return dependency.getGroupId() + ":" + dependency.getArtifactId();
+        }
+        return InfoGenerator.coordinates(dependency);
+    }
+
+    /**
+     * Checks whether dependency can be added to batch queried in single request.
+     * <p>
+     * Batches are limited by batch size and query URL length. In {@link LookupMode#ARTIFACT}
+     * mode every dependency is queried separately.
+     *
+     * @param batch      current batch
+     * @param dependency dependency to add
+     * @return true if dependency can be added to batch
+     * @throws IOException if query cannot be encoded
+     */
+    @Override
+    public boolean fits(final List<Dependency> batch, final Dependency dependency) throws IOException {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        if (mode == LookupMode.ARTIFACT || batch.size() >= batchSize) {
+            return false;
+        }
+        int urlLength = searchUrl.length() + BATCH_SUFFIX.length();
+        for (final Dependency batched : batch) {
+            urlLength += createClause(batched).length() + OR_OPERATOR.length();
+        }
+        return urlLength + createClause(dependency).length() <= maxUrlLength;
+    }
+
+    /**
+     * Downloads timestamps of batch of dependencies in single request.
+     *
+     * @param batch dependencies to look up
+     * @return map of coordinates (groupId:artifactId:version) to timestamp, 0 if version was not found,
+     * -1 if lookup failed
+     */
+    @Override
+    public Map<String, Long> downloadTimestamps(final List<Dependency> batch) {
+        if (batch.size() == 1) {
+            final Dependency dependency = batch.get(0);
+            return downloadTimestamp(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion());
+        }
+        final Map<String, Long> found = new HashMap<>();
+        long fallback = 0;
+        try {
+            final StringBuilder query = new StringBuilder(searchUrl).append("?q=");
+            for (int i = 0; i < batch.size(); i++) {
+                if (i > 0) {
+                    query.append(OR_OPERATOR);
+                }
+                query.append(createClause(batch.get(i)));
+            }
+            query.append("&core=gav&rows=").append(batch.size()).append("&wt=json");
+            if (!SearchResponseParser.search(client, query.toString(), found, log)) {
+                fallback = -1;
+            }
+        } catch (IOException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Batch lookup failed: " + e.getMessage());
+            }
+            fallback = -1;
+        }
+        final Map<String, Long> timestamps = new HashMap<>();
+        for (final Dependency dependency : batch) {
+            final String name = InfoGenerator.coordinates(dependency);
+            timestamps.put(name, found.getOrDefault(name, fallback));
+        }
+        return timestamps;
+    }
+
+    /**
+     * Downloads timestamp of dependency, in {@link LookupMode#ARTIFACT} mode together with timestamps
+     * of all other versions of its artifact, indexing them if requested.
+     *
+     * @param group    groupId of dependency
+     * @param artifact artifactId of dependency
+     * @param version  version of dependency
+     * @return map of coordinates (groupId:artifactId:version) to timestamp, 0 if version was not found,
+     * -1 if lookup failed
+     */
+    Map<String, Long> downloadTimestamp(final String group, final String artifact, final String version) {
+        final String coordinates = group + ":" + artifact + ":" + version;
+        Map<String, Long> found = null;
+        try {
+            final String query = createQuery(group, artifact, version);
+            if (fetcher != null && mode == LookupMode.ARTIFACT) {
+                found = fetcher.fetch(group + ":" + artifact, query, coordinates, versionIndex != null);
+            } else {
+                final Map<String, Long> searched = new HashMap<>();
+                if (SearchResponseParser.search(client, query, searched, log)) {
+                    found = searched;
+                }
+            }
+        } catch (IOException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Lookup of " + coordinates + " failed: " + e.getMessage());
+            }
+        }
+        if (found == null) {
+            return Collections.singletonMap(coordinates, -1L);
+        }
+        if (versionIndex != null) {
+            versionIndex.put(group, artifact, found);
+        }
+        found.putIfAbsent(coordinates, 0L);
+        return found;
+    }
+
+    /**
+     * Creates search query URL for dependency.
+     *
+     * @param group    groupId of dependency
+     * @param artifact artifactId of dependency
+     * @param version  version of dependency
+     * @return query URL
+     * @throws IOException if query cannot be encoded
+     */
+    private String createQuery(final String group, final String artifact, final String version) throws IOException {
+        final StringBuilder query = new StringBuilder(searchUrl)
+            .append("?q=g%3A%22").append(encode(group))
+            .append("%22+AND+a%3A%22").append(encode(artifact)).append("%22");
+        if (mode == LookupMode.VERSION) {
+            query.append("+AND+v%3A%22").append(encode(version)).append("%22&core=gav&rows=1&wt=json");
+        } else {
+            query.append("&core=gav&rows=").append(rows).append("&wt=json");
+        }
+        return query.toString();
+    }
+
+    /**
+     * Creates query clause matching exact version of dependency.
+     *
+     * @param dependency dependency
+     * @return encoded query clause
+     * @throws IOException if query cannot be encoded
+     */
+    private static String createClause(final Dependency dependency) throws IOException {
+        return "%28g%3A%22" + encode(dependency.getGroupId())
+            + "%22+AND+a%3A%22" + encode(dependency.getArtifactId())
+            + "%22+AND+v%3A%22" + encode(dependency.getVersion()) + "%22%29";
+    }
+
+    /**
+     * Encodes value for use in query URL.
+     *
+     * @param value value to encode
+     * @return encoded value
+     * @throws IOException if UTF-8 is not supported
+     */
+    private static String encode(final String value) throws IOException {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.alexyaruki.pda;
+
+/**
+ * Circuit breaker stopping lookup requests to endpoint which is clearly down.
+ * <p>
+ * After given number of consecutive failures circuit opens and requests fail immediately.
+ * Once open delay passes, single probe request is let through; its success closes circuit,
+ * its failure keeps circuit open for another delay. Probe which never records its outcome
+ * (for example because it was interrupted) is given up after another delay, so the next
+ * request becomes new probe instead of circuit staying open for rest of the build.
+ */
+final class CircuitBreaker {
+
+    /**
+     * Number of consecutive failures opening circuit, 0 if circuit never opens.
+     */
+    private final int threshold;
+
+    /**
+     * How long (in milliseconds) circuit stays open before probe request.
+     */
+    private final long openDelay;
+
+    /**
+     * Lock guarding state of circuit.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Number of consecutive failures.
+     */
+    private int failures;
+
+    /**
+     * Time until which circuit stays open.
+     */
+    private long openUntil;
+
+    /**
+     * Whether probe request is running.
+     */
+    private boolean probing;
+
+    /**
+     * Time after which running probe is given up.
+     */
+    private long probeUntil;
+
+    /**
+     * Creates closed circuit breaker.
+     *
+     * @param failureThreshold number of consecutive failures opening circuit, 0 if circuit never opens
+     * @param delay            how long (in milliseconds) circuit stays open before probe request
+     */
+    CircuitBreaker(final int failureThreshold, final long delay) {
+        this.threshold = Math.max(0, failureThreshold);
+        this.openDelay = Math.max(0, delay);
+    }
+
+    /**
+     * Checks whether request can be sent.
+     *
+     * @return true if circuit is closed or request is probe of open circuit
+     */
+    boolean allowRequest() {
+        synchronized (lock) {
+            if (threshold == 0 || failures < threshold) {
+                return true;
+            }
+            final long now = System.currentTimeMillis();
+            if (now < openUntil || probing && now < probeUntil) {
+                return false;
+            }
+            probing = true;
+            probeUntil = now + openDelay;
+            return true;
+        }
+    }
+
+    /**
+     * Records outcome of request.
+     *
+     * @param success whether endpoint answered request
+     */
+    void record(final boolean success) {
+        synchronized (lock) {
+            probing = false;
+            if (success) {
+                failures = 0;
+                return;
+            }
+            failures++;
+            if (threshold > 0 && failures >= threshold) {
+                openUntil = System.currentTimeMillis() + openDelay;
+            }
+        }
+    }
+}
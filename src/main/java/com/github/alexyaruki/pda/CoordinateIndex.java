@@ -0,0 +1,180 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Index of distinct dependencies, each identified by number.
+ * <p>
+ * Coordinates strings are interned, so dependencies sharing groupId or artifactId share
+ * single string instance. Timestamps and usage counts are kept in primitive arrays indexed
+ * by dependency number and filled as lookups complete, so memory grows with number of
+ * distinct dependencies only.
+ */
+final class CoordinateIndex {
+
+    /**
+     * Initial capacity of arrays.
+     */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * Pool of interned coordinate strings.
+     */
+    private final Map<String, String> strings = new HashMap<>();
+
+    /**
+     * Dependency numbers by coordinates (groupId:artifactId:version).
+     */
+    private final Map<String, Integer> numbers = new HashMap<>();
+
+    /**
+     * Distinct dependencies, by number.
+     */
+    private final List<Dependency> dependencies = new ArrayList<>();
+
+    /**
+     * Timestamps of dependencies, by number.
+     */
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+
+    /**
+     * Number of usages of dependencies, by number.
+     */
+    private int[] usages = new int[INITIAL_CAPACITY];
+
+    /**
+     * Adds usage of dependency.
+     *
+     * @param dependency used dependency
+     * @return true if dependency was not in index yet
+     */
+    boolean add(final Dependency dependency) {
+        final String name = InfoGenerator.coordinates(dependency);
+        final Integer number = numbers.get(name);
+        if (number != null) {
+            usages[number]++;
+            return false;
+        }
+        final int added = dependencies.size();
+        if (added == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, added * 2);
+            usages = Arrays.copyOf(usages, added * 2);
+        }
+        final Dependency interned = new Dependency();
+        interned.setGroupId(intern(dependency.getGroupId()));
+        interned.setArtifactId(intern(dependency.getArtifactId()));
+        interned.setVersion(intern(dependency.getVersion()));
+        dependencies.add(interned);
+        numbers.put(name, added);
+        timestamps[added] = -1;
+        usages[added] = 1;
+        return true;
+    }
+
+    /**
+     * Stores found timestamp of dependency, as soon as it is known.
+     *
+     * @param dependency dependency in index, others are ignored
+     * @param timestamp  its timestamp, 0 if not found, -1 if lookup failed
+     */
+    void setTimestamp(final Dependency dependency, final long timestamp) {
+        final Integer number = numbers.get(InfoGenerator.coordinates(dependency));
+        if (number != null) {
+            timestamps[number] = timestamp;
+        }
+    }
+
+    /**
+     * Returns number of distinct dependencies.
+     *
+     * @return number of distinct dependencies
+     */
+    int size() {
+        return dependencies.size();
+    }
+
+    /**
+     * Returns dependency with given number.
+     *
+     * @param number dependency number
+     * @return dependency
+     */
+    Dependency getDependency(final int number) {
+        return dependencies.get(number);
+    }
+
+    /**
+     * Returns timestamp of dependency with given number.
+     *
+     * @param number dependency number
+     * @return timestamp, -1 if lookup failed
+     */
+    long getTimestamp(final int number) {
+        return timestamps[number];
+    }
+
+    /**
+     * Returns number of usages of dependency with given number.
+     *
+     * @param number dependency number
+     * @return number of usages
+     */
+    int getUsages(final int number) {
+        return usages[number];
+    }
+
+    /**
+     * Returns dependency numbers ordered by timestamp.
+     *
+     * @return dependency numbers, oldest first
+     */
+    int[] orderByTimestamp() {
+        return IntStream.range(0, dependencies.size())
+            .boxed()
+            .sorted((first, second) -> Long.compare(timestamps[first], timestamps[second]))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    /**
+     * Describes age of every dependency, oldest first.
+     *
+     * @param ages    map receiving dependency name (groupId:artifactId:version) to textual description of its age
+     * @param details map receiving dependency name to detail of dependency
+     * @param detail  detail of dependency with given number
+     * @return dependencies, oldest first
+     */
+    List<Dependency> describe(final Map<String, String> ages, final Map<String, String> details, final IntFunction<String> detail) {
+        final List<Dependency> ordered = new ArrayList<>(dependencies.size());
+        for (final int number : orderByTimestamp()) {
+            final Dependency dependency = dependencies.get(number);
+            ordered.add(dependency);
+            final String name = InfoGenerator.coordinates(dependency);
+            ages.put(name, InfoGenerator.generateInfo(timestamps[number]));
+            details.put(name, detail.apply(number));
+        }
+        return ordered;
+    }
+
+    /**
+     * Returns pooled instance of string.
+     *
+     * @param value string
+     * @return pooled instance equal to string
+     */
+    private String intern(final String value) {
+        final String pooled = strings.putIfAbsent(value, value);
+        if (pooled == null) {
+            return value;
+        }
+        return pooled;
+    }
+}
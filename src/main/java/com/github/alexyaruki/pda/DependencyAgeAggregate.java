@@ -0,0 +1,73 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Plugin mojo - Dependency Age Report generation for whole reactor.
+ * <p>
+ * Looks up every distinct dependency of all reactor modules once and generates
+ * single report showing which modules use which dependency
+ */
+@Mojo(name = "aggregate", aggregator = true, threadSafe = true)
+class DependencyAgeAggregate extends AbstractPDAMojo {
+
+    /**
+     * Parameter for selecting report types (comma separated list of JSON, HTML and EXCEL).
+     */
+    @Parameter(property = "pda.reportType")
+    private String reportTypeString; //NOPMD
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        try {
+            long start = System.nanoTime();
+            final Set<String> reactorModules = session.getProjects()
+                .stream()
+                .map(module -> module.getGroupId() + ":" + module.getArtifactId())
+                .collect(Collectors.toSet());
+            final Map<String, Dependency> dependencies = new LinkedHashMap<>();
+            final Map<String, Set<String>> modules = new LinkedHashMap<>();
+            for (final MavenProject module : session.getProjects()) {
+                for (final Dependency dependency : module.getDependencies()) {
+                    if (reactorModules.contains(dependency.getGroupId() + ":" + dependency.getArtifactId())) {
+                        continue;
+                    }
+                    final String name = InfoGenerator.coordinates(dependency);
+                    dependencies.putIfAbsent(name, dependency);
+                    modules.computeIfAbsent(name, key -> new TreeSet<>()).add(module.getArtifactId()); //NOPMD
+                }
+            }
+            metrics.recordPhase(LookupMetrics.Phase.RESOLVE, start);
+            getLog().info("Looking up " + dependencies.size() + " distinct dependencies of " + session.getProjects().size() + " modules");
+            start = System.nanoTime();
+            final Map<Dependency, Long> timestampMap = createInfoGenerator().generateTimestampMap(dependencies.values(), getDependencyFilter());
+            metrics.recordPhase(LookupMetrics.Phase.LOOKUP, start);
+            start = System.nanoTime();
+            final Map<String, String> pdaInfo = InfoGenerator.generateInfoMap(timestampMap, localSources);
+            final Map<String, String> usedBy = new LinkedHashMap<>();
+            modules.forEach((name, moduleNames) -> usedBy.put(name, String.join(", ", moduleNames)));
+            metrics.recordPhase(LookupMetrics.Phase.FORMAT, start);
+            start = System.nanoTime();
+            final ReportGenerator reportGenerator = new ReportGenerator(getLog(), Paths.get(project.getBuild().getDirectory(), "dependency-age"),
+                "dependency-age-aggregate-report", project.getName(), "Modules");
+            addVersionColumns(reportGenerator, timestampMap.keySet());
+            reportGenerator.generate(reportTypeString, pdaInfo, usedBy);
+            metrics.recordPhase(LookupMetrics.Phase.WRITE, start);
+        } finally {
+            reportMetrics();
+        }
+    }
+
+}
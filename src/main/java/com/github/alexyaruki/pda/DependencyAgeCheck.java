@@ -1,5 +1,6 @@
 package com.github.alexyaruki.pda;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -7,43 +8,28 @@ import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * Plugin mojo - Dependency Age Check.
  * <p>
- * Validates age of dependencies
+ * Validates age of dependencies against maximal age, which may be overridden per groupId.
+ * In fail-fast mode dependencies are checked as their timestamps arrive and first failure
+ * stops remaining lookups
  */
-@Mojo(name = "check")
+@Mojo(name = "check", threadSafe = true)
 class DependencyAgeCheck extends AbstractPDAMojo {
 
     /**
      * Prefix used for check log generation per dependency.
      */
-    private static final String LOG_PART = " is older than (";
-
-    /**
-     * Check log suffix for years.
-     */
-    private static final String YEARS_SUFFIX = ") years: ";
-
-    /**
-     * Check log suffix for days.
-     */
-    private static final String DAYS_SUFFIX = ") days: ";
-
-    /**
-     * Check log suffix for hours.
-     */
-    private static final String HOURS_SUFFIX = ") hours: ";
-
-    /**
-     * Check log suffix for minutes.
-     */
-    private static final String MINUTES_SUFFIX = ") minutes: ";
+    static final String LOG_PART = " is older than ";
 
     /**
      * Mojo parameter - years limiter.
@@ -69,48 +55,239 @@ class DependencyAgeCheck extends AbstractPDAMojo {
     @Parameter(defaultValue = "0", property = "pda.minutesLimit")
     private int minutes; //NOPMD
 
+    /**
+     * Mojo parameter - maximal age combining units, e.g. {@code 1 year 30 days}, replaces limiters.
+     */
+    @Parameter(property = "pda.maxAge")
+    private String maxAge; //NOPMD
+
+    /**
+     * Mojo parameter - severity of violating maximal age or limiters (warn or fail).
+     */
+    @Parameter(defaultValue = "fail", property = "pda.severity")
+    private String severity; //NOPMD
+
+    /**
+     * Mojo parameter - maximal age per groupId, in form {@code groupId=age[:severity]}, severity defaults to {@code severity}.
+     */
+    @Parameter(property = "pda.policies")
+    private List<String> policies; //NOPMD
+
+    /**
+     * Mojo parameter - maximal number of releases newer than used version, 0 if not limited.
+     */
+    @Parameter(property = "pda.releasesBehind")
+    private int releasesBehind; //NOPMD
+
+    /**
+     * Mojo parameter - maximal number of major versions newer than used one, 0 if not limited.
+     */
+    @Parameter(property = "pda.majorsBehind")
+    private int majorsBehind; //NOPMD
+
+    /**
+     * Mojo parameter - maximal number of minor versions (within any major version) newer than used one, 0 if not limited.
+     */
+    @Parameter(property = "pda.minorsBehind")
+    private int minorsBehind; //NOPMD
+
+    /**
+     * Mojo parameter - check every dependency as soon as its timestamp is known, cancel remaining lookups
+     * and fail on first failing dependency. Likely offenders are looked up first.
+     */
+    @Parameter(property = "pda.failFast")
+    private boolean failFast; //NOPMD
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
-        if (IntStream.of(years, days, hours, minutes).allMatch(param -> param == 0)) {
+        final AgePolicy.Severity defaultSeverity = parseSeverity();
+        final AgePolicies agePolicies = createPolicies(defaultSeverity);
+        final DistanceLimits limits = new DistanceLimits(releasesBehind, majorsBehind, minorsBehind);
+        if (agePolicies.isEmpty() && limits.isEmpty()) {
             throw new MojoExecutionException("No limiters selected");
         }
-        final long validParams = IntStream.of(years, days, hours, minutes).filter((param) -> param != 0).count();
-        if (validParams > 1) {
-            throw new MojoExecutionException("More than one limiter used.");
+        if (!limits.isEmpty()) {
+            indexVersions = true;
         }
-        final List<String> checkLog = createCheckLog();
-        if (!checkLog.isEmpty()) {
+        try {
+            if (failFast) {
+                checkStreaming(agePolicies, limits, defaultSeverity);
+                return;
+            }
+            final Map<AgePolicy.Severity, List<String>> checkLog = createCheckLog(agePolicies, limits, defaultSeverity);
             final Log log = getLog();
-            checkLog.forEach(log::error);
-            throw new MojoFailureException("Dependencies do not meet age requirements, see logs");
+            checkLog.get(AgePolicy.Severity.WARN).forEach(log::warn);
+            checkLog.get(AgePolicy.Severity.FAIL).forEach(log::error);
+            if (!checkLog.get(AgePolicy.Severity.FAIL).isEmpty()) {
+                throw new MojoFailureException("Dependencies do not meet age requirements, see logs");
+            }
+        } finally {
+            reportMetrics();
+        }
+    }
+
+    /**
+     * Parses severity of violating maximal age or limiters.
+     *
+     * @return parsed severity
+     * @throws MojoExecutionException if severity is unknown
+     */
+    private AgePolicy.Severity parseSeverity() throws MojoExecutionException {
+        try {
+            return AgePolicies.parseSeverity(severity);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Compiles policies from mojo parameters.
+     *
+     * @param defaultSeverity severity of violating maximal age or limiters
+     * @return compiled policies, empty if no age is limited
+     * @throws MojoExecutionException if parameters are malformed
+     */
+    private AgePolicies createPolicies(final AgePolicy.Severity defaultSeverity) throws MojoExecutionException {
+        try {
+            AgePolicy defaultPolicy = AgePolicy.ofLimiters(years, days, hours, minutes, defaultSeverity);
+            if (StringUtils.isNotBlank(maxAge)) {
+                if (defaultPolicy != null) {
+                    throw new MojoExecutionException("Maximal age cannot be combined with limiters.");
+                }
+                defaultPolicy = AgePolicy.parse(maxAge, defaultSeverity);
+            }
+            return AgePolicies.compile(defaultPolicy, policies, defaultSeverity);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Checks dependencies of current Maven project as their timestamps arrive, stopping at first failure.
+     *
+     * @param agePolicies     compiled policies
+     * @param limits          limits of distance from latest release
+     * @param defaultSeverity severity of exceeding limits of distance
+     * @throws MojoExecutionException if lookup cannot be configured or dependency graph cannot be resolved
+     * @throws MojoFailureException   if any dependency fails the check
+     */
+    private void checkStreaming(final AgePolicies agePolicies, final DistanceLimits limits, final AgePolicy.Severity defaultSeverity)
+        throws MojoExecutionException, MojoFailureException {
+        long start = System.nanoTime();
+        final DependencyFilter filter = getDependencyFilter();
+        final Map<String, Dependency> dependencies = new LinkedHashMap<>();
+        final Map<String, String> paths = new HashMap<>();
+        if (transitive) {
+            DependencyGraphWalker.walk(buildDependencyGraph(), filter, dependencies, paths, dependency -> { });
+        } else {
+            for (final Dependency dependency : project.getDependencies()) {
+                if (!filter.isIgnored(dependency)) {
+                    dependencies.putIfAbsent(InfoGenerator.coordinates(dependency), dependency);
+                }
+            }
+        }
+        metrics.recordPhase(LookupMetrics.Phase.RESOLVE, start);
+        start = System.nanoTime();
+        VersionIndex versionIndex = null;
+        if (!limits.isEmpty()) {
+            versionIndex = getVersionIndex();
+        }
+        final StreamingCheck check = new StreamingCheck(getLog(), agePolicies, limits, versionIndex, defaultSeverity, paths);
+        try (LookupPipeline pipeline = createInfoGenerator().createPipeline()) {
+            pipeline.listen(check::evaluate);
+            StreamingCheck.prioritize(dependencies.values(), getTimestampCache()).forEach(pipeline::add);
+            pipeline.finish();
+        }
+        metrics.recordPhase(LookupMetrics.Phase.LOOKUP, start);
+        if (check.getFailures() > 0) {
+            throw new MojoFailureException("Dependencies do not meet age requirements, see logs ("
+                + (dependencies.size() - check.getChecked()) + " of " + dependencies.size() + " dependencies not checked)");
         }
     }
 
     /**
      * Creates check log based on current Maven project dependencies.
      *
-     * @return complete log for checks
-     */
-    private List<String> createCheckLog() {
-        final Map<Dependency, Long> timestampMap = InfoGenerator.generateTimestampMap(project, getLog(), ignoreString);
-        return timestampMap.entrySet()
-            .stream()
-            .map((entry) -> {
-                final long timestampAge = System.currentTimeMillis() - entry.getValue();
-                final DurationSplitter durationSplitter = new DurationSplitter(timestampAge);
-                if (years > 0 && durationSplitter.getYears() >= years) {
-                    return entry.getKey().toString() + LOG_PART + years + YEARS_SUFFIX + InfoGenerator.generateInfo(entry.getValue());
-                } else if (days > 0 && durationSplitter.getDays() >= days) {
-                    return entry.getKey().toString() + LOG_PART + days + DAYS_SUFFIX + InfoGenerator.generateInfo(entry.getValue());
-                } else if (hours > 0 && durationSplitter.getHours() >= hours) {
-                    return entry.getKey().toString() + LOG_PART + hours + HOURS_SUFFIX + InfoGenerator.generateInfo(entry.getValue());
-                } else if (minutes > 0 && durationSplitter.getMinutes() >= minutes) {
-                    return entry.getKey().toString() + LOG_PART + minutes + MINUTES_SUFFIX + InfoGenerator.generateInfo(entry.getValue());
+     * @param agePolicies     compiled policies
+     * @param limits          limits of distance from latest release
+     * @param defaultSeverity severity of exceeding limits of distance
+     * @return complete log for checks, per severity
+     * @throws MojoExecutionException if lookup cannot be configured
+     */
+    private Map<AgePolicy.Severity, List<String>> createCheckLog(final AgePolicies agePolicies, final DistanceLimits limits,
+                                                                 final AgePolicy.Severity defaultSeverity) throws MojoExecutionException {
+        final Map<String, String> paths = new HashMap<>();
+        final Map<Dependency, Long> timestampMap = generateTimestampMap(paths);
+        final long start = System.nanoTime();
+        final Map<AgePolicy.Severity, List<String>> checkLog = createCheckLog(timestampMap, paths, agePolicies, System.currentTimeMillis());
+        if (!limits.isEmpty()) {
+            addDistanceLog(checkLog.get(defaultSeverity), timestampMap.keySet(), paths, limits, getVersionIndex());
+        }
+        metrics.recordPhase(LookupMetrics.Phase.FORMAT, start);
+        return checkLog;
+    }
+
+    /**
+     * Creates check log for dependencies with known timestamps.
+     *
+     * @param timestampMap map of dependencies to theirs timestamps
+     * @param paths        map of dependency name to path leading to it in dependency graph
+     * @param agePolicies  compiled policies
+     * @param now          current time, in milliseconds since epoch
+     * @return log entry for every dependency older than its policy, per severity
+     */
+    static Map<AgePolicy.Severity, List<String>> createCheckLog(final Map<Dependency, Long> timestampMap, final Map<String, String> paths,
+                                                                final AgePolicies agePolicies, final long now) {
+        final Map<AgePolicy.Severity, List<String>> checkLog = new EnumMap<>(AgePolicy.Severity.class);
+        for (final AgePolicy.Severity level : AgePolicy.Severity.values()) {
+            checkLog.put(level, new ArrayList<>()); //NOPMD
+        }
+        agePolicies.check(timestampMap, now, (entry, policy) -> checkLog.get(policy.getSeverity())
+            .add(describe(entry.getKey(), paths) + LOG_PART + policy.getDescription() + ": " + InfoGenerator.generateInfo(entry.getValue())));
+        return checkLog;
+    }
+
+    /**
+     * Adds check log entry for every dependency too far behind its latest release.
+     * <p>
+     * Dependencies whose versions are not indexed (for example looked up in other repository) are not checked.
+     *
+     * @param checkLog     check log receiving entries
+     * @param dependencies checked dependencies
+     * @param paths        map of dependency name to path leading to it in dependency graph
+     * @param limits       limits of distance from latest release
+     * @param versionIndex index of released versions
+     */
+    private void addDistanceLog(final List<String> checkLog, final Collection<Dependency> dependencies, final Map<String, String> paths,
+                                final DistanceLimits limits, final VersionIndex versionIndex) {
+        for (final Dependency dependency : dependencies) {
+            final ArtifactVersions versions = versionIndex.get(dependency);
+            if (versions == null || versions.isEmpty()) {
+                if (getLog().isDebugEnabled()) {
+                    getLog().debug("Versions of " + dependency.getManagementKey() + " not known, release distance not checked");
                 }
-                return "";
-            })
-            .filter((info) -> info.length() != 0)
-            .collect(Collectors.toList());
+                continue;
+            }
+            final String exceeded = limits.check(versions, dependency.getVersion());
+            if (exceeded != null) {
+                checkLog.add(describe(dependency, paths) + " is " + exceeded);
+            }
+        }
+    }
+
+    /**
+     * Describes dependency for check log.
+     *
+     * @param dependency dependency to describe
+     * @param paths      map of dependency name to path leading to it in dependency graph
+     * @return description of dependency, with path if dependency is transitive
+     */
+    static String describe(final Dependency dependency, final Map<String, String> paths) {
+        final String path = paths.get(InfoGenerator.coordinates(dependency));
+        if (path != null && path.contains(" > ")) {
+            return dependency.toString() + " (via " + path + ")";
+        }
+        return dependency.toString();
     }
 
 }
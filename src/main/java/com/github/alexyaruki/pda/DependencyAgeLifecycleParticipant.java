@@ -0,0 +1,23 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.AbstractMavenLifecycleParticipant;
+import org.apache.maven.execution.MavenSession;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+/**
+ * Releases resources shared by all mojo executions of a build when build session ends.
+ * <p>
+ * Maven notifies lifecycle participants of plugins declared as build extensions (with extensions element set to true)
+ * only. Without it shared lookup clients are closed by mojo executions, once last project of the build is done.
+ */
+@Named("dependency-age")
+@Singleton
+public final class DependencyAgeLifecycleParticipant extends AbstractMavenLifecycleParticipant {
+
+    @Override
+    public void afterSessionEnd(final MavenSession session) {
+        SharedLookupClients.shared(session.getRepositorySession().getData()).close();
+    }
+}
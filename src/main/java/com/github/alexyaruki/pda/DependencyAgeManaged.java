@@ -0,0 +1,68 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plugin mojo - Dependency Age Report of all managed dependencies.
+ * <p>
+ * Audits every coordinate of dependency management, including coordinates managed by imported BOMs
+ * and imported BOMs themselves, in single lookup pass. Managed coordinates are kept in compact index
+ * and looked up in batches, so BOM with thousands of entries needs only few requests
+ */
+@Mojo(name = "managed", threadSafe = true)
+class DependencyAgeManaged extends AbstractPDAMojo {
+
+    /**
+     * Parameter for selecting report types (comma separated list of JSON, HTML and EXCEL).
+     */
+    @Parameter(property = "pda.reportType")
+    private String reportTypeString; //NOPMD
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        try {
+            long start = System.nanoTime();
+            final CoordinateIndex index = new CoordinateIndex();
+            final List<String> sources = new ArrayList<>();
+            final DependencyFilter filter = getDependencyFilter();
+            try (LookupPipeline pipeline = createInfoGenerator().createPipeline()) {
+                pipeline.listen((dependency, timestamp) -> {
+                    index.setTimestamp(dependency, timestamp);
+                    return true;
+                });
+                final int imported = new ManagedDependencies(project).forEachDependency((dependency, source) -> {
+                    if (!filter.isIgnored(dependency) && index.add(dependency)) {
+                        sources.add(source);
+                        pipeline.add(dependency);
+                    }
+                });
+                getLog().info("Looking up " + index.size() + " managed dependencies of " + project.getId() + " (" + imported + " imported BOMs)");
+                pipeline.finish();
+            }
+            metrics.recordPhase(LookupMetrics.Phase.LOOKUP, start);
+            start = System.nanoTime();
+            final Map<String, String> pdaInfo = new LinkedHashMap<>();
+            final Map<String, String> managedBy = new LinkedHashMap<>();
+            final List<Dependency> dependencies = index.describe(pdaInfo, managedBy, sources::get);
+            metrics.recordPhase(LookupMetrics.Phase.FORMAT, start);
+            start = System.nanoTime();
+            final ReportGenerator reportGenerator = new ReportGenerator(getLog(), Paths.get(project.getBuild().getDirectory(), "dependency-age"),
+                "dependency-age-managed-report", project.getName(), "Managed by");
+            addVersionColumns(reportGenerator, dependencies);
+            reportGenerator.generate(reportTypeString, pdaInfo, managedBy);
+            metrics.recordPhase(LookupMetrics.Phase.WRITE, start);
+        } finally {
+            reportMetrics();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Plugin mojo - Dependency Age lookup prefetch.
+ * <p>
+ * Starts timestamp lookups of current project on background threads and returns immediately,
+ * so lookups overlap with rest of build. Later check, show and report goals of the same project
+ * join prefetched lookups instead of starting them.
+ * <p>
+ * Only direct dependencies which are not modules of the reactor are prefetched, even in transitive mode.
+ * Dependency graph cannot be resolved before reactor modules it depends on are built, so transitive
+ * dependencies are looked up by later goals
+ */
+@Mojo(name = "prefetch", defaultPhase = LifecyclePhase.INITIALIZE, threadSafe = true)
+class DependencyAgePrefetch extends AbstractPDAMojo {
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        final DependencyFilter filter = getDependencyFilter();
+        final Set<String> reactorModules = session.getProjects()
+            .stream()
+            .map(module -> module.getGroupId() + ":" + module.getArtifactId())
+            .collect(Collectors.toSet());
+        final LookupPipeline pipeline = createInfoGenerator().createPipeline();
+        for (final Dependency dependency : project.getDependencies()) {
+            if (!filter.isIgnored(dependency) && !reactorModules.contains(dependency.getGroupId() + ":" + dependency.getArtifactId())) {
+                pipeline.add(dependency);
+            }
+        }
+        storePrefetch(LookupPrefetch.start(pipeline, this::releaseLookupClients));
+        getLog().info("Dependency age lookups of " + project.getId() + " started in background");
+    }
+
+}
@@ -1,51 +1,37 @@
 package com.github.alexyaruki.pda;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import j2html.tags.ContainerTag;
+import org.apache.maven.model.Dependency;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
-import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.xssf.usermodel.XSSFCell;
-import org.apache.poi.xssf.usermodel.XSSFRow;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
-import java.util.Locale;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
-
-import static j2html.TagCreator.body;
-import static j2html.TagCreator.html;
-import static j2html.TagCreator.table;
-import static j2html.TagCreator.td;
-import static j2html.TagCreator.th;
-import static j2html.TagCreator.tr;
 
 /**
  * Plugin mojo - Dependency Age Report generation.
  * <p>
  * Generates report in selected format
  */
-@Mojo(name = "report")
+@Mojo(name = "report", threadSafe = true)
 class DependencyAgeReport extends AbstractPDAMojo {
 
     /**
-     * Parameter for selecting report type.
+     * Parameter for selecting report types (comma separated list of JSON, HTML and EXCEL).
      */
     @Parameter(property = "pda.reportType")
     private String reportTypeString; //NOPMD
 
+    /**
+     * Parameter for appending looked up timestamps to history of dependency age, read by trend goal.
+     */
+    @Parameter(property = "pda.history")
+    private boolean keepHistory; //NOPMD
+
     /**
      * Executes report generation based on parsed report type.
      *
@@ -55,124 +41,44 @@ class DependencyAgeReport extends AbstractPDAMojo {
 
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
-        if (!getReportDestinationPath().toFile().exists()) {
-            try {
-                Files.createDirectories(getReportDestinationPath());
-            } catch (IOException e) {
-                throw new MojoExecutionException("Cannot create directory \"dependency-age\" in target build directory", e);
-            }
-        }
-        final Map<String, String> pdaInfo = InfoGenerator.generateInfoMap(project, getLog(), ignoreString);
-        if (Objects.isNull(reportTypeString)) {
-            getLog().warn("Report not generated because of missing report type");
-        } else {
-            ReportType reportType = null;
-            try {
-                reportType = ReportType.valueOf(reportTypeString.toUpperCase(Locale.getDefault()));
-            } catch (IllegalArgumentException e) {
-                getLog().warn("Report not generated because of unknown report type: " + reportTypeString);
-                return;
-            }
-            switch (reportType) {
-                case JSON:
-                    generateJSONReport(pdaInfo);
-                    break;
-
-                case HTML:
-                    generateHTMLReport(pdaInfo);
-                    break;
-
-                case EXCEL:
-                    generateExcelReport(pdaInfo);
-                    break;
-
-                default:
-                    getLog().warn("Report not generated because of unknown report type: " + reportTypeString);
-                    break;
-            }
-        }
-    }
-
-    /**
-     * Generates report in JSON format.
-     *
-     * @param pdaInfo map describing information about dependencies age
-     */
-
-    private void generateJSONReport(final Map<String, String> pdaInfo) {
-        final ObjectMapper mapper = new ObjectMapper();
-        final ObjectNode root = mapper.createObjectNode();
-        final ArrayNode dependencies = mapper.createArrayNode();
-        pdaInfo.entrySet().stream().forEach((entry) -> {
-            final ObjectNode dependency = mapper.createObjectNode();
-            dependency.put("name", entry.getKey());
-            dependency.put("age", entry.getValue());
-            dependencies.add(dependency);
-        });
-        root.set("dependencies", dependencies);
         try {
-            final Path reportPath = getReportDestinationPath().resolve("dependency-age-report.json");
-            Files.write(reportPath, mapper.writerWithDefaultPrettyPrinter().writeValueAsString(root).getBytes(Charset.defaultCharset()), StandardOpenOption.CREATE);
-            getLog().info("Report saved to " + reportPath.toString());
-        } catch (IOException e) {
-            getLog().error("Error when saving report: " + e.getMessage());
-        }
-    }
-
-    /**
-     * Generates report in Excel format.
-     *
-     * @param pdaInfo map describing information about dependencies age
-     */
-    private void generateExcelReport(final Map<String, String> pdaInfo) {
-        final XSSFWorkbook workbook = new XSSFWorkbook();
-        final XSSFSheet summarySheet = workbook.createSheet("Dependency Age Summary");
-        final XSSFRow rowFirst = summarySheet.createRow(0);
-        final XSSFCell headerCell = rowFirst.createCell(0);
-        headerCell.setCellValue(project.getName());
-        summarySheet.addMergedRegion(CellRangeAddress.valueOf("A1:B1"));
-        final XSSFRow columnHeaders = summarySheet.createRow(1);
-        columnHeaders.createCell(0).setCellValue("Name");
-        columnHeaders.createCell(1).setCellValue("Age");
-        int dataRowId = 2;
-        for (final Map.Entry<String, String> entry : pdaInfo.entrySet()) {
-            final XSSFRow dataRow = summarySheet.createRow(dataRowId);
-            dataRow.createCell(0).setCellValue(entry.getKey());
-            dataRow.createCell(1).setCellValue(entry.getValue());
-            dataRowId++;
-        }
-        summarySheet.autoSizeColumn(0);
-        summarySheet.autoSizeColumn(1);
-        try (FileOutputStream reportStream = new FileOutputStream(getReportDestinationPath().resolve("dependency-age-report.xlsx").toFile())) {
-            workbook.write(reportStream);
-        } catch (IOException e) {
-            getLog().error("Error when saving Excel report: " + e.getMessage());
+            final Map<String, String> paths = new HashMap<>();
+            final Map<Dependency, Long> timestampMap = generateTimestampMap(paths);
+            long start = System.nanoTime();
+            final Map<String, String> pdaInfo = InfoGenerator.generateInfoMap(timestampMap, localSources);
+            metrics.recordPhase(LookupMetrics.Phase.FORMAT, start);
+            start = System.nanoTime();
+            final ReportGenerator reportGenerator = new ReportGenerator(getLog(), getReportDestinationPath(), "dependency-age-report", project.getName(), "Path");
+            addVersionColumns(reportGenerator, timestampMap.keySet());
+            reportGenerator.generate(reportTypeString, pdaInfo, paths);
+            appendHistory(timestampMap);
+            metrics.recordPhase(LookupMetrics.Phase.WRITE, start);
+        } finally {
+            reportMetrics();
         }
     }
 
     /**
-     * Generates report in HTML format.
+     * Appends looked up timestamps to history, if requested.
+     * <p>
+     * Failure to write history is logged, it never fails the build.
      *
-     * @param pdaInfo map describing information about dependencies age
+     * @param timestampMap map of dependencies to theirs timestamps
      */
-    private void generateHTMLReport(final Map<String, String> pdaInfo) {
-        final ContainerTag table = table(tr(th(project.getName())).attr("colspan", "2"));
-        for (final Map.Entry<String, String> entry : pdaInfo.entrySet()) {
-            table.with(
-                tr(
-                    td(entry.getKey()),
-                    td(entry.getValue())
-                )
-            );
+    private void appendHistory(final Map<Dependency, Long> timestampMap) {
+        if (!keepHistory) {
+            return;
         }
-        final String htmlReportString = html(body(table)).render();
+        final Map<String, Long> timestamps = new HashMap<>();
+        timestampMap.forEach((dependency, timestamp) -> timestamps.put(InfoGenerator.coordinates(dependency), timestamp));
         try {
-
-            final Path reportPath = getReportDestinationPath().resolve("dependency-age-report.html");
-            Files.write(reportPath, htmlReportString.getBytes(Charset.defaultCharset()), StandardOpenOption.CREATE);
-            getLog().info("Report saved to " + reportPath.toString());
+            final int appended = HistoryStore.locate(historyDirectory, session.getExecutionRootDirectory())
+                .append(session.getStartTime().getTime(), project.getGroupId() + ":" + project.getArtifactId(), timestamps);
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("Appended " + appended + " rows to dependency age history");
+            }
         } catch (IOException e) {
-            getLog().error("Error when saving report: " + e.getMessage());
+            getLog().warn("Cannot append to dependency age history: " + e.getMessage());
         }
     }
 
@@ -0,0 +1,95 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plugin mojo - Dependency Age Report generation for all POM files in directory tree.
+ * <p>
+ * POM files are read without building Maven projects, every distinct dependency is looked up
+ * once and single report showing how many projects use each dependency is generated
+ */
+@Mojo(name = "scan", requiresProject = false, aggregator = true, threadSafe = true)
+class DependencyAgeScan extends AbstractPDAMojo {
+
+    /**
+     * Root of directory tree searched for POM files.
+     */
+    @Parameter(property = "pda.scanDirectory", defaultValue = "${basedir}")
+    private File scanDirectory; //NOPMD
+
+    /**
+     * Parameter for selecting report types (comma separated list of JSON, HTML and EXCEL).
+     */
+    @Parameter(property = "pda.reportType")
+    private String reportTypeString; //NOPMD
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        try {
+            final PomScanner scanner = new PomScanner(getLog());
+            long start = System.nanoTime();
+            final int pomCount = scan(scanner);
+            metrics.recordPhase(LookupMetrics.Phase.RESOLVE, start);
+            start = System.nanoTime();
+            final CoordinateIndex index = new CoordinateIndex();
+            final DependencyFilter filter = getDependencyFilter();
+            try (LookupPipeline pipeline = createInfoGenerator().createPipeline()) {
+                pipeline.listen((dependency, timestamp) -> {
+                    index.setTimestamp(dependency, timestamp);
+                    return true;
+                });
+                final int skipped = scanner.forEachDependency(dependency -> {
+                    if (!filter.isIgnored(dependency) && index.add(dependency)) {
+                        pipeline.add(dependency);
+                    }
+                });
+                if (skipped > 0) {
+                    getLog().warn("Skipped " + skipped + " dependencies with version not resolvable from scanned POM files");
+                }
+                getLog().info("Looking up " + index.size() + " distinct dependencies of " + pomCount + " POM files");
+                pipeline.finish();
+            }
+            metrics.recordPhase(LookupMetrics.Phase.LOOKUP, start);
+            start = System.nanoTime();
+            final Map<String, String> pdaInfo = new LinkedHashMap<>();
+            final Map<String, String> usage = new LinkedHashMap<>();
+            final List<Dependency> dependencies = index.describe(pdaInfo, usage, number -> index.getUsages(number) + " projects");
+            metrics.recordPhase(LookupMetrics.Phase.FORMAT, start);
+            start = System.nanoTime();
+            final ReportGenerator reportGenerator = new ReportGenerator(getLog(), Paths.get(project.getBuild().getDirectory(), "dependency-age"),
+                "dependency-age-scan-report", scanDirectory.getName(), "Projects");
+            addVersionColumns(reportGenerator, dependencies);
+            reportGenerator.generate(reportTypeString, pdaInfo, usage);
+            metrics.recordPhase(LookupMetrics.Phase.WRITE, start);
+        } finally {
+            reportMetrics();
+        }
+    }
+
+    /**
+     * Reads all POM files in scanned directory tree.
+     *
+     * @param scanner POM scanner
+     * @return number of read POM files
+     * @throws MojoExecutionException if directory tree cannot be walked
+     */
+    private int scan(final PomScanner scanner) throws MojoExecutionException {
+        try {
+            return scanner.scan(scanDirectory.toPath());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot scan " + scanDirectory, e);
+        }
+    }
+
+}
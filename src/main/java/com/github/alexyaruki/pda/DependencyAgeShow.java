@@ -5,6 +5,7 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -12,18 +13,25 @@ import java.util.Map;
  * <p>
  * Presents report to Maven logger
  */
-@Mojo(name = "show")
+@Mojo(name = "show", threadSafe = true)
 class DependencyAgeShow extends AbstractPDAMojo {
 
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
-        final Map<String, String> pdaInfo = InfoGenerator.generateInfoMap(project, getLog(), ignoreString);
-        pdaInfo.keySet().stream().mapToInt(String::length).max().ifPresent((maxInfoLength) -> {
-            for (final Map.Entry<String, String> entry : pdaInfo.entrySet()) {
-                getLog().info(StringUtils.rightPad(entry.getKey(), maxInfoLength) + " -> " + entry.getValue());
-            }
-        });
-
+        try {
+            final Map<String, String> paths = new HashMap<>();
+            final Map<String, String> pdaInfo = generateInfoMap(paths);
+            pdaInfo.keySet().stream().mapToInt(String::length).max().ifPresent((maxInfoLength) -> {
+                for (final Map.Entry<String, String> entry : pdaInfo.entrySet()) {
+                    getLog().info(StringUtils.rightPad(entry.getKey(), maxInfoLength) + " -> " + entry.getValue());
+                    if (paths.containsKey(entry.getKey()) && paths.get(entry.getKey()).contains(" > ")) {
+                        getLog().info("    via " + paths.get(entry.getKey()));
+                    }
+                }
+            });
+        } finally {
+            reportMetrics();
+        }
     }
 
 }
@@ -0,0 +1,83 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plugin mojo - Dependency Age trend reports.
+ * <p>
+ * Reads history appended by report goal (with {@code pda.history} enabled) and generates
+ * median age of every recorded run and oldest dependencies used within selected period.
+ * Makes no lookups
+ */
+@Mojo(name = "trend", aggregator = true, threadSafe = true)
+class DependencyAgeTrend extends AbstractPDAMojo {
+
+    /**
+     * Parameter for selecting report types (comma separated list of JSON, HTML and EXCEL).
+     */
+    @Parameter(property = "pda.reportType")
+    private String reportTypeString; //NOPMD
+
+    /**
+     * Parameter for number of days of history included in trend.
+     */
+    @Parameter(defaultValue = "90", property = "pda.trendDays")
+    private int trendDays; //NOPMD
+
+    /**
+     * Parameter for number of oldest dependencies reported.
+     */
+    @Parameter(defaultValue = "20", property = "pda.trendLimit")
+    private int trendLimit; //NOPMD
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        final long since = session.getStartTime().getTime() - TimeUnit.DAYS.toMillis(trendDays);
+        final HistoryTrend trend = new HistoryTrend();
+        final List<String> strings;
+        try {
+            strings = HistoryStore.locate(historyDirectory, session.getExecutionRootDirectory()).scan(since, trend);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot read dependency age history: " + e.getMessage(), e);
+        }
+        if (strings.isEmpty()) {
+            getLog().warn("No dependency age history recorded, run report goal with pda.history enabled first");
+            return;
+        }
+        getLog().info("Dependency age trend of last " + trendDays + " days:");
+        trend.summarizeModules(strings).forEach((module, description) -> getLog().info("  " + module + " -> " + description));
+        final Map<String, String> medians = new LinkedHashMap<>();
+        final Map<String, String> counts = new LinkedHashMap<>();
+        final Map<String, String> maximal = new LinkedHashMap<>();
+        trend.summarizeRuns(strings, medians, counts, maximal);
+        final Map<String, String> oldest = new LinkedHashMap<>();
+        final Map<String, String> modules = new LinkedHashMap<>();
+        final Map<String, String> seen = new LinkedHashMap<>();
+        trend.summarizeOldest(strings, trendLimit, oldest, modules, seen);
+        final ReportGenerator runReport = new ReportGenerator(getLog(), getReportDestinationPath(), "dependency-age-trend", project.getName(), "Dependencies");
+        runReport.addColumn("Oldest", maximal);
+        runReport.generate(reportTypeString, medians, counts);
+        final ReportGenerator oldestReport = new ReportGenerator(getLog(), getReportDestinationPath(), "dependency-age-oldest", project.getName(), "Module");
+        oldestReport.addColumn("Used", seen);
+        oldestReport.generate(reportTypeString, oldest, modules);
+    }
+
+    /**
+     * Provides path to reports destination directory.
+     * @return path to reports destination directory
+     */
+    private Path getReportDestinationPath() {
+        return Paths.get(project.getBuild().getDirectory(), "dependency-age");
+    }
+}
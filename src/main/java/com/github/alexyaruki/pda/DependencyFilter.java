@@ -0,0 +1,254 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.model.Dependency;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled set of rules selecting ignored dependencies.
+ * <p>
+ * Rule has form {@code groupId[:artifactId[:version]]}, missing parts match anything. Every part
+ * is either glob ({@code *} matches any characters, {@code ?} single character) or regular
+ * expression enclosed in slashes ({@code /.../}). Rule starting with {@code !} excludes matching
+ * dependencies from being ignored, even if other rules match them.
+ * <p>
+ * Rules with literal or prefix ({@code com.acme.*}) groupId are stored in trie of groupId
+ * characters, so only rules sharing prefix with groupId of dependency are evaluated and cost of
+ * matching does not grow with number of such rules. Remaining rules are evaluated one by one.
+ */
+final class DependencyFilter {
+
+    /**
+     * Prefix of rule excluding matching dependencies from being ignored.
+     */
+    private static final String INCLUDE_PREFIX = "!";
+
+    /**
+     * Delimiter of regular expression part.
+     */
+    private static final String REGEX_DELIMITER = "/";
+
+    /**
+     * Wildcard matching any characters.
+     */
+    private static final String WILDCARD = "*";
+
+    /**
+     * Number of parts of rule (groupId, artifactId and version).
+     */
+    private static final int PARTS = 3;
+
+    /**
+     * Root of trie of rules with literal or prefix groupId.
+     */
+    private final RuleTrie trie = new RuleTrie();
+
+    /**
+     * Rules whose groupId cannot be stored in trie.
+     */
+    private final List<IgnoreRule> residual = new ArrayList<>();
+
+    /**
+     * Whether filter has no rules.
+     */
+    private boolean empty = true;
+
+    /**
+     * Creates filter, use {@link #compile(String, Collection)}.
+     */
+    private DependencyFilter() {
+    }
+
+    /**
+     * Compiles filter from rules.
+     *
+     * @param ignoreString string ignored anywhere in groupId or artifactId, may be {@code null}
+     * @param rules        rules of ignored dependencies, may be {@code null}
+     * @return compiled filter
+     * @throws IllegalArgumentException if rule contains malformed regular expression
+     */
+    static DependencyFilter compile(final String ignoreString, final Collection<String> rules) {
+        final DependencyFilter filter = new DependencyFilter();
+        if (StringUtils.isNotEmpty(ignoreString)) {
+            filter.residual.add(new IgnoreRule(value -> value.contains(ignoreString), any(), any(), false));
+            filter.residual.add(new IgnoreRule(any(), value -> value.contains(ignoreString), any(), false));
+        }
+        if (rules != null) {
+            for (final String rule : rules) {
+                if (StringUtils.isNotBlank(rule)) {
+                    filter.add(rule.trim());
+                }
+            }
+        }
+        filter.empty = filter.residual.isEmpty() && filter.trie.isEmpty();
+        return filter;
+    }
+
+    /**
+     * Checks whether dependency is ignored.
+     *
+     * @param dependency dependency to check
+     * @return true if dependency matches any rule and no excluding rule
+     */
+    boolean isIgnored(final Dependency dependency) {
+        if (empty) {
+            return false;
+        }
+        final int result = trie.match(dependency);
+        if (result == IgnoreRule.INCLUDED) {
+            return false;
+        }
+        return Math.max(result, IgnoreRule.match(residual, dependency)) == IgnoreRule.IGNORED;
+    }
+
+    /**
+     * Compiles and adds single rule.
+     *
+     * @param text rule
+     */
+    private void add(final String text) {
+        final boolean include = text.startsWith(INCLUDE_PREFIX);
+        String rule = text;
+        if (include) {
+            rule = text.substring(INCLUDE_PREFIX.length());
+        }
+        final List<String> parts = splitRule(rule);
+        final String group = parts.get(0);
+        final IgnoreRule compiled = new IgnoreRule(compilePart(group), compilePart(parts.get(1)), compilePart(parts.get(2)), include);
+        if (isLiteral(group)) {
+            trie.addExact(group, compiled);
+        } else if (isPrefix(group)) {
+            trie.addPrefix(group.substring(0, group.length() - 1), compiled);
+        } else {
+            residual.add(compiled);
+        }
+    }
+
+    /**
+     * Splits rule into groupId, artifactId and version parts.
+     * <p>
+     * Colons inside regular expression parts do not split rule.
+     *
+     * @param rule rule
+     * @return three parts, missing or empty parts are {@code *}
+     */
+    private static List<String> splitRule(final String rule) {
+        final List<String> parts = new ArrayList<>();
+        int start = 0;
+        boolean inRegex = false;
+        for (int index = 0; index < rule.length(); index++) {
+            final char character = rule.charAt(index);
+            if (character == '/' && (index == start || inRegex)) {
+                inRegex = !inRegex;
+            } else if (character == ':' && !inRegex) {
+                parts.add(rule.substring(start, index));
+                start = index + 1;
+            }
+        }
+        parts.add(rule.substring(start));
+        while (parts.size() < PARTS) {
+            parts.add(WILDCARD);
+        }
+        parts.replaceAll(part -> StringUtils.defaultIfEmpty(part, WILDCARD));
+        return parts;
+    }
+
+    /**
+     * Compiles single part of rule.
+     *
+     * @param part glob or regular expression enclosed in slashes
+     * @return predicate matching part of dependency coordinates
+     */
+    private static Predicate<String> compilePart(final String part) {
+        if (WILDCARD.equals(part)) {
+            return any();
+        }
+        if (isLiteral(part)) {
+            return part::equals;
+        }
+        if (isPrefix(part)) {
+            final String prefix = part.substring(0, part.length() - 1);
+            return value -> value.startsWith(prefix);
+        }
+        final Pattern pattern;
+        if (isRegex(part)) {
+            pattern = Pattern.compile(part.substring(1, part.length() - 1));
+        } else {
+            pattern = Pattern.compile(globToRegex(part));
+        }
+        return value -> pattern.matcher(value).matches();
+    }
+
+    /**
+     * Converts glob to regular expression.
+     *
+     * @param glob glob
+     * @return regular expression matching same strings
+     */
+    private static String globToRegex(final String glob) {
+        final StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        for (int index = 0; index < glob.length(); index++) {
+            final char character = glob.charAt(index);
+            if (character == '*' || character == '?') {
+                if (index > literalStart) {
+                    regex.append(Pattern.quote(glob.substring(literalStart, index)));
+                }
+                if (character == '*') {
+                    regex.append(".*");
+                } else {
+                    regex.append('.');
+                }
+                literalStart = index + 1;
+            }
+        }
+        if (literalStart < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        }
+        return regex.toString();
+    }
+
+    /**
+     * Checks whether part is regular expression.
+     *
+     * @param part part of rule
+     * @return true if part is enclosed in slashes
+     */
+    private static boolean isRegex(final String part) {
+        return part.length() > 1 && part.startsWith(REGEX_DELIMITER) && part.endsWith(REGEX_DELIMITER);
+    }
+
+    /**
+     * Checks whether part matches single literal value.
+     *
+     * @param part part of rule
+     * @return true if part contains no wildcards and is not regular expression
+     */
+    private static boolean isLiteral(final String part) {
+        return !isRegex(part) && part.indexOf('*') < 0 && part.indexOf('?') < 0;
+    }
+
+    /**
+     * Checks whether part matches values starting with literal prefix.
+     *
+     * @param part part of rule
+     * @return true if only wildcard of part is trailing {@code *}
+     */
+    private static boolean isPrefix(final String part) {
+        return part.endsWith(WILDCARD) && isLiteral(part.substring(0, part.length() - 1));
+    }
+
+    /**
+     * Returns predicate matching any value.
+     *
+     * @return predicate matching any value
+     */
+    private static Predicate<String> any() {
+        return value -> true;
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Class for collecting distinct dependencies of resolved dependency graph.
+ */
+final class DependencyGraphWalker {
+
+    /**
+     * Separator of dependency names in path.
+     */
+    private static final String PATH_SEPARATOR = " > ";
+
+    /**
+     * Hidden default constructor.
+     */
+    private DependencyGraphWalker() {
+    }
+
+    /**
+     * Walks dependency graph, passing every distinct dependency to consumer (usually lookup).
+     * <p>
+     * Dependency appearing in graph more than once is added once, path to its first occurrence is recorded.
+     *
+     * @param root         root node of dependency graph
+     * @param filter       filter of ignored dependencies
+     * @param dependencies map receiving distinct dependencies by name
+     * @param paths        map receiving dependency name to path leading to it in graph
+     * @param consumer     consumer of distinct dependencies
+     */
+    static void walk(final DependencyNode root, final DependencyFilter filter, final Map<String, Dependency> dependencies,
+                     final Map<String, String> paths, final Consumer<Dependency> consumer) {
+        walk(root.getChildren(), "", filter, dependencies, paths, consumer);
+    }
+
+    /**
+     * Walks nodes of dependency graph and their children.
+     *
+     * @param nodes        nodes to walk
+     * @param parentPath   path leading to nodes, empty for direct dependencies
+     * @param filter       filter of ignored dependencies
+     * @param dependencies map receiving distinct dependencies by name
+     * @param paths        map receiving dependency name to path leading to it in graph
+     * @param consumer     consumer of distinct dependencies
+     */
+    private static void walk(final List<DependencyNode> nodes, final String parentPath, final DependencyFilter filter,
+                             final Map<String, Dependency> dependencies, final Map<String, String> paths, final Consumer<Dependency> consumer) {
+        for (final DependencyNode node : nodes) {
+            final Dependency dependency = toDependency(node.getArtifact());
+            final String name = InfoGenerator.coordinates(dependency);
+            String path = name;
+            if (!parentPath.isEmpty()) {
+                path = parentPath + PATH_SEPARATOR + name;
+            }
+            if (!dependencies.containsKey(name) && !filter.isIgnored(dependency)) {
+                dependencies.put(name, dependency);
+                paths.put(name, path);
+                consumer.accept(dependency);
+            }
+            walk(node.getChildren(), path, filter, dependencies, paths, consumer);
+        }
+    }
+
+    /**
+     * Creates dependency describing resolved artifact.
+     *
+     * @param artifact resolved artifact
+     * @return dependency on artifact
+     */
+    private static Dependency toDependency(final Artifact artifact) {
+        final Dependency dependency = new Dependency();
+        dependency.setGroupId(artifact.getGroupId());
+        dependency.setArtifactId(artifact.getArtifactId());
+        dependency.setVersion(artifact.getBaseVersion());
+        dependency.setType(artifact.getType());
+        dependency.setClassifier(artifact.getClassifier());
+        dependency.setScope(artifact.getScope());
+        return dependency;
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.alexyaruki.pda;
+
+import java.util.StringJoiner;
+
+/**
+ * Limits of distance of used version from latest release.
+ */
+final class DistanceLimits {
+
+    /**
+     * Maximal number of newer releases, 0 if not limited.
+     */
+    private final int releases;
+
+    /**
+     * Maximal number of newer major versions, 0 if not limited.
+     */
+    private final int majors;
+
+    /**
+     * Maximal number of newer minor lines, 0 if not limited.
+     */
+    private final int minors;
+
+    /**
+     * Creates limits.
+     *
+     * @param releaseLimit maximal number of newer releases, 0 if not limited
+     * @param majorLimit   maximal number of newer major versions, 0 if not limited
+     * @param minorLimit   maximal number of newer minor lines, 0 if not limited
+     */
+    DistanceLimits(final int releaseLimit, final int majorLimit, final int minorLimit) {
+        this.releases = releaseLimit;
+        this.majors = majorLimit;
+        this.minors = minorLimit;
+    }
+
+    /**
+     * Checks whether no distance is limited.
+     *
+     * @return true if all limits are 0
+     */
+    boolean isEmpty() {
+        return releases <= 0 && majors <= 0 && minors <= 0;
+    }
+
+    /**
+     * Checks distance of used version from latest release.
+     *
+     * @param versions released versions of artifact
+     * @param version  used version
+     * @return description of exceeded limits, {@code null} if no limit is exceeded
+     */
+    String check(final ArtifactVersions versions, final String version) {
+        final StringJoiner exceeded = new StringJoiner(", ");
+        exceed(exceeded, versions.majorsBehind(version), majors, "major versions");
+        exceed(exceeded, versions.minorsBehind(version), minors, "minor versions");
+        exceed(exceeded, versions.releasesBehind(version), releases, "releases");
+        if (exceeded.length() == 0) {
+            return null;
+        }
+        return exceeded + " behind " + versions.getLatest();
+    }
+
+    /**
+     * Adds description of exceeded limit, distance equal to limit is allowed.
+     *
+     * @param exceeded description being built
+     * @param distance distance of used version
+     * @param limit    limit of distance, 0 if not limited
+     * @param unit     name of counted versions
+     */
+    private static void exceed(final StringJoiner exceeded, final int distance, final int limit, final String unit) {
+        if (limit > 0 && distance > limit) {
+            exceeded.add(distance + " " + unit + " (" + limit + ")");
+        }
+    }
+}
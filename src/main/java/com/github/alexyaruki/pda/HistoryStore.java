@@ -0,0 +1,308 @@
+package com.github.alexyaruki.pda;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only history of looked up dependency timestamps, one batch of rows per recorded run.
+ * <p>
+ * History is kept in two files. Dictionary file holds interned strings (module ids and
+ * groupId:artifactId:version coordinates) as records of {@code int} length and UTF-8 bytes,
+ * identified by their order. Rows file holds fixed-width rows of three {@code long} columns:
+ * build time, module id and coordinates id packed together, and release timestamp.
+ * Both files are appended under exclusive lock of rows file, dictionary before rows, so reader
+ * never sees row referring to missing string. File lock is held by whole JVM, so modules built
+ * in parallel append one at a time. Rows are scanned through memory mapping.
+ */
+final class HistoryStore {
+
+    /**
+     * Name of history directory inside directory where build was started, unless selected by user.
+     */
+    static final String DEFAULT_DIRECTORY = ".pda-history";
+
+    /**
+     * Name of dictionary file inside history directory.
+     */
+    static final String DICTIONARY_FILE = "dictionary.bin";
+
+    /**
+     * Name of rows file inside history directory.
+     */
+    static final String ROWS_FILE = "rows.bin";
+
+    /**
+     * Marker written at beginning of both history files.
+     */
+    private static final int MAGIC = 0x50444133;
+
+    /**
+     * Size of rows file header, keeping rows aligned to {@code long}.
+     */
+    private static final int HEADER_SIZE = Long.BYTES;
+
+    /**
+     * Number of {@code long} columns of single row.
+     */
+    private static final int COLUMNS = 3;
+
+    /**
+     * Size of single row in bytes.
+     */
+    private static final int ROW_SIZE = COLUMNS * Long.BYTES;
+
+    /**
+     * Mask of lower half of {@code long}.
+     */
+    private static final long LOWER_HALF = 0xFFFFFFFFL;
+
+    /**
+     * Path to dictionary file.
+     */
+    private final Path dictionaryFile;
+
+    /**
+     * Path to rows file.
+     */
+    private final Path rowsFile;
+
+    /**
+     * Visitor of history rows.
+     */
+    @FunctionalInterface
+    interface RowVisitor {
+
+        /**
+         * Visits single row.
+         *
+         * @param buildTime   start time of recorded build, in milliseconds since epoch
+         * @param module      dictionary id of module
+         * @param coordinates dictionary id of dependency coordinates
+         * @param timestamp   release timestamp of dependency
+         */
+        void visit(long buildTime, int module, int coordinates, long timestamp);
+    }
+
+    /**
+     * Creates history stored in given directory.
+     *
+     * @param directory history directory
+     */
+    HistoryStore(final Path directory) {
+        this.dictionaryFile = directory.resolve(DICTIONARY_FILE);
+        this.rowsFile = directory.resolve(ROWS_FILE);
+    }
+
+    /**
+     * Locates history selected by user.
+     *
+     * @param historyDirectory history directory selected by user, {@code null} for default one
+     * @param executionRoot    directory where build was started
+     * @return history store
+     */
+    static HistoryStore locate(final File historyDirectory, final String executionRoot) {
+        if (historyDirectory != null) {
+            return new HistoryStore(historyDirectory.toPath());
+        }
+        return new HistoryStore(Paths.get(executionRoot, DEFAULT_DIRECTORY));
+    }
+
+    /**
+     * Appends rows of single run of module.
+     * <p>
+     * Dependencies with unknown timestamp (0 or -1) are not recorded.
+     *
+     * @param buildTime  start time of build, in milliseconds since epoch
+     * @param module     id of module (groupId:artifactId)
+     * @param timestamps map of coordinates (groupId:artifactId:version) to timestamp
+     * @return number of appended rows
+     * @throws IOException in case of I/O problems or unknown file format
+     */
+    int append(final long buildTime, final String module, final Map<String, Long> timestamps) throws IOException {
+        Files.createDirectories(rowsFile.getParent());
+        synchronized (HistoryStore.class) {
+            try (FileChannel rows = FileChannel.open(rowsFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                final FileLock lock = rows.lock();
+                try {
+                    final List<String> strings = new ArrayList<>();
+                    final long dictionaryEnd = readDictionary(strings);
+                    final Map<String, Integer> ids = new HashMap<>();
+                    for (int id = 0; id < strings.size(); id++) {
+                        ids.put(strings.get(id), id);
+                    }
+                    final int firstAdded = strings.size();
+                    final int moduleId = intern(module, ids, strings);
+                    final ByteBuffer batch = ByteBuffer.allocate(timestamps.size() * ROW_SIZE);
+                    for (final Map.Entry<String, Long> entry : timestamps.entrySet()) {
+                        if (entry.getValue() > 0) {
+                            batch.putLong(buildTime)
+                                .putLong((long) moduleId << Integer.SIZE | intern(entry.getKey(), ids, strings))
+                                .putLong(entry.getValue());
+                        }
+                    }
+                    ((Buffer) batch).flip();
+                    appendStrings(strings.subList(firstAdded, strings.size()), dictionaryEnd);
+                    long end = rows.size();
+                    if (end < HEADER_SIZE) {
+                        rows.truncate(0);
+                        rows.write(createHeader(), 0);
+                        end = HEADER_SIZE;
+                    }
+                    rows.write(batch, end - (end - HEADER_SIZE) % ROW_SIZE);
+                    return batch.limit() / ROW_SIZE;
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Scans rows of runs started at or after given time, in order they were appended.
+     * <p>
+     * Incomplete row at end of file (written by concurrently running build) is skipped.
+     *
+     * @param since   earliest build time of scanned rows, in milliseconds since epoch
+     * @param visitor visitor of rows
+     * @return dictionary of strings referred to by rows, indexed by id
+     * @throws IOException in case of I/O problems or unknown file format
+     */
+    List<String> scan(final long since, final RowVisitor visitor) throws IOException {
+        final List<String> strings = new ArrayList<>();
+        if (!Files.exists(rowsFile)) {
+            return strings;
+        }
+        try (FileChannel rows = FileChannel.open(rowsFile, StandardOpenOption.READ)) {
+            final long size = rows.size();
+            if (size < HEADER_SIZE) {
+                return strings;
+            }
+            final MappedByteBuffer buffer = rows.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("unknown file format of " + rowsFile);
+            }
+            readDictionary(strings);
+            ((Buffer) buffer).position(HEADER_SIZE);
+            final LongBuffer columns = buffer.asLongBuffer();
+            final int rowCount = columns.remaining() / COLUMNS;
+            for (int row = 0; row < rowCount; row++) {
+                final int offset = row * COLUMNS;
+                final long buildTime = columns.get(offset);
+                if (buildTime >= since) {
+                    final long ids = columns.get(offset + 1);
+                    visitor.visit(buildTime, (int) (ids >>> Integer.SIZE), (int) (ids & LOWER_HALF), columns.get(offset + 2));
+                }
+            }
+        }
+        return strings;
+    }
+
+    /**
+     * Reads all complete records of dictionary file.
+     *
+     * @param strings list receiving strings, indexed by id
+     * @return offset of end of last complete record, 0 if file does not exist yet
+     * @throws IOException in case of I/O problems or unknown file format
+     */
+    private long readDictionary(final List<String> strings) throws IOException {
+        if (!Files.exists(dictionaryFile)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(dictionaryFile, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size < Integer.BYTES) {
+                return 0;
+            }
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("unknown file format of " + dictionaryFile);
+            }
+            while (buffer.remaining() >= Integer.BYTES) {
+                final int length = buffer.getInt();
+                if (length < 0 || buffer.remaining() < length) {
+                    ((Buffer) buffer).position(buffer.position() - Integer.BYTES);
+                    break;
+                }
+                final ByteBuffer bytes = buffer.slice();
+                ((Buffer) bytes).limit(length);
+                ((Buffer) buffer).position(buffer.position() + length);
+                strings.add(StandardCharsets.UTF_8.decode(bytes).toString());
+            }
+            return buffer.position();
+        }
+    }
+
+    /**
+     * Appends strings to dictionary file, replacing incomplete record left by interrupted build.
+     *
+     * @param added         strings to append
+     * @param dictionaryEnd offset of end of last complete record, 0 if file does not exist yet
+     * @throws IOException in case of I/O problems
+     */
+    private void appendStrings(final List<String> added, final long dictionaryEnd) throws IOException {
+        if (added.isEmpty()) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(dictionaryFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long position = dictionaryEnd;
+            if (position == 0) {
+                channel.truncate(0);
+                final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC);
+                ((Buffer) header).flip();
+                position += channel.write(header, 0);
+            }
+            for (final String string : added) {
+                final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                final ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + bytes.length); //NOPMD
+                record.putInt(bytes.length).put(bytes);
+                ((Buffer) record).flip();
+                position += channel.write(record, position);
+            }
+            channel.truncate(position);
+        }
+    }
+
+    /**
+     * Creates header of rows file.
+     *
+     * @return header, ready for writing
+     */
+    private static ByteBuffer createHeader() {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(0);
+        ((Buffer) header).flip();
+        return header;
+    }
+
+    /**
+     * Returns id of string, adding it to dictionary if needed.
+     *
+     * @param string  string to intern
+     * @param ids     ids of strings
+     * @param strings strings, indexed by id
+     * @return id of string
+     */
+    private static int intern(final String string, final Map<String, Integer> ids, final List<String> strings) {
+        final Integer known = ids.get(string);
+        if (known != null) {
+            return known;
+        }
+        ids.put(string, strings.size());
+        strings.add(string);
+        return strings.size() - 1;
+    }
+}
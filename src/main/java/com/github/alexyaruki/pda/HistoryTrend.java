@@ -0,0 +1,217 @@
+package com.github.alexyaruki.pda;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Trend of dependency age computed in single scan of {@link HistoryStore}.
+ * <p>
+ * Rows of one recorded run are contiguous, so ages of run are summarized as soon as next
+ * run starts and only ages of current run are held in memory. Oldest usage of every distinct
+ * dependency is tracked in primitive arrays indexed by dictionary id.
+ */
+final class HistoryTrend implements HistoryStore.RowVisitor {
+
+    /**
+     * Initial capacity of arrays.
+     */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * Index of build time in run summary.
+     */
+    private static final int TIME = 0;
+
+    /**
+     * Index of module id in run summary.
+     */
+    private static final int MODULE = 1;
+
+    /**
+     * Index of dependency count in run summary.
+     */
+    private static final int COUNT = 2;
+
+    /**
+     * Index of median age in run summary.
+     */
+    private static final int MEDIAN = 3;
+
+    /**
+     * Index of maximal age in run summary.
+     */
+    private static final int MAXIMUM = 4;
+
+    /**
+     * Format of build times.
+     */
+    private static final DateTimeFormatter BUILD_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+
+    /**
+     * Summaries of finished runs, each {@code long[]} of build time, module id, dependency count,
+     * median age and maximal age.
+     */
+    private final List<long[]> runs = new ArrayList<>();
+
+    /**
+     * Ages of dependencies of current run.
+     */
+    private long[] ages = new long[INITIAL_CAPACITY];
+
+    /**
+     * Number of ages of current run.
+     */
+    private int ageCount;
+
+    /**
+     * Build time of current run.
+     */
+    private long runTime = -1;
+
+    /**
+     * Module id of current run.
+     */
+    private int runModule = -1;
+
+    /**
+     * Oldest age of dependency, by dictionary id, 0 if dependency was not seen.
+     */
+    private long[] oldestAge = new long[INITIAL_CAPACITY];
+
+    /**
+     * Build time of run with oldest age of dependency, by dictionary id.
+     */
+    private long[] oldestTime = new long[INITIAL_CAPACITY];
+
+    /**
+     * Module id of run with oldest age of dependency, by dictionary id.
+     */
+    private int[] oldestModule = new int[INITIAL_CAPACITY];
+
+    @Override
+    public void visit(final long buildTime, final int module, final int coordinates, final long timestamp) {
+        if (buildTime != runTime || module != runModule) {
+            finishRun();
+            runTime = buildTime;
+            runModule = module;
+        }
+        final long age = Math.max(0, buildTime - timestamp);
+        if (ageCount == ages.length) {
+            ages = Arrays.copyOf(ages, ageCount * 2);
+        }
+        ages[ageCount++] = age;
+        if (coordinates >= oldestAge.length) {
+            final int capacity = Math.max(coordinates + 1, oldestAge.length * 2);
+            oldestAge = Arrays.copyOf(oldestAge, capacity);
+            oldestTime = Arrays.copyOf(oldestTime, capacity);
+            oldestModule = Arrays.copyOf(oldestModule, capacity);
+        }
+        if (age >= oldestAge[coordinates]) {
+            oldestAge[coordinates] = Math.max(1, age);
+            oldestTime[coordinates] = buildTime;
+            oldestModule[coordinates] = module;
+        }
+    }
+
+    /**
+     * Creates median age of every recorded run, ordered by module and build time.
+     *
+     * @param strings dictionary of history
+     * @param medians map receiving "module @ build time" to median age
+     * @param counts  map receiving "module @ build time" to number of dependencies
+     * @param maximal map receiving "module @ build time" to age of oldest dependency
+     */
+    void summarizeRuns(final List<String> strings, final Map<String, String> medians, final Map<String, String> counts,
+                       final Map<String, String> maximal) {
+        for (final long[] run : sortRuns(strings)) {
+            final String key = strings.get((int) run[MODULE]) + " @ " + BUILD_TIME.format(Instant.ofEpochMilli(run[TIME]));
+            medians.put(key, formatAge(run[MEDIAN]));
+            counts.put(key, String.valueOf(run[COUNT]));
+            maximal.put(key, formatAge(run[MAXIMUM]));
+        }
+    }
+
+    /**
+     * Creates oldest used dependencies, ordered from oldest.
+     *
+     * @param strings dictionary of history
+     * @param limit   maximal number of dependencies
+     * @param oldest  map receiving coordinates (groupId:artifactId:version) to age when it was used
+     * @param modules map receiving coordinates to module which used it
+     * @param seen    map receiving coordinates to build time when it was used
+     */
+    void summarizeOldest(final List<String> strings, final int limit, final Map<String, String> oldest, final Map<String, String> modules,
+                         final Map<String, String> seen) {
+        IntStream.range(0, Math.min(oldestAge.length, strings.size()))
+            .filter(number -> oldestAge[number] > 0)
+            .boxed()
+            .sorted(Comparator.<Integer>comparingLong(number -> oldestAge[number]).reversed())
+            .limit(limit)
+            .forEach(number -> {
+                final String name = strings.get(number);
+                oldest.put(name, formatAge(oldestAge[number]));
+                modules.put(name, strings.get(oldestModule[number]));
+                seen.put(name, BUILD_TIME.format(Instant.ofEpochMilli(oldestTime[number])));
+            });
+    }
+
+    /**
+     * Creates trend of median age of every module, from first to last recorded run.
+     *
+     * @param strings dictionary of history
+     * @return map of module to description of its trend
+     */
+    Map<String, String> summarizeModules(final List<String> strings) {
+        final Map<String, List<long[]>> moduleRuns = new LinkedHashMap<>();
+        for (final long[] run : sortRuns(strings)) {
+            moduleRuns.computeIfAbsent(strings.get((int) run[MODULE]), module -> new ArrayList<>()).add(run); //NOPMD
+        }
+        final Map<String, String> trends = new LinkedHashMap<>();
+        moduleRuns.forEach((module, recorded) -> trends.put(module, "median age " + formatAge(recorded.get(0)[MEDIAN])
+            + " -> " + formatAge(recorded.get(recorded.size() - 1)[MEDIAN]) + " over " + recorded.size() + " runs"));
+        return trends;
+    }
+
+    /**
+     * Summarizes current run and orders all runs by module and build time.
+     *
+     * @param strings dictionary of history
+     * @return ordered summaries of runs
+     */
+    private List<long[]> sortRuns(final List<String> strings) {
+        finishRun();
+        runs.sort(Comparator.<long[], String>comparing(run -> strings.get((int) run[MODULE])).thenComparingLong(run -> run[TIME]));
+        return runs;
+    }
+
+    /**
+     * Summarizes ages of current run, if any.
+     */
+    private void finishRun() {
+        if (ageCount == 0) {
+            return;
+        }
+        Arrays.sort(ages, 0, ageCount);
+        runs.add(new long[]{runTime, runModule, ageCount, ages[(ageCount - 1) / 2], ages[ageCount - 1]});
+        ageCount = 0;
+    }
+
+    /**
+     * Formats age with day precision.
+     *
+     * @param millis age in milliseconds
+     * @return textual description of age
+     */
+    static String formatAge(final long millis) {
+        final DurationSplitter durationSplitter = new DurationSplitter(millis);
+        return durationSplitter.getYears() + " years, " + durationSplitter.getDays() + " days";
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Compiled rule of {@link DependencyFilter}.
+ */
+final class IgnoreRule {
+
+    /**
+     * Result of matching when no rule matches.
+     */
+    static final int NO_MATCH = 0;
+
+    /**
+     * Result of matching when ignoring rule matches.
+     */
+    static final int IGNORED = 1;
+
+    /**
+     * Result of matching when excluding rule matches, takes precedence over other results.
+     */
+    static final int INCLUDED = 2;
+
+    /**
+     * Predicate of groupId.
+     */
+    private final Predicate<String> group;
+
+    /**
+     * Predicate of artifactId.
+     */
+    private final Predicate<String> artifact;
+
+    /**
+     * Predicate of version.
+     */
+    private final Predicate<String> version;
+
+    /**
+     * Whether rule excludes matching dependencies from being ignored.
+     */
+    private final boolean include;
+
+    /**
+     * Creates rule.
+     *
+     * @param groupPredicate    predicate of groupId
+     * @param artifactPredicate predicate of artifactId
+     * @param versionPredicate  predicate of version
+     * @param including         whether rule excludes matching dependencies from being ignored
+     */
+    IgnoreRule(final Predicate<String> groupPredicate, final Predicate<String> artifactPredicate,
+               final Predicate<String> versionPredicate, final boolean including) {
+        this.group = groupPredicate;
+        this.artifact = artifactPredicate;
+        this.version = versionPredicate;
+        this.include = including;
+    }
+
+    /**
+     * Matches dependency against rules.
+     *
+     * @param rules      rules
+     * @param dependency dependency
+     * @return {@link #INCLUDED} if any excluding rule matches, {@link #IGNORED} if any other rule
+     *     matches, {@link #NO_MATCH} otherwise
+     */
+    static int match(final List<IgnoreRule> rules, final Dependency dependency) {
+        int result = NO_MATCH;
+        for (final IgnoreRule rule : rules) {
+            if (rule.matches(dependency)) {
+                if (rule.include) {
+                    return INCLUDED;
+                }
+                result = IGNORED;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether dependency matches all parts of rule.
+     *
+     * @param dependency dependency
+     * @return true if groupId, artifactId and version match
+     */
+    boolean matches(final Dependency dependency) {
+        return group.test(dependency.getGroupId())
+            && artifact.test(dependency.getArtifactId())
+            && version.test(String.valueOf(dependency.getVersion()));
+    }
+}
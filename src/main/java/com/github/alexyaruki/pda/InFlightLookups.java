@@ -0,0 +1,214 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.plugin.logging.Log;
+import org.eclipse.aether.SessionData;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Lookups running in current build, shared by all pipelines, so every request is sent only once.
+ * <p>
+ * Running lookups are keyed by {@link TimestampResolver#lookupKey}: groupId:artifactId
+ * when whole version list of artifact is fetched, coordinates otherwise. Pipeline claims key before
+ * it sends request; pipeline finding key already claimed (by itself or by other module built in parallel)
+ * waits for running lookup instead. Every pipeline uses its own view, tracking its requests and joined
+ * lookups in order of completion.
+ */
+final class InFlightLookups {
+
+    /**
+     * Lookups running in current build, by lookup key.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Map<String, Long>>> running;
+
+    /**
+     * Lookups claimed by this view and not completed yet, by lookup key.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Map<String, Long>>> claimed = new ConcurrentHashMap<>();
+
+    /**
+     * Completed requests and joined lookups of this view, in order of completion.
+     */
+    private final BlockingQueue<Future<Map<String, Long>>> completed = new LinkedBlockingQueue<>();
+
+    /**
+     * Number of tracked lookups not taken from completed ones yet.
+     */
+    private int pending;
+
+    /**
+     * Creates lookups not shared with any other pipeline.
+     */
+    InFlightLookups() {
+        this.running = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates view of shared lookups.
+     *
+     * @param lookups shared lookups
+     */
+    private InFlightLookups(final InFlightLookups lookups) {
+        this.running = lookups.running;
+    }
+
+    /**
+     * Provides lookups shared by all mojo executions of current build, so modules built in parallel
+     * never send the same request twice.
+     *
+     * @param sessionData data of current build session
+     * @return shared lookups
+     */
+    static InFlightLookups shared(final SessionData sessionData) {
+        final String key = InFlightLookups.class.getName();
+        synchronized (InFlightLookups.class) {
+            InFlightLookups lookups = (InFlightLookups) sessionData.get(key);
+            if (lookups == null) {
+                lookups = new InFlightLookups();
+                sessionData.set(key, lookups);
+            }
+            return lookups;
+        }
+    }
+
+    /**
+     * Creates view of lookups for single pipeline.
+     *
+     * @return view sharing running lookups, tracking lookups of pipeline
+     */
+    InFlightLookups tracking() {
+        return new InFlightLookups(this);
+    }
+
+    /**
+     * Claims lookup of dependency, or joins lookup already running.
+     * <p>
+     * Claimed lookup must be sent with {@link #track(CompletableFuture, Collection)} or released with {@link #abandon(String)}.
+     *
+     * @param lookupKey   lookup key of dependency
+     * @param coordinates coordinates (groupId:artifactId:version) of dependency
+     * @return true if running lookup was joined, its timestamp of dependency is returned by {@link #await(Log)}
+     */
+    boolean join(final String lookupKey, final String coordinates) {
+        final CompletableFuture<Map<String, Long>> lookup = new CompletableFuture<>();
+        final CompletableFuture<Map<String, Long>> other = running.putIfAbsent(lookupKey, lookup);
+        if (other == null) {
+            claimed.put(lookupKey, lookup);
+            return false;
+        }
+        final CompletableFuture<Map<String, Long>> joined = other.thenApply(timestamps ->
+            Collections.singletonMap(coordinates, timestampOf(timestamps, coordinates)));
+        pending++;
+        joined.whenComplete((timestamps, error) -> completed.add(joined));
+        return true;
+    }
+
+    /**
+     * Tracks request sent for claimed lookups, sharing its result with pipelines which joined them.
+     *
+     * @param request    request returning map of coordinates (groupId:artifactId:version) to timestamp
+     * @param lookupKeys lookup keys claimed for dependencies of request
+     */
+    void track(final CompletableFuture<Map<String, Long>> request, final Collection<String> lookupKeys) {
+        pending++;
+        request.whenComplete((timestamps, error) -> {
+            Map<String, Long> result = timestamps;
+            if (error != null) {
+                result = Collections.emptyMap();
+            }
+            for (final String lookupKey : lookupKeys) {
+                release(lookupKey, result);
+            }
+            completed.add(request);
+        });
+    }
+
+    /**
+     * Releases claimed lookup which will not be sent, pipelines which joined it see failed lookup.
+     *
+     * @param lookupKey lookup key of dependency
+     */
+    void abandon(final String lookupKey) {
+        release(lookupKey, Collections.emptyMap());
+    }
+
+    /**
+     * Releases all claimed lookups not completed yet, pipelines which joined them see failed lookup.
+     */
+    void abandonAll() {
+        claimed.keySet().forEach(this::abandon);
+    }
+
+    /**
+     * Checks whether some tracked lookup was not taken yet.
+     *
+     * @return true if {@link #await(Log)} has result to wait for
+     */
+    boolean hasPending() {
+        return pending > 0;
+    }
+
+    /**
+     * Waits for result of next completed request or joined lookup.
+     *
+     * @param log Maven logger instance
+     * @return map of coordinates (groupId:artifactId:version) to timestamp, empty if lookup failed
+     */
+    Map<String, Long> await(final Log log) {
+        pending--;
+        try {
+            return completed.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Collections.emptyMap();
+        } catch (ExecutionException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Lookup failed: " + e.getCause());
+            }
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Completes claimed lookup, if it was not completed yet.
+     *
+     * @param lookupKey  lookup key of dependency
+     * @param timestamps map of coordinates (groupId:artifactId:version) to timestamp
+     */
+    private void release(final String lookupKey, final Map<String, Long> timestamps) {
+        final CompletableFuture<Map<String, Long>> lookup = claimed.remove(lookupKey);
+        if (lookup != null) {
+            lookup.complete(timestamps);
+            running.remove(lookupKey, lookup);
+        }
+    }
+
+    /**
+     * Finds timestamp of dependency in result of lookup.
+     * <p>
+     * Version missing in version list of its artifact was not found, unless lookup failed.
+     *
+     * @param timestamps  map of coordinates (groupId:artifactId:version) to timestamp
+     * @param coordinates coordinates of dependency
+     * @return timestamp of dependency, 0 if version was not found, -1 if lookup failed
+     */
+    private static long timestampOf(final Map<String, Long> timestamps, final String coordinates) {
+        final Long timestamp = timestamps.get(coordinates);
+        if (timestamp != null) {
+            return timestamp;
+        }
+        if (timestamps.isEmpty() || timestamps.containsValue(-1L)) {
+            return -1;
+        }
+        return 0;
+    }
+}
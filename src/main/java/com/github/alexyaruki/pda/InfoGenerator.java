@@ -1,23 +1,14 @@
 package com.github.alexyaruki.pda;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.http.HttpStatus;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.plugin.logging.Log;
-import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.nio.charset.Charset;
 import java.time.Instant;
 import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -27,71 +18,154 @@ import java.util.Map;
 final class InfoGenerator {
 
     /**
-     * Hidden default constructor.
+     * Maven logger instance.
      */
-    private InfoGenerator() {
+    private final Log log;
+
+    /**
+     * Local repository lookup, used offline and when remote lookup fails.
+     */
+    private final LocalRepositoryLookup local;
+
+    /**
+     * Whether remote repositories must not be contacted.
+     */
+    private final boolean offline;
+
+    /**
+     * Persistent cache of release timestamps.
+     */
+    private final TimestampCache cache;
+
+    /**
+     * Maximum number of timestamp lookups running at once.
+     */
+    private final int concurrency;
+
+    /**
+     * Routing of dependencies to timestamp resolvers.
+     */
+    private final ResolverRoutes routes;
+
+    /**
+     * Metrics of goal execution.
+     */
+    private final LookupMetrics metrics;
+
+    /**
+     * Timestamps found by prefetch goal, by coordinates (groupId:artifactId:version).
+     */
+    private Map<String, Long> prefetched = Collections.emptyMap();
+
+    /**
+     * Lookups running in current build, {@code null} if pipelines share nothing.
+     */
+    private InFlightLookups inFlight;
+
+    /**
+     * Creates info generator.
+     *
+     * @param mavenLog          Maven logger instance
+     * @param resolverRoutes    routing of dependencies to timestamp resolvers
+     * @param localLookup       local repository lookup
+     * @param offlineLookup     whether remote repositories must not be contacted
+     * @param timestampCache    persistent cache of release timestamps
+     * @param lookupConcurrency maximum number of timestamp lookups running at once
+     * @param lookupMetrics     metrics of goal execution
+     */
+    InfoGenerator(final Log mavenLog, final ResolverRoutes resolverRoutes, final LocalRepositoryLookup localLookup, final boolean offlineLookup,
+                  final TimestampCache timestampCache, final int lookupConcurrency, final LookupMetrics lookupMetrics) {
+        this.log = mavenLog;
+        this.routes = resolverRoutes;
+        this.local = localLookup;
+        this.offline = offlineLookup;
+        this.cache = timestampCache;
+        this.concurrency = Math.max(1, lookupConcurrency);
+        this.metrics = lookupMetrics;
     }
 
     /**
-     * Generates map of dependency name (groupId:artifactId:version) to textual
-     * description of its age.
+     * Generates map of dependencies to theirs timestamps representing date that artifact was deployed to Maven Central.
      *
-     * @param project      current Maven project
-     * @param log          current logger
-     * @param ignoreString which string to ignore in dependency groupId or artifactId
-     * @return map of infos (name -> textual description of its age)
-     */
-    static Map<String, String> generateInfoMap(final MavenProject project, final Log log, final String ignoreString) {
-        final Map<String, String> pdaInfo = new HashMap<>();
-        project.getDependencies()
-            .stream()
-            .filter(dependency -> {
-                if (ignoreString != null && ignoreString.length() != 0) {
-                    if (dependency.getGroupId().contains(ignoreString) || dependency.getArtifactId().contains(ignoreString)) {
-                        return false;
-                    }
-                    return true;
-                }
-                return true;
-            })
-            .map(dependency -> dependency.getGroupId() + ":" + dependency.getArtifactId() + ":" + dependency.getVersion())
-            .map(name -> {
-                final String[] nameParts = name.split(":");
-                final long timestamp = downloadTimestamp(log, nameParts[0], nameParts[1], nameParts[2]);
-                if (log.isDebugEnabled()) {
-                    log.debug(name + " -> " + timestamp + " ms");
+     * @param dependencies dependencies to look up
+     * @param filter       filter of ignored dependencies
+     * @return timestamp map, ordered by timestamp
+     */
+    Map<Dependency, Long> generateTimestampMap(final Collection<Dependency> dependencies, final DependencyFilter filter) {
+        final Map<String, Dependency> filtered = new LinkedHashMap<>();
+        final Map<String, Long> found;
+        try (LookupPipeline pipeline = createPipeline()) {
+            for (final Dependency dependency : dependencies) {
+                if (!filter.isIgnored(dependency)) {
+                    filtered.putIfAbsent(coordinates(dependency), dependency);
+                    pipeline.add(dependency);
                 }
-                return createEntry(name, timestamp);
-            })
-            .sorted(Comparator.comparingLong(Map.Entry::getValue))
-            .map(entry -> createEntry(entry.getKey(), generateInfo(entry.getValue())))
-            .forEach((entry) -> pdaInfo.put(entry.getKey(), entry.getValue()));
-        return pdaInfo;
+            }
+            found = pipeline.finish();
+        }
+        return toTimestampMap(filtered.values(), found);
     }
 
     /**
-     * Generates map of dependencies to theirs timestamps representing date that artifact was deployed to Maven Central.
+     * Generates map of dependencies to theirs timestamps representing date that artifact was deployed to Maven Central,
+     * for all dependencies in dependency graph.
+     * <p>
+     * Lookups are started while graph is walked. Dependency appearing in graph more than once
+     * is looked up once, path to its first occurrence is recorded.
      *
-     * @param project      current Maven project
-     * @param log          current Maven logger
-     * @param ignoreString which string to ignore in dependency groupId or artifactId
-     * @return timestamp map
+     * @param root         root node of dependency graph
+     * @param filter       filter of ignored dependencies
+     * @param paths        map receiving dependency name to path leading to it in graph
+     * @return timestamp map, ordered by timestamp
      */
-    static Map<Dependency, Long> generateTimestampMap(final MavenProject project, final Log log, final String ignoreString) {
+    Map<Dependency, Long> generateTimestampMap(final DependencyNode root, final DependencyFilter filter, final Map<String, String> paths) {
+        final Map<String, Dependency> dependencies = new LinkedHashMap<>();
+        final Map<String, Long> found;
+        try (LookupPipeline pipeline = createPipeline()) {
+            DependencyGraphWalker.walk(root, filter, dependencies, paths, pipeline::add);
+            found = pipeline.finish();
+        }
+        return toTimestampMap(dependencies.values(), found);
+    }
+
+    /**
+     * Sets results shared with other executions of the build.
+     *
+     * @param timestamps map of coordinates (groupId:artifactId:version) to timestamp found by prefetch goal,
+     *                   used by pipelines like cached ones
+     * @param lookups    lookups running in current build, joined by pipelines instead of sending the same requests
+     */
+    void share(final Map<String, Long> timestamps, final InFlightLookups lookups) {
+        this.prefetched = timestamps;
+        this.inFlight = lookups;
+    }
+
+    /**
+     * Creates lookup pipeline configured with settings of this generator.
+     *
+     * @return new lookup pipeline
+     */
+    LookupPipeline createPipeline() {
+        final LookupPipeline pipeline = new LookupPipeline(log, routes, local, offline, cache, concurrency, metrics);
+        if (inFlight != null) {
+            pipeline.share(prefetched, inFlight);
+        }
+        return pipeline;
+    }
+
+    /**
+     * Creates map of dependencies to theirs timestamps, ordered by timestamp.
+     *
+     * @param dependencies dependencies to include
+     * @param found        map of coordinates (groupId:artifactId:version) to timestamp
+     * @return timestamp map, ordered by timestamp
+     */
+    private Map<Dependency, Long> toTimestampMap(final Collection<Dependency> dependencies, final Map<String, Long> found) {
         final Map<Dependency, Long> pdaInfo = new LinkedHashMap<>();
-        project.getDependencies()
+        dependencies
             .stream()
-            .filter(dependency -> {
-                if (ignoreString != null && ignoreString.length() != 0) {
-                    if (dependency.getGroupId().contains(ignoreString) || dependency.getArtifactId().contains(ignoreString)) {
-                        return false;
-                    }
-                    return true;
-                }
-                return true;
-            })
             .map(dependency -> {
-                final long timestamp = downloadTimestamp(log, dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion());
+                final long timestamp = found.getOrDefault(coordinates(dependency), -1L);
                 if (log.isDebugEnabled()) {
                     log.debug(dependency.toString() + " -> " + timestamp + " ms");
                 }
@@ -102,6 +176,40 @@ final class InfoGenerator {
         return pdaInfo;
     }
 
+    /**
+     * Generates map of dependency name (groupId:artifactId:version) to textual
+     * description of its age.
+     * <p>
+     * Age of dependency found in local repository is followed by its source, for example "(local: file time)".
+     *
+     * @param timestampMap map of dependencies to theirs timestamps
+     * @param localSources map of dependency name to source of timestamp found in local repository
+     * @return map of infos (name -> textual description of its age), in order of timestamp map
+     */
+    static Map<String, String> generateInfoMap(final Map<Dependency, Long> timestampMap, final Map<String, String> localSources) {
+        final Map<String, String> pdaInfo = new LinkedHashMap<>();
+        timestampMap.forEach((dependency, timestamp) -> {
+            final String name = coordinates(dependency);
+            final String source = localSources.get(name);
+            if (source == null || timestamp <= 0) {
+                pdaInfo.put(name, generateInfo(timestamp));
+            } else {
+                pdaInfo.put(name, generateInfo(timestamp) + " (local: " + source + ")");
+            }
+        });
+        return pdaInfo;
+    }
+
+    /**
+     * Creates coordinates (groupId:artifactId:version) of dependency.
+     *
+     * @param dependency dependency
+     * @return coordinates of dependency
+     */
+    static String coordinates(final Dependency dependency) {
+        return dependency.getGroupId() + ":" + dependency.getArtifactId() + ":" + dependency.getVersion();
+    }
+
     /**
      * Utility method for creating Map.Entry objects.
      *
@@ -115,53 +223,6 @@ final class InfoGenerator {
         return new AbstractMap.SimpleEntry<>(key, value);
     }
 
-    /**
-     * Downloads timestamp of dependency.
-     *
-     * @param log      Maven logger instance
-     * @param group    groupId of dependency
-     * @param artifact artifactId of dependency
-     * @param version  version of dependency
-     * @return timestamp of dependency
-     */
-    private static long downloadTimestamp(final Log log, final String group, final String artifact, final String version) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            final HttpGet request = new HttpGet("http://search.maven.org/solrsearch/select?q=g%3A%22" + group + "%22+AND+a%3A%22" + artifact + "%22&core=gav&rows=1000&wt=json");
-            if (log.isDebugEnabled()) {
-                log.debug("GET - > " + request.getURI().toString());
-            }
-            final ByteArrayOutputStream jsonStream = new ByteArrayOutputStream();
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
-                if (response.getStatusLine().getStatusCode() == HttpStatus.SC_OK) {
-                    response.getEntity().writeTo(jsonStream);
-                } else {
-                    return -1;
-                }
-            }
-            final ObjectMapper mapper = new ObjectMapper();
-            final JsonNode root = mapper.readTree(jsonStream.toString(Charset.defaultCharset().name()));
-            final JsonNode docs = root.get("response").get("docs");
-            long timestamp = 0;
-            for (final JsonNode doc : docs) {
-
-                if (doc.get("v").asText().equals(version)) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("timestamp(RAW) - > " + doc.get("timestamp"));
-                    }
-                    timestamp = Long.parseLong(doc.get("timestamp").asText());
-                    if (log.isDebugEnabled()) {
-                        log.debug("timestamp(Parsed) - > " + timestamp);
-                    }
-                    break;
-                }
-            }
-
-            return timestamp;
-        } catch (IOException e) {
-            return -1;
-        }
-    }
-
     /**
      * Generate dependency age info from it's timestamp.
      *
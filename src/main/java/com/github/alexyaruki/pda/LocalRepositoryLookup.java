@@ -0,0 +1,231 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.Versioning;
+import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Reader;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Class for finding approximate dependency timestamps in local repository, without network access.
+ * <p>
+ * Sources are tried in order of accuracy:
+ * <ol>
+ * <li>{@code lastUpdated} of version level {@code maven-metadata*.xml},</li>
+ * <li>{@code lastUpdated} of artifact level {@code maven-metadata*.xml}, if version is its latest release,</li>
+ * <li>time of {@code META-INF/MANIFEST.MF} entry in artifact JAR (build time of artifact),</li>
+ * <li>last modification time of POM file (download time of artifact).</li>
+ * </ol>
+ */
+final class LocalRepositoryLookup {
+
+    /**
+     * Format of {@code lastUpdated} in repository metadata.
+     */
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    /**
+     * Glob matching repository metadata files.
+     */
+    private static final String METADATA_GLOB = "maven-metadata*.xml";
+
+    /**
+     * Maven logger instance.
+     */
+    private final Log log;
+
+    /**
+     * Base directory of local repository.
+     */
+    private final Path basedir;
+
+    /**
+     * Metrics counting timestamps resolved from local repository.
+     */
+    private final LookupMetrics metrics;
+
+    /**
+     * Map receiving coordinates (groupId:artifactId:version) to source of timestamp found locally.
+     */
+    private final Map<String, String> sources;
+
+    /**
+     * Creates local repository lookup.
+     *
+     * @param mavenLog        Maven logger instance
+     * @param localRepository base directory of local repository
+     * @param lookupMetrics   metrics counting timestamps resolved from local repository
+     * @param localSources    map receiving coordinates (groupId:artifactId:version) to source of timestamp found locally
+     */
+    LocalRepositoryLookup(final Log mavenLog, final String localRepository, final LookupMetrics lookupMetrics, final Map<String, String> localSources) {
+        this.log = mavenLog;
+        this.basedir = Paths.get(localRepository);
+        this.metrics = lookupMetrics;
+        this.sources = localSources;
+    }
+
+    /**
+     * Finds timestamp of dependency in local repository.
+     * <p>
+     * Source of found timestamp ("metadata", "artifact metadata", "manifest time" or "file time") is recorded,
+     * so it can be reported next to age, number of found timestamps is counted in metrics.
+     *
+     * @param dependency dependency to look up
+     * @return approximate timestamp of dependency, -1 if dependency is not in local repository
+     */
+    long findTimestamp(final Dependency dependency) {
+        final Path artifactDirectory = basedir.resolve(dependency.getGroupId().replace('.', '/')).resolve(dependency.getArtifactId());
+        final Path versionDirectory = artifactDirectory.resolve(dependency.getVersion());
+        final String fileName = dependency.getArtifactId() + "-" + dependency.getVersion();
+        long timestamp = readLastUpdated(versionDirectory, null);
+        String source = "metadata";
+        if (timestamp <= 0) {
+            timestamp = readLastUpdated(artifactDirectory, dependency.getVersion());
+            source = "artifact metadata";
+        }
+        if (timestamp <= 0) {
+            timestamp = readManifestTime(versionDirectory.resolve(fileName + ".jar"));
+            source = "manifest time";
+        }
+        if (timestamp <= 0) {
+            timestamp = readModificationTime(versionDirectory.resolve(fileName + ".pom"));
+            source = "file time";
+        }
+        if (timestamp <= 0) {
+            return -1;
+        }
+        final String coordinates = InfoGenerator.coordinates(dependency);
+        if (log.isDebugEnabled()) {
+            log.debug(coordinates + " resolved from local repository (" + source + ")");
+        }
+        sources.put(coordinates, source);
+        metrics.recordLocalLookup();
+        return timestamp;
+    }
+
+    /**
+     * Reads newest {@code lastUpdated} value from repository metadata files in directory.
+     *
+     * @param directory directory containing metadata files
+     * @param release   version which must be latest release described by metadata, {@code null} if not required
+     * @return timestamp of last update, -1 if not available
+     */
+    private long readLastUpdated(final Path directory, final String release) {
+        if (!Files.isDirectory(directory)) {
+            return -1;
+        }
+        long timestamp = -1;
+        try (DirectoryStream<Path> metadataFiles = Files.newDirectoryStream(directory, METADATA_GLOB)) {
+            for (final Path metadataFile : metadataFiles) {
+                final Versioning versioning = readVersioning(metadataFile);
+                if (describesRelease(versioning, release)) {
+                    timestamp = Math.max(timestamp, parseLastUpdated(versioning.getLastUpdated()));
+                }
+            }
+        } catch (IOException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Cannot list " + directory + ": " + e.getMessage());
+            }
+        }
+        return timestamp;
+    }
+
+    /**
+     * Reads versioning section of repository metadata file.
+     *
+     * @param metadataFile repository metadata file
+     * @return versioning section, {@code null} if not available
+     */
+    private Versioning readVersioning(final Path metadataFile) {
+        try (InputStream metadataStream = Files.newInputStream(metadataFile)) {
+            final Metadata metadata = new MetadataXpp3Reader().read(metadataStream, false);
+            return metadata.getVersioning();
+        } catch (IOException | XmlPullParserException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Cannot read " + metadataFile + ": " + e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether versioning section has usable {@code lastUpdated} value for given release.
+     *
+     * @param versioning versioning section, may be {@code null}
+     * @param release    version which must be latest release described by metadata, {@code null} if not required
+     * @return true if {@code lastUpdated} value can be used
+     */
+    private static boolean describesRelease(final Versioning versioning, final String release) {
+        if (versioning == null || versioning.getLastUpdated() == null) {
+            return false;
+        }
+        return release == null || release.equals(versioning.getRelease()) || release.equals(versioning.getLatest());
+    }
+
+    /**
+     * Parses {@code lastUpdated} value of repository metadata.
+     *
+     * @param lastUpdated value in UTC, formatted as yyyyMMddHHmmss
+     * @return timestamp, -1 if value is malformed
+     */
+    private static long parseLastUpdated(final String lastUpdated) {
+        try {
+            return LocalDateTime.parse(lastUpdated.trim(), TIMESTAMP_FORMAT).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Reads time of manifest entry in JAR file.
+     *
+     * @param jarFile JAR file
+     * @return time of manifest entry, -1 if not available
+     */
+    private static long readManifestTime(final Path jarFile) {
+        if (!Files.isRegularFile(jarFile)) {
+            return -1;
+        }
+        try (ZipFile zipFile = new ZipFile(jarFile.toFile())) {
+            final ZipEntry manifest = zipFile.getEntry("META-INF/MANIFEST.MF");
+            if (manifest == null) {
+                return -1;
+            }
+            return manifest.getTime();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Reads last modification time of file.
+     *
+     * @param file file
+     * @return last modification time, -1 if not available
+     */
+    private static long readModificationTime(final Path file) {
+        if (!Files.isRegularFile(file)) {
+            return -1;
+        }
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
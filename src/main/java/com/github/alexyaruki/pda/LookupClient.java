@@ -0,0 +1,310 @@
+package com.github.alexyaruki.pda;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.GzipDecompressingEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.HttpClientUtils;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.util.EntityUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client shared by all timestamp lookups of a single build.
+ * <p>
+ * Connections are pooled and kept alive between lookups, so repeated requests
+ * to the same repository do not pay for connection setup again. Failed requests
+ * are retried, number of concurrent requests adapts to server load and endpoint
+ * which keeps failing is not contacted for a while. Every request asks for gzip compressed
+ * response, which is decompressed after received bytes are counted.
+ */
+final class LookupClient implements Closeable {
+
+    /**
+     * HTTP status code of throttled request, missing in {@link HttpStatus}.
+     */
+    static final int TOO_MANY_REQUESTS = 429;
+
+    /**
+     * Name of gzip content coding.
+     */
+    private static final String GZIP = "gzip";
+
+    /**
+     * Pooled HTTP client.
+     */
+    private final CloseableHttpClient httpClient;
+
+    /**
+     * Reusable JSON reader.
+     */
+    private final ObjectReader reader;
+
+    /**
+     * Policy for retrying failed requests.
+     */
+    private final RetryPolicy retryPolicy;
+
+    /**
+     * Circuit breaker of endpoint.
+     */
+    private final CircuitBreaker breaker;
+
+    /**
+     * Adaptive limit of concurrently running requests.
+     */
+    private final AdaptiveLimiter limiter;
+
+    /**
+     * Metrics receiving request statistics.
+     */
+    private final LookupMetrics metrics;
+
+    /**
+     * Creates lookup client.
+     *
+     * @param maxPerRoute    maximum number of pooled connections per route
+     * @param maxTotal       maximum number of pooled connections in total
+     * @param keepAlive      how long (in milliseconds) idle connection is kept alive, if server does not say otherwise
+     * @param connectTimeout timeout (in milliseconds) for establishing connection
+     * @param socketTimeout  timeout (in milliseconds) for leasing connection and waiting for data
+     * @param retry          policy for retrying failed requests
+     * @param circuit        circuit breaker of endpoint
+     */
+    LookupClient(final int maxPerRoute, final int maxTotal, final long keepAlive, final int connectTimeout, final int socketTimeout,
+                 final RetryPolicy retry, final CircuitBreaker circuit) {
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setDefaultMaxPerRoute(Math.max(1, maxPerRoute));
+        connectionManager.setMaxTotal(Math.max(1, maxTotal));
+        this.httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setKeepAliveStrategy((response, context) -> {
+                final long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                if (serverKeepAlive > 0) {
+                    return Math.min(serverKeepAlive, keepAlive);
+                }
+                return keepAlive;
+            })
+            .setRetryHandler(new DefaultHttpRequestRetryHandler(1, false))
+            .disableContentCompression()
+            .setDefaultHeaders(Collections.singletonList(new BasicHeader(HttpHeaders.ACCEPT_ENCODING, GZIP)))
+            .evictExpiredConnections()
+            .evictIdleConnections(keepAlive, TimeUnit.MILLISECONDS)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setConnectionRequestTimeout(socketTimeout)
+                .setSocketTimeout(socketTimeout)
+                .build())
+            .build();
+        this.reader = new ObjectMapper().reader();
+        this.retryPolicy = retry;
+        this.breaker = circuit;
+        this.limiter = new AdaptiveLimiter(maxPerRoute);
+        this.metrics = new LookupMetrics();
+    }
+
+    /**
+     * Creates view of shared client recording request statistics to metrics.
+     *
+     * @param shared        shared client
+     * @param lookupMetrics metrics receiving request statistics
+     */
+    private LookupClient(final LookupClient shared, final LookupMetrics lookupMetrics) {
+        this.httpClient = shared.httpClient;
+        this.reader = shared.reader;
+        this.retryPolicy = shared.retryPolicy;
+        this.breaker = shared.breaker;
+        this.limiter = shared.limiter;
+        this.metrics = lookupMetrics;
+    }
+
+    /**
+     * Creates view of this client recording request statistics to metrics of single goal execution.
+     * <p>
+     * View shares connection pool, concurrency limit and circuit breaker with this client.
+     *
+     * @param lookupMetrics metrics receiving request statistics
+     * @return metered client
+     */
+    LookupClient metered(final LookupMetrics lookupMetrics) {
+        return new LookupClient(this, lookupMetrics);
+    }
+
+    /**
+     * Executes request using pooled connection.
+     * <p>
+     * Throttled requests (429), server errors 502, 503 and 504 and connection problems are
+     * retried with backoff. HTTP client itself only resends request once on stale pooled connection. Response of last attempt is returned even if it is not successful.
+     * Caller must close returned response, so connection goes back to pool.
+     *
+     * @param request request to execute
+     * @return response to request
+     * @throws IOException in case of connection problems or if circuit breaker is open
+     */
+    CloseableHttpResponse execute(final HttpUriRequest request) throws IOException {
+        for (int attempt = 0;; attempt++) {
+            if (!breaker.allowRequest()) {
+                throw new IOException("Too many failed requests, " + request.getURI().getHost() + " not contacted");
+            }
+            final boolean lastAttempt = !retryPolicy.canRetry(attempt);
+            long retryAfter = 0;
+            try {
+                final CloseableHttpResponse response = executeOnce(request);
+                if (lastAttempt || !isRetryable(response.getStatusLine().getStatusCode())) {
+                    return response;
+                }
+                retryAfter = getRetryAfter(response);
+                EntityUtils.consume(response.getEntity());
+                response.close();
+            } catch (IOException e) {
+                if (lastAttempt) {
+                    throw e;
+                }
+            }
+            metrics.recordRetry();
+            pause(retryPolicy.backoff(attempt, retryAfter));
+        }
+    }
+
+    /**
+     * Executes single attempt of request within adaptive concurrency limit.
+     *
+     * @param request request to execute
+     * @return response to request
+     * @throws IOException in case of connection problems
+     */
+    private CloseableHttpResponse executeOnce(final HttpUriRequest request) throws IOException {
+        try {
+            limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException interrupted = new InterruptedIOException("Interrupted while waiting for request slot");
+            interrupted.initCause(e);
+            throw interrupted;
+        }
+        boolean overloaded = true;
+        final long start = System.nanoTime();
+        try {
+            final CloseableHttpResponse response = httpClient.execute(request);
+            final int statusCode = response.getStatusLine().getStatusCode();
+            metrics.recordRequest(System.nanoTime() - start, statusCode);
+            overloaded = isRetryable(statusCode);
+            breaker.record(statusCode < HttpStatus.SC_INTERNAL_SERVER_ERROR);
+            if (response.getEntity() != null) {
+                response.setEntity(decompress(metrics.meter(response.getEntity())));
+            }
+            return response;
+        } catch (IOException e) {
+            metrics.recordRequest(System.nanoTime() - start, -1);
+            breaker.record(false);
+            throw e;
+        } finally {
+            limiter.release(overloaded);
+        }
+    }
+
+    /**
+     * Wraps gzip compressed response body, so it is decompressed while it is read.
+     *
+     * @param entity response body
+     * @return decompressing response body, or given one if it is not compressed
+     */
+    private static HttpEntity decompress(final HttpEntity entity) {
+        final Header encoding = entity.getContentEncoding();
+        if (encoding != null && encoding.getValue().toLowerCase(Locale.ROOT).contains(GZIP)) {
+            return new GzipDecompressingEntity(entity);
+        }
+        return entity;
+    }
+
+    /**
+     * Checks whether request answered with given status code should be retried.
+     *
+     * @param statusCode HTTP status code
+     * @return true if server is throttling requests or temporarily unavailable
+     */
+    private static boolean isRetryable(final int statusCode) {
+        return statusCode == TOO_MANY_REQUESTS
+            || statusCode == HttpStatus.SC_BAD_GATEWAY
+            || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE
+            || statusCode == HttpStatus.SC_GATEWAY_TIMEOUT;
+    }
+
+    /**
+     * Reads delay requested by server with {@code Retry-After} header.
+     *
+     * @param response response of server
+     * @return requested delay (in milliseconds), 0 if none or malformed
+     */
+    private static long getRetryAfter(final HttpResponse response) {
+        final Header header = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+        if (header == null) {
+            return 0;
+        }
+        final String value = header.getValue().trim();
+        if (value.chars().allMatch(Character::isDigit) && !value.isEmpty()) {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+        }
+        final Date date = DateUtils.parseDate(value);
+        if (date == null) {
+            return 0;
+        }
+        return Math.max(0, date.getTime() - System.currentTimeMillis());
+    }
+
+    /**
+     * Waits before next attempt.
+     *
+     * @param millis delay in milliseconds
+     * @throws InterruptedIOException if interrupted while waiting
+     */
+    private static void pause(final long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException interrupted = new InterruptedIOException("Interrupted while waiting for retry");
+            interrupted.initCause(e);
+            throw interrupted;
+        }
+    }
+
+    /**
+     * Closes pooled connections, shared by all views of this client.
+     * <p>
+     * Connection problems while closing are ignored, there is nothing left to send.
+     */
+    @Override
+    public void close() {
+        HttpClientUtils.closeQuietly(httpClient);
+    }
+
+    /**
+     * Returns reusable JSON reader.
+     *
+     * @return JSON reader
+     */
+    ObjectReader getReader() {
+        return reader;
+    }
+}
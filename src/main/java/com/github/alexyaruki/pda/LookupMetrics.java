@@ -0,0 +1,354 @@
+package com.github.alexyaruki.pda;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.entity.HttpEntityWrapper;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Performance metrics of single goal execution.
+ * <p>
+ * Collects request latency histogram, bytes received, retries, revalidations, cache hits and misses and
+ * time spent in phases of goal. Safe for use from lookup worker threads.
+ */
+final class LookupMetrics {
+
+    /**
+     * Phases of goal execution.
+     */
+    enum Phase {
+        /**
+         * Resolving dependencies to look up.
+         */
+        RESOLVE,
+        /**
+         * Looking up timestamps.
+         */
+        LOOKUP,
+        /**
+         * Formatting ages and check results.
+         */
+        FORMAT,
+        /**
+         * Writing reports.
+         */
+        WRITE
+    }
+
+    /**
+     * Upper bounds (in milliseconds) of request latency histogram buckets, last bucket is unbounded.
+     */
+    private static final long[] BUCKETS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    /**
+     * Bytes in kilobyte.
+     */
+    private static final long KILOBYTE = 1024;
+
+    /**
+     * Median percentile.
+     */
+    private static final double MEDIAN = 0.5;
+
+    /**
+     * Tail percentile.
+     */
+    private static final double TAIL = 0.99;
+
+    /**
+     * Number of requests per latency bucket.
+     */
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS.length + 1);
+
+    /**
+     * Total latency of requests, in nanoseconds.
+     */
+    private final LongAdder latency = new LongAdder();
+
+    /**
+     * Highest latency of request, in nanoseconds.
+     */
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    /**
+     * Number of requests answered with 429.
+     */
+    private final LongAdder throttled = new LongAdder();
+
+    /**
+     * Number of requests failed with server error or connection problem.
+     */
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * Number of requests answered with 304, stored response was still valid.
+     */
+    private final LongAdder notModified = new LongAdder();
+
+    /**
+     * Number of retried requests.
+     */
+    private final LongAdder retries = new LongAdder();
+
+    /**
+     * Number of bytes received in response bodies.
+     */
+    private final LongAdder bytes = new LongAdder();
+
+    /**
+     * Number of timestamps found in cache.
+     */
+    private final LongAdder cacheHits = new LongAdder();
+
+    /**
+     * Number of timestamps not found in cache.
+     */
+    private final LongAdder cacheMisses = new LongAdder();
+
+    /**
+     * Number of lookups joining request already running in the build.
+     */
+    private final LongAdder shared = new LongAdder();
+
+    /**
+     * Number of timestamps resolved from local repository.
+     */
+    private final LongAdder localResolved = new LongAdder();
+
+    /**
+     * Time spent in phases, in nanoseconds.
+     */
+    private final Map<Phase, LongAdder> phases = new EnumMap<>(Phase.class);
+
+    /**
+     * Creates empty metrics.
+     */
+    LookupMetrics() {
+        for (final Phase phase : Phase.values()) {
+            phases.put(phase, new LongAdder()); //NOPMD
+        }
+    }
+
+    /**
+     * Records single attempt of request.
+     *
+     * @param nanos      time until response headers were received, in nanoseconds
+     * @param statusCode HTTP status code of response, -1 in case of connection problem
+     */
+    void recordRequest(final long nanos, final int statusCode) {
+        final long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < BUCKETS.length && millis > BUCKETS[bucket]) {
+            bucket++;
+        }
+        histogram.incrementAndGet(bucket);
+        latency.add(nanos);
+        maxLatency.accumulateAndGet(nanos, Math::max);
+        if (statusCode == LookupClient.TOO_MANY_REQUESTS) {
+            throttled.increment();
+        } else if (statusCode == HttpStatus.SC_NOT_MODIFIED) {
+            notModified.increment();
+        } else if (statusCode < 0 || statusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+            failed.increment();
+        }
+    }
+
+    /**
+     * Records retry of request.
+     */
+    void recordRetry() {
+        retries.increment();
+    }
+
+    /**
+     * Records cache lookup.
+     *
+     * @param hit true if timestamp was found in cache
+     */
+    void recordCacheLookup(final boolean hit) {
+        if (hit) {
+            cacheHits.increment();
+        } else {
+            cacheMisses.increment();
+        }
+    }
+
+    /**
+     * Records lookup joining request already running in the build, instead of sending another one.
+     */
+    void recordSharedLookup() {
+        shared.increment();
+    }
+
+    /**
+     * Records timestamp resolved from local repository instead of remote lookup.
+     */
+    void recordLocalLookup() {
+        localResolved.increment();
+    }
+
+    /**
+     * Records time spent in phase.
+     *
+     * @param phase phase of goal
+     * @param start {@link System#nanoTime()} at start of phase
+     */
+    void recordPhase(final Phase phase, final long start) {
+        phases.get(phase).add(System.nanoTime() - start);
+    }
+
+    /**
+     * Wraps response body, so received bytes are counted while it is read.
+     * <p>
+     * Compressed body must be wrapped before it is decompressed, so bytes received over the wire are counted.
+     *
+     * @param entity response body
+     * @return counting response body
+     */
+    HttpEntity meter(final HttpEntity entity) {
+        final LongAdder received = bytes;
+        return new HttpEntityWrapper(entity) {
+            @Override
+            public InputStream getContent() throws IOException {
+                return new FilterInputStream(super.getContent()) {
+                    @Override
+                    public int read() throws IOException {
+                        final int read = super.read();
+                        if (read >= 0) {
+                            received.increment();
+                        }
+                        return read;
+                    }
+
+                    @Override
+                    public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+                        final int read = super.read(buffer, offset, length);
+                        if (read > 0) {
+                            received.add(read);
+                        }
+                        return read;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Summarizes metrics in human readable form.
+     *
+     * @return summary lines
+     */
+    List<String> summarize() {
+        final List<String> summary = new ArrayList<>();
+        summary.add(String.format(Locale.ROOT, "Requests: %d (%d retried, %d throttled, %d failed, %d not modified), %d KB received",
+            getRequests(), retries.sum(), throttled.sum(), failed.sum(), notModified.sum(), bytes.sum() / KILOBYTE));
+        if (getRequests() > 0) {
+            summary.add(String.format(Locale.ROOT, "Request latency: p50 <= %s ms, p99 <= %s ms, max %d ms",
+                getPercentileBound(MEDIAN), getPercentileBound(TAIL), TimeUnit.NANOSECONDS.toMillis(maxLatency.get())));
+        }
+        summary.add(String.format(Locale.ROOT, "Cache: %d hits, %d misses (%d shared with running lookups)", cacheHits.sum(), cacheMisses.sum(), shared.sum()));
+        if (localResolved.sum() > 0) {
+            summary.add(String.format(Locale.ROOT, "Local repository: %d timestamps resolved", localResolved.sum()));
+        }
+        final StringJoiner phaseSummary = new StringJoiner(", ", "Phases: ", "");
+        phases.forEach((phase, nanos) -> phaseSummary.add(phase.name().toLowerCase(Locale.ROOT) + " " + TimeUnit.NANOSECONDS.toMillis(nanos.sum()) + " ms"));
+        summary.add(phaseSummary.toString());
+        return summary;
+    }
+
+    /**
+     * Writes metrics as JSON file.
+     *
+     * @param file    destination file
+     * @param goal    name of executed goal
+     * @param project identifier of project
+     * @throws IOException if file cannot be written
+     */
+    void writeJson(final Path file, final String goal, final String project) throws IOException {
+        try (Writer metricsWriter = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+             JsonGenerator generator = new JsonFactory().createGenerator(metricsWriter)) {
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartObject();
+            generator.writeStringField("goal", goal);
+            generator.writeStringField("project", project);
+            generator.writeObjectFieldStart("requests");
+            generator.writeNumberField("count", getRequests());
+            generator.writeNumberField("retries", retries.sum());
+            generator.writeNumberField("throttled", throttled.sum());
+            generator.writeNumberField("failed", failed.sum());
+            generator.writeNumberField("notModified", notModified.sum());
+            generator.writeNumberField("bytes", bytes.sum());
+            generator.writeNumberField("latencyTotalMillis", TimeUnit.NANOSECONDS.toMillis(latency.sum()));
+            generator.writeNumberField("latencyMaxMillis", TimeUnit.NANOSECONDS.toMillis(maxLatency.get()));
+            generator.writeObjectFieldStart("latencyHistogramMillis");
+            for (int bucket = 0; bucket < BUCKETS.length; bucket++) {
+                generator.writeNumberField("le" + BUCKETS[bucket], histogram.get(bucket));
+            }
+            generator.writeNumberField("inf", histogram.get(BUCKETS.length));
+            generator.writeEndObject();
+            generator.writeEndObject();
+            generator.writeObjectFieldStart("cache");
+            generator.writeNumberField("hits", cacheHits.sum());
+            generator.writeNumberField("misses", cacheMisses.sum());
+            generator.writeNumberField("shared", shared.sum());
+            generator.writeNumberField("localRepository", localResolved.sum());
+            generator.writeEndObject();
+            generator.writeObjectFieldStart("phasesMillis");
+            for (final Map.Entry<Phase, LongAdder> phase : phases.entrySet()) {
+                generator.writeNumberField(phase.getKey().name().toLowerCase(Locale.ROOT), TimeUnit.NANOSECONDS.toMillis(phase.getValue().sum()));
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Returns number of request attempts.
+     *
+     * @return number of request attempts
+     */
+    long getRequests() {
+        long requests = 0;
+        for (int bucket = 0; bucket < histogram.length(); bucket++) {
+            requests += histogram.get(bucket);
+        }
+        return requests;
+    }
+
+    /**
+     * Estimates latency percentile from histogram.
+     *
+     * @param percentile percentile, from 0 to 1
+     * @return upper bound of bucket containing percentile, in milliseconds
+     */
+    private String getPercentileBound(final double percentile) {
+        final long rank = (long) Math.ceil(percentile * getRequests());
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS.length; bucket++) {
+            seen += histogram.get(bucket);
+            if (seen >= rank) {
+                return String.valueOf(BUCKETS[bucket]);
+            }
+        }
+        return "inf";
+    }
+}
@@ -0,0 +1,16 @@
+package com.github.alexyaruki.pda;
+
+/**
+ * LookupMode - represents how Maven Central is queried for timestamp of dependency.
+ */
+public enum LookupMode {
+    /**
+     * Query for exact groupId:artifactId:version only.
+     */
+    VERSION,
+
+    /**
+     * Query for page of all versions of groupId:artifactId.
+     */
+    ARTIFACT
+}
@@ -0,0 +1,344 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+
+/**
+ * Incremental timestamp lookup.
+ * <p>
+ * Dependencies are added one by one and routed to their resolver; as soon as batch of
+ * them is complete it is sent on background thread, so lookups overlap with discovering
+ * further dependencies. Every resolver has its own workers, so lookups in fast repository
+ * never wait behind lookups in slow one. Timestamps found in cache are not downloaded again, all downloaded
+ * ones are cached, including other versions of artifact whose whole version list was fetched, and
+ * every distinct dependency is looked up only once. Lookups may be shared with other pipelines
+ * of the build, so dependency (or artifact, when whole version list is fetched) already being looked up
+ * by other module waits for running request instead of sending another one. Dependencies whose remote lookup
+ * failed (or all of them, when offline) are looked up in local repository. Dependencies unknown to remote
+ * repository are not, as their local files only tell when they were downloaded or built.
+ * <p>
+ * Listener may receive every timestamp as soon as it is known, cached ones while dependencies
+ * are added and downloaded ones in order lookups complete. Listener can stop pipeline,
+ * abandoning pending lookups.
+ */
+final class LookupPipeline implements AutoCloseable {
+
+    /**
+     * Listener set once pipeline is stopped, ignoring all timestamps.
+     */
+    private static final BiPredicate<Dependency, Long> STOPPED = (dependency, timestamp) -> false;
+
+    /**
+     * Maven logger instance.
+     */
+    private final Log log;
+
+    /**
+     * Routing of dependencies to resolvers.
+     */
+    private final ResolverRoutes routes;
+
+    /**
+     * Local repository lookup, used offline and when remote lookup fails.
+     */
+    private final LocalRepositoryLookup local;
+
+    /**
+     * Whether remote repositories must not be contacted.
+     */
+    private final boolean offline;
+
+    /**
+     * Persistent cache of release timestamps.
+     */
+    private final TimestampCache cache;
+
+    /**
+     * Maximum number of requests running at once, per resolver.
+     */
+    private final int concurrency;
+
+    /**
+     * Metrics receiving cache statistics.
+     */
+    private final LookupMetrics metrics;
+
+    /**
+     * Workers running requests, per resolver.
+     */
+    private final Map<TimestampResolver, ExecutorService> executors = new HashMap<>();
+
+    /**
+     * Timestamps found by prefetch goal, by coordinates (groupId:artifactId:version).
+     */
+    private final Map<String, Long> prefetched = new HashMap<>();
+
+    /**
+     * Timestamps found so far, by coordinates (groupId:artifactId:version).
+     */
+    private final Map<String, Long> found = new HashMap<>();
+
+    /**
+     * Dependencies which were not found in cache, by coordinates (groupId:artifactId:version).
+     */
+    private final Map<String, Dependency> missing = new LinkedHashMap<>();
+
+    /**
+     * Remote lookups of this pipeline and lookups of other pipelines it joined.
+     */
+    private InFlightLookups inFlight = new InFlightLookups();
+
+    /**
+     * Listener of found timestamps, {@code null} if timestamps are only returned by {@link #finish()},
+     * {@link #STOPPED} once listener stopped pipeline.
+     */
+    private BiPredicate<Dependency, Long> listener;
+
+    /**
+     * Batches of dependencies not sent yet, per resolver.
+     */
+    private final Map<TimestampResolver, List<Dependency>> batches = new HashMap<>();
+
+    /**
+     * Creates lookup pipeline.
+     *
+     * @param mavenLog          Maven logger instance
+     * @param resolverRoutes    routing of dependencies to resolvers
+     * @param localLookup       local repository lookup
+     * @param offlineLookup     whether remote repositories must not be contacted
+     * @param timestampCache    persistent cache of release timestamps
+     * @param lookupConcurrency maximum number of requests running at once, per resolver
+     * @param lookupMetrics     metrics receiving cache statistics
+     */
+    LookupPipeline(final Log mavenLog, final ResolverRoutes resolverRoutes, final LocalRepositoryLookup localLookup, final boolean offlineLookup,
+                   final TimestampCache timestampCache, final int lookupConcurrency, final LookupMetrics lookupMetrics) {
+        this.log = mavenLog;
+        this.routes = resolverRoutes;
+        this.local = localLookup;
+        this.offline = offlineLookup;
+        this.cache = timestampCache;
+        this.concurrency = Math.max(1, lookupConcurrency);
+        this.metrics = lookupMetrics;
+    }
+
+    /**
+     * Shares results with other pipelines of the build.
+     * <p>
+     * Timestamps found by prefetch goal are used like cached ones, failed lookups are repeated.
+     *
+     * @param timestamps map of coordinates (groupId:artifactId:version) to timestamp found by prefetch goal
+     * @param lookups    lookups running in current build
+     */
+    void share(final Map<String, Long> timestamps, final InFlightLookups lookups) {
+        timestamps.forEach((key, timestamp) -> {
+            if (timestamp >= 0) {
+                prefetched.put(key, timestamp);
+            }
+        });
+        this.inFlight = lookups.tracking();
+    }
+
+    /**
+     * Sets listener receiving every timestamp (0 if not found, -1 if lookup failed) as soon as it is known.
+     * <p>
+     * Listener runs on thread adding dependencies or finishing pipeline. Once it returns false,
+     * further dependencies are ignored and pending lookups are abandoned.
+     *
+     * @param timestampListener listener of dependency and its timestamp, returning false to stop pipeline
+     */
+    void listen(final BiPredicate<Dependency, Long> timestampListener) {
+        this.listener = timestampListener;
+    }
+
+    /**
+     * Adds dependency to look up.
+     *
+     * @param dependency dependency to look up
+     */
+    void add(final Dependency dependency) {
+        final String key = InfoGenerator.coordinates(dependency);
+        if (STOPPED.equals(listener) || found.containsKey(key) || missing.containsKey(key)) {
+            return;
+        }
+        final TimestampResolver resolver = routes.route(dependency);
+        if (findCached(key, dependency, resolver)) {
+            return;
+        }
+        missing.put(key, dependency);
+        if (!offline) {
+            enqueue(key, dependency, resolver);
+        }
+    }
+
+    /**
+     * Adds dependency to batch of its resolver, unless it joins lookup already running.
+     *
+     * @param key        coordinates (groupId:artifactId:version) of dependency
+     * @param dependency dependency to look up
+     * @param resolver   resolver of dependency
+     */
+    private void enqueue(final String key, final Dependency dependency, final TimestampResolver resolver) {
+        final String lookupKey = resolver.lookupKey(dependency);
+        if (inFlight.join(lookupKey, key)) {
+            metrics.recordSharedLookup();
+            return;
+        }
+        final List<Dependency> batch = batches.computeIfAbsent(resolver, batchResolver -> new ArrayList<>());
+        try {
+            if (!resolver.fits(batch, dependency)) {
+                submit(resolver, batch);
+                batch.clear();
+            }
+            batch.add(dependency);
+        } catch (IOException e) {
+            log.warn("Cannot create query for " + key + ": " + e.getMessage());
+            inFlight.abandon(lookupKey);
+        }
+    }
+
+    /**
+     * Uses prefetched or cached timestamp of dependency, unless its resolver needs to look it up anyway.
+     *
+     * @param key        coordinates (groupId:artifactId:version) of dependency
+     * @param dependency dependency to look up
+     * @param resolver   resolver of dependency
+     * @return true if cached timestamp was used
+     */
+    private boolean findCached(final String key, final Dependency dependency, final TimestampResolver resolver) {
+        Long cached = prefetched.get(key);
+        if (cached == null) {
+            cached = cache.get(key);
+        }
+        final boolean hit = cached != null && (offline || !resolver.needsLookup(dependency));
+        metrics.recordCacheLookup(hit);
+        if (hit) {
+            found.put(key, cached);
+            notify(dependency, cached);
+        }
+        return hit;
+    }
+
+    /**
+     * Waits for all lookups to complete.
+     * <p>
+     * If listener stops pipeline, timestamps found so far are returned, pending lookups are abandoned once pipeline is closed.
+     *
+     * @return map of coordinates (groupId:artifactId:version) to timestamp, -1 if lookup failed
+     */
+    Map<String, Long> finish() {
+        batches.forEach(this::submit);
+        batches.clear();
+        awaitLookups();
+        for (final Map.Entry<String, Dependency> entry : missing.entrySet()) {
+            if (!STOPPED.equals(listener) && found.getOrDefault(entry.getKey(), -1L) < 0) {
+                final long timestamp = local.findTimestamp(entry.getValue());
+                if (timestamp > 0 || !found.containsKey(entry.getKey())) {
+                    found.put(entry.getKey(), timestamp);
+                }
+                notify(entry.getValue(), found.get(entry.getKey()));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Waits for remote lookups, passing found timestamps to listener in order lookups complete.
+     * <p>
+     * Every handed back result is cached with single write, so results of lookups joined from other
+     * pipelines, which may use no cache or other one, are cached too.
+     */
+    private void awaitLookups() {
+        while (inFlight.hasPending() && !STOPPED.equals(listener)) {
+            final Map<String, Long> timestamps = inFlight.await(log);
+            cache.putAll(timestamps, log);
+            timestamps.forEach((key, timestamp) -> {
+                final Dependency dependency = missing.get(key);
+                if (dependency != null) {
+                    found.put(key, timestamp);
+                    if (timestamp >= 0) {
+                        notify(dependency, timestamp);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Passes timestamp to listener, if any, stopping pipeline if listener says so.
+     *
+     * @param dependency dependency, ignored if {@code null}
+     * @param timestamp  its timestamp
+     */
+    private void notify(final Dependency dependency, final long timestamp) {
+        if (listener != null && dependency != null && !listener.test(dependency, timestamp)) {
+            listener = STOPPED;
+        }
+    }
+
+    /**
+     * Stops all workers, abandoning pending lookups.
+     * <p>
+     * Pipelines which joined abandoned lookups see them failed.
+     */
+    @Override
+    public void close() {
+        executors.values().forEach(ExecutorService::shutdownNow);
+        inFlight.abandonAll();
+    }
+
+    /**
+     * Sends batch to its resolver.
+     *
+     * @param resolver resolver of batch
+     * @param batch    dependencies to look up
+     */
+    private void submit(final TimestampResolver resolver, final List<Dependency> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        final List<Dependency> submitted = new ArrayList<>(batch);
+        ExecutorService executor = executors.get(resolver);
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(concurrency, new LookupThreadFactory());
+            executors.put(resolver, executor);
+        }
+        final List<String> lookupKeys = new ArrayList<>();
+        for (final Dependency dependency : submitted) {
+            lookupKeys.add(resolver.lookupKey(dependency));
+        }
+        inFlight.track(CompletableFuture.supplyAsync(() -> resolver.downloadTimestamps(submitted), executor), lookupKeys);
+    }
+
+    /**
+     * Thread factory for timestamp lookup workers.
+     * <p>
+     * Workers are daemon threads, so pending lookups never keep Maven JVM alive.
+     */
+    private static final class LookupThreadFactory implements ThreadFactory {
+
+        /**
+         * Sequence used for naming worker threads.
+         */
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "pda-lookup-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
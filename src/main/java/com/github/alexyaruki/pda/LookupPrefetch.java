@@ -0,0 +1,80 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Timestamp lookups started early in build and completed on background thread.
+ * <p>
+ * Stored in session data by prefetch goal, so later goals of the same project join
+ * lookups which ran while project was compiled and tested, instead of starting them.
+ */
+final class LookupPrefetch {
+
+    /**
+     * Pending result of lookups, map of coordinates (groupId:artifactId:version) to timestamp.
+     */
+    private final Future<Map<String, Long>> result;
+
+    /**
+     * Creates prefetch of pending result.
+     *
+     * @param pending pending result of lookups
+     */
+    private LookupPrefetch(final Future<Map<String, Long>> pending) {
+        this.result = pending;
+    }
+
+    /**
+     * Completes lookups of pipeline on background daemon thread.
+     * <p>
+     * Pipeline must not be used by caller afterwards, it is closed once lookups complete.
+     *
+     * @param pipeline   pipeline with all dependencies added
+     * @param completion action run on background thread once pipeline is closed
+     * @return prefetch of pipeline result
+     */
+    static LookupPrefetch start(final LookupPipeline pipeline, final Runnable completion) {
+        final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "pda-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final Future<Map<String, Long>> pending = executor.submit(() -> {
+            try (LookupPipeline started = pipeline) {
+                return started.finish();
+            } finally {
+                completion.run();
+            }
+        });
+        executor.shutdown();
+        return new LookupPrefetch(pending);
+    }
+
+    /**
+     * Waits for lookups to complete.
+     * <p>
+     * Waiting is bounded by timeouts and retries of lookup requests. Failure of prefetch is logged,
+     * it only means dependencies are looked up again.
+     *
+     * @param log Maven logger instance
+     * @return map of coordinates (groupId:artifactId:version) to timestamp, empty if prefetch failed
+     */
+    Map<String, Long> await(final Log log) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Collections.emptyMap();
+        } catch (ExecutionException e) {
+            log.warn("Prefetched lookups failed: " + e.getCause());
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.InputLocation;
+import org.apache.maven.project.MavenProject;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Class for finding all managed dependencies of project, including dependencies managed by imported BOMs.
+ * <p>
+ * Effective dependency management already contains entries of imported BOMs (and BOMs imported
+ * by them), as Maven merges them while building project. Imported BOMs themselves are removed
+ * from effective model, so they are read from original POM. Every entry is reported together
+ * with POM which declared it.
+ */
+final class ManagedDependencies {
+
+    /**
+     * Scope of dependency importing BOM.
+     */
+    private static final String IMPORT_SCOPE = "import";
+
+    /**
+     * Audited project.
+     */
+    private final MavenProject project;
+
+    /**
+     * Resolver of property references in versions of imported BOMs.
+     */
+    private final PomResolver resolver = new PomResolver();
+
+    /**
+     * Creates finder of managed dependencies.
+     *
+     * @param mavenProject audited project
+     */
+    ManagedDependencies(final MavenProject mavenProject) {
+        this.project = mavenProject;
+    }
+
+    /**
+     * Passes every managed dependency and every imported BOM to consumer, with coordinates
+     * (groupId:artifactId:version) of POM which declared it.
+     * <p>
+     * Imported BOMs with version not resolvable from project properties are skipped.
+     *
+     * @param consumer consumer of dependency and POM which declared it
+     * @return number of imported BOMs declared by project
+     */
+    int forEachDependency(final BiConsumer<Dependency, String> consumer) {
+        final String projectId = project.getGroupId() + ":" + project.getArtifactId() + ":" + project.getVersion();
+        int imported = 0;
+        final DependencyManagement original = project.getOriginalModel().getDependencyManagement();
+        if (original != null) {
+            for (final Dependency bom : original.getDependencies()) {
+                if (IMPORT_SCOPE.equals(bom.getScope())) {
+                    imported++;
+                    acceptImported(bom, projectId, consumer);
+                }
+            }
+        }
+        final DependencyManagement effective = project.getDependencyManagement();
+        if (effective != null) {
+            effective.getDependencies().forEach(dependency -> consumer.accept(dependency, getSource(dependency, projectId)));
+        }
+        return imported;
+    }
+
+    /**
+     * Passes imported BOM to consumer, if its version can be resolved.
+     *
+     * @param bom       imported BOM, as declared in original POM
+     * @param projectId coordinates of audited project
+     * @param consumer  consumer of dependency and POM which declared it
+     */
+    private void acceptImported(final Dependency bom, final String projectId, final BiConsumer<Dependency, String> consumer) {
+        final Dependency interpolated = bom.clone();
+        interpolated.setGroupId(resolver.interpolate(project.getModel(), bom.getGroupId()));
+        interpolated.setVersion(resolver.interpolate(project.getModel(), bom.getVersion()));
+        if (interpolated.getVersion() != null && !interpolated.getVersion().contains("${")) {
+            consumer.accept(interpolated, projectId);
+        }
+    }
+
+    /**
+     * Finds POM which declared managed dependency.
+     *
+     * @param dependency managed dependency
+     * @param projectId  coordinates of audited project, used if location of dependency was not tracked
+     * @return coordinates (groupId:artifactId:version) of declaring POM
+     */
+    private static String getSource(final Dependency dependency, final String projectId) {
+        final InputLocation location = dependency.getLocation("");
+        if (location == null || location.getSource() == null || location.getSource().getModelId() == null) {
+            return projectId;
+        }
+        return location.getSource().getModelId();
+    }
+}
@@ -0,0 +1,224 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolver of dependency versions declared in POM files, without building Maven projects.
+ * <p>
+ * Versions are resolved from properties and dependency management of POM itself and of
+ * its parents known to resolver. Parents outside of known POM files are not downloaded.
+ */
+final class PomResolver {
+
+    /**
+     * Pattern of property reference.
+     */
+    private static final Pattern PROPERTY = Pattern.compile("\\$\\{([^}]+)}");
+
+    /**
+     * Maximum depth of parent POMs and nested property references.
+     */
+    private static final int MAX_DEPTH = 16;
+
+    /**
+     * Known POM files by groupId:artifactId.
+     */
+    private final Map<String, Model> models = new HashMap<>();
+
+    /**
+     * Adds POM file usable as parent of other POM files.
+     *
+     * @param model POM
+     */
+    void add(final Model model) {
+        models.put(getGroupId(model) + ":" + model.getArtifactId(), model);
+    }
+
+    /**
+     * Forgets all known POM files.
+     */
+    void clear() {
+        models.clear();
+    }
+
+    /**
+     * Checks whether dependency is one of known POM files.
+     *
+     * @param dependency dependency with resolved groupId
+     * @return true if dependency is known POM file
+     */
+    boolean isKnown(final Dependency dependency) {
+        return models.containsKey(dependency.getGroupId() + ":" + dependency.getArtifactId());
+    }
+
+    /**
+     * Resolves version of dependency.
+     *
+     * @param model      POM declaring dependency
+     * @param dependency dependency
+     * @return resolved version, {@code null} if version cannot be resolved
+     */
+    String resolveVersion(final Model model, final Dependency dependency) {
+        String version = dependency.getVersion();
+        Model declaring = model;
+        for (int depth = 0; version == null && declaring != null && depth < MAX_DEPTH; depth++) {
+            version = findManagedVersion(declaring, dependency);
+            declaring = getParent(declaring);
+        }
+        if (version == null) {
+            return null;
+        }
+        version = interpolate(model, version);
+        if (version == null || version.contains("${")) {
+            return null;
+        }
+        return version;
+    }
+
+    /**
+     * Finds version of dependency in dependency management of single POM.
+     *
+     * @param model      POM
+     * @param dependency dependency
+     * @return managed version, {@code null} if dependency is not managed by POM
+     */
+    private static String findManagedVersion(final Model model, final Dependency dependency) {
+        final DependencyManagement management = model.getDependencyManagement();
+        if (management == null) {
+            return null;
+        }
+        for (final Dependency candidate : management.getDependencies()) {
+            if (dependency.getArtifactId().equals(candidate.getArtifactId()) && dependency.getGroupId().equals(candidate.getGroupId())) {
+                return candidate.getVersion();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Replaces property references in value.
+     *
+     * @param model POM whose properties are used
+     * @param value value with property references
+     * @return interpolated value, unresolved references are left untouched
+     */
+    String interpolate(final Model model, final String value) {
+        return interpolate(model, value, 0);
+    }
+
+    /**
+     * Replaces property references in value.
+     *
+     * @param model POM whose properties are used
+     * @param value value with property references
+     * @param depth current depth of nested property references
+     * @return interpolated value, unresolved references are left untouched
+     */
+    private String interpolate(final Model model, final String value, final int depth) {
+        if (value == null || depth > MAX_DEPTH || !value.contains("${")) {
+            return value;
+        }
+        final Matcher matcher = PROPERTY.matcher(value);
+        final StringBuffer interpolated = new StringBuffer();
+        while (matcher.find()) {
+            String property = findProperty(model, matcher.group(1));
+            if (property == null) {
+                property = matcher.group();
+            } else {
+                property = interpolate(model, property, depth + 1);
+            }
+            matcher.appendReplacement(interpolated, Matcher.quoteReplacement(property));
+        }
+        matcher.appendTail(interpolated);
+        return interpolated.toString();
+    }
+
+    /**
+     * Finds value of property in POM or its parents.
+     *
+     * @param model POM
+     * @param name  name of property
+     * @return value of property, {@code null} if not defined
+     */
+    private String findProperty(final Model model, final String name) {
+        switch (name) {
+            case "project.version":
+            case "pom.version":
+            case "version":
+                return getVersion(model);
+
+            case "project.groupId":
+            case "pom.groupId":
+                return getGroupId(model);
+
+            case "project.parent.version":
+                if (model.getParent() == null) {
+                    return null;
+                }
+                return model.getParent().getVersion();
+
+            default:
+                Model current = model;
+                for (int depth = 0; current != null && depth < MAX_DEPTH; depth++) {
+                    final String property = current.getProperties().getProperty(name);
+                    if (property != null) {
+                        return property;
+                    }
+                    current = getParent(current);
+                }
+                return null;
+        }
+    }
+
+    /**
+     * Finds parent POM in scanned directory tree.
+     *
+     * @param model POM
+     * @return parent POM, {@code null} if POM has no parent or parent is not in directory tree
+     */
+    private Model getParent(final Model model) {
+        final Parent parent = model.getParent();
+        if (parent == null) {
+            return null;
+        }
+        final Model parentModel = models.get(parent.getGroupId() + ":" + parent.getArtifactId());
+        if (model.equals(parentModel)) {
+            return null;
+        }
+        return parentModel;
+    }
+
+    /**
+     * Returns groupId of POM, inherited from parent if not declared.
+     *
+     * @param model POM
+     * @return groupId of POM
+     */
+    private static String getGroupId(final Model model) {
+        if (model.getGroupId() == null && model.getParent() != null) {
+            return model.getParent().getGroupId();
+        }
+        return model.getGroupId();
+    }
+
+    /**
+     * Returns version of POM, inherited from parent if not declared.
+     *
+     * @param model POM
+     * @return version of POM
+     */
+    private static String getVersion(final Model model) {
+        if (model.getVersion() == null && model.getParent() != null) {
+            return model.getParent().getVersion();
+        }
+        return model.getVersion();
+    }
+}
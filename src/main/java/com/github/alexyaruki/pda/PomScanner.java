@@ -0,0 +1,139 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Class for finding dependencies of all POM files in directory tree, without building Maven projects.
+ * <p>
+ * POM files are read with plain model reader, dependencies whose version cannot be resolved
+ * from scanned POM files are skipped.
+ */
+final class PomScanner {
+
+    /**
+     * Name of POM files.
+     */
+    static final String POM_FILE = "pom.xml";
+
+    /**
+     * Names of directories never containing project POM files.
+     */
+    static final Set<String> SKIPPED_FOLDERS = new HashSet<>(Arrays.asList("target", "node_modules", "src"));
+
+    /**
+     * Maven logger instance.
+     */
+    private final Log log;
+
+    /**
+     * Read POM files.
+     */
+    private final List<Model> models = new ArrayList<>();
+
+    /**
+     * Resolver of dependency versions.
+     */
+    private final PomResolver resolver = new PomResolver();
+
+    /**
+     * Creates POM scanner.
+     *
+     * @param mavenLog Maven logger instance
+     */
+    PomScanner(final Log mavenLog) {
+        this.log = mavenLog;
+    }
+
+    /**
+     * Reads all POM files in directory tree.
+     * <p>
+     * Build output, hidden and source directories are not searched.
+     *
+     * @param root root of directory tree
+     * @return number of read POM files
+     * @throws IOException if directory tree cannot be walked
+     */
+    int scan(final Path root) throws IOException {
+        final List<Path> pomFiles = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path directory, final BasicFileAttributes attributes) {
+                final String name = String.valueOf(directory.getFileName());
+                if (!directory.equals(root) && (name.charAt(0) == '.' || SKIPPED_FOLDERS.contains(name))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) {
+                if (POM_FILE.equals(String.valueOf(file.getFileName()))) {
+                    pomFiles.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        final MavenXpp3Reader reader = new MavenXpp3Reader();
+        for (final Path pomFile : pomFiles) {
+            try (InputStream pomStream = Files.newInputStream(pomFile)) {
+                final Model model = reader.read(pomStream, false);
+                models.add(model);
+                resolver.add(model);
+            } catch (IOException | XmlPullParserException e) {
+                log.warn("Cannot read " + pomFile + ": " + e.getMessage());
+            }
+        }
+        return models.size();
+    }
+
+    /**
+     * Passes every dependency of read POM files, with resolved version, to consumer.
+     * <p>
+     * Dependencies on scanned POM files themselves are not passed. Read POM files are released
+     * afterwards, so dependencies can be passed only once.
+     *
+     * @param consumer consumer of dependencies
+     * @return number of skipped dependencies with unresolved version
+     */
+    int forEachDependency(final Consumer<Dependency> consumer) {
+        int skipped = 0;
+        for (final Model model : models) {
+            for (final Dependency dependency : model.getDependencies()) {
+                final String version = resolver.resolveVersion(model, dependency);
+                if (version == null) {
+                    skipped++;
+                    if (log.isDebugEnabled()) {
+                        log.debug("Skipping " + dependency.getManagementKey() + " of " + model.getArtifactId() + ", version not resolved");
+                    }
+                    continue;
+                }
+                dependency.setGroupId(resolver.interpolate(model, dependency.getGroupId()));
+                if (!resolver.isKnown(dependency)) {
+                    dependency.setVersion(version);
+                    consumer.accept(dependency);
+                }
+            }
+        }
+        models.clear();
+        resolver.clear();
+        return skipped;
+    }
+}
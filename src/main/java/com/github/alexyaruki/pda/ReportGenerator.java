@@ -0,0 +1,347 @@
+package com.github.alexyaruki.pda;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import j2html.tags.ContainerTag;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFCell;
+import org.apache.poi.xssf.streaming.SXSSFRow;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static j2html.TagCreator.td;
+import static j2html.TagCreator.th;
+import static j2html.TagCreator.tr;
+
+/**
+ * Class for writing dependency age reports in selected formats.
+ */
+final class ReportGenerator {
+
+    /**
+     * Beginning of HTML report, up to its table rows.
+     */
+    private static final String HTML_START = "<html><body><table>";
+
+    /**
+     * End of HTML report, after its table rows.
+     */
+    private static final String HTML_END = "</table></body></html>";
+
+    /**
+     * Number of Excel rows kept in memory before they are flushed to temporary file.
+     */
+    private static final int EXCEL_ROW_WINDOW = 100;
+
+    /**
+     * Width of single character in Excel column width units.
+     */
+    private static final int CHARACTER_WIDTH = 256;
+
+    /**
+     * Maximum Excel column width in characters.
+     */
+    private static final int MAX_COLUMN_WIDTH = 255;
+
+    /**
+     * Characters added to Excel column width, so values do not touch cell borders.
+     */
+    private static final int COLUMN_PADDING = 2;
+
+    /**
+     * Maven logger instance.
+     */
+    private final Log log;
+
+    /**
+     * Reports destination directory.
+     */
+    private final Path destination;
+
+    /**
+     * Report file name without extension.
+     */
+    private final String baseName;
+
+    /**
+     * Report title.
+     */
+    private final String title;
+
+    /**
+     * Name of optional details column.
+     */
+    private final String detailsName;
+
+    /**
+     * Additional columns, by column name, each mapping dependency name to value.
+     */
+    private final Map<String, Map<String, String>> extraColumns = new LinkedHashMap<>();
+
+    /**
+     * Creates report generator.
+     *
+     * @param mavenLog        Maven logger instance
+     * @param destinationPath reports destination directory
+     * @param reportBaseName  report file name without extension
+     * @param reportTitle     report title
+     * @param detailsColumn   name of optional details column (for example "Modules")
+     */
+    ReportGenerator(final Log mavenLog, final Path destinationPath, final String reportBaseName, final String reportTitle, final String detailsColumn) {
+        this.log = mavenLog;
+        this.destination = destinationPath;
+        this.baseName = reportBaseName;
+        this.title = reportTitle;
+        this.detailsName = detailsColumn;
+    }
+
+    /**
+     * Adds column reported after details column.
+     *
+     * @param name   name of column
+     * @param values map of dependency name to value, dependencies without value have empty cell
+     */
+    void addColumn(final String name, final Map<String, String> values) {
+        extraColumns.put(name, values);
+    }
+
+    /**
+     * Generates reports of all selected types.
+     * <p>
+     * Every report is streamed to its file, so whole document is never held in memory.
+     *
+     * @param reportTypeString report types selected by user, separated by commas
+     * @param pdaInfo          map describing information about dependencies age
+     * @param details          map of dependency name to its details, empty if not reported
+     * @throws MojoExecutionException if destination directory cannot be created
+     */
+    void generate(final String reportTypeString, final Map<String, String> pdaInfo, final Map<String, String> details) throws MojoExecutionException {
+        if (!destination.toFile().exists()) {
+            try {
+                Files.createDirectories(destination);
+            } catch (IOException e) {
+                throw new MojoExecutionException("Cannot create directory \"dependency-age\" in target build directory", e);
+            }
+        }
+        if (Objects.isNull(reportTypeString)) {
+            log.warn("Report not generated because of missing report type");
+            return;
+        }
+        final Map<String, Map<String, String>> columns = new LinkedHashMap<>();
+        if (!details.isEmpty()) {
+            columns.put(detailsName, details);
+        }
+        columns.putAll(extraColumns);
+        for (final ReportType reportType : parseReportTypes(reportTypeString)) {
+            switch (reportType) {
+                case JSON:
+                    generateJSONReport(pdaInfo, columns);
+                    break;
+
+                case HTML:
+                    generateHTMLReport(pdaInfo, columns);
+                    break;
+
+                case EXCEL:
+                    generateExcelReport(pdaInfo, columns);
+                    break;
+
+                default:
+                    log.warn("Report not generated because of unknown report type: " + reportType);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Parses comma separated list of report types.
+     * <p>
+     * Unknown report types are logged and skipped.
+     *
+     * @param reportTypeString report types selected by user, separated by commas
+     * @return selected report types
+     */
+    private Set<ReportType> parseReportTypes(final String reportTypeString) {
+        final Set<ReportType> reportTypes = EnumSet.noneOf(ReportType.class);
+        for (final String reportTypeName : reportTypeString.split(",")) {
+            try {
+                reportTypes.add(ReportType.valueOf(reportTypeName.trim().toUpperCase(Locale.getDefault())));
+            } catch (IllegalArgumentException e) {
+                log.warn("Report not generated because of unknown report type: " + reportTypeName.trim());
+            }
+        }
+        return reportTypes;
+    }
+
+    /**
+     * Generates report in JSON format.
+     *
+     * @param pdaInfo map describing information about dependencies age
+     * @param columns additional columns, by column name
+     */
+    private void generateJSONReport(final Map<String, String> pdaInfo, final Map<String, Map<String, String>> columns) {
+        final Path reportPath = destination.resolve(baseName + ".json");
+        try (Writer reportWriter = Files.newBufferedWriter(reportPath, Charset.defaultCharset());
+             JsonGenerator generator = new JsonFactory().createGenerator(reportWriter)) {
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("dependencies");
+            for (final Map.Entry<String, String> entry : pdaInfo.entrySet()) {
+                generator.writeStartObject();
+                generator.writeStringField("name", entry.getKey());
+                generator.writeStringField("age", entry.getValue());
+                for (final Map.Entry<String, Map<String, String>> column : columns.entrySet()) {
+                    if (column.getValue().containsKey(entry.getKey())) {
+                        generator.writeStringField(toFieldName(column.getKey()), column.getValue().get(entry.getKey()));
+                    }
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } catch (IOException e) {
+            log.error("Error when saving report: " + e.getMessage());
+            return;
+        }
+        log.info("Report saved to " + reportPath.toString()); //NOPMD
+    }
+
+    /**
+     * Generates report in Excel format.
+     * <p>
+     * Workbook is streamed, only last {@value #EXCEL_ROW_WINDOW} rows are kept in memory.
+     * Column widths are estimated from length of written values.
+     *
+     * @param pdaInfo map describing information about dependencies age
+     * @param columns additional columns, by column name
+     */
+    private void generateExcelReport(final Map<String, String> pdaInfo, final Map<String, Map<String, String>> columns) {
+        final SXSSFWorkbook workbook = new SXSSFWorkbook(EXCEL_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            final SXSSFSheet summarySheet = workbook.createSheet("Dependency Age Summary");
+            final SXSSFRow rowFirst = summarySheet.createRow(0);
+            final SXSSFCell headerCell = rowFirst.createCell(0);
+            headerCell.setCellValue(title);
+            final SXSSFRow columnHeaders = summarySheet.createRow(1);
+            columnHeaders.createCell(0).setCellValue("Name");
+            columnHeaders.createCell(1).setCellValue("Age");
+            final int[] widths = new int[columns.size() + 2];
+            widths[0] = "Name".length();
+            widths[1] = "Age".length();
+            summarySheet.addMergedRegion(new CellRangeAddress(0, 0, 0, widths.length - 1));
+            int columnId = 2;
+            for (final String column : columns.keySet()) {
+                columnHeaders.createCell(columnId).setCellValue(column);
+                widths[columnId] = column.length();
+                columnId++;
+            }
+            int dataRowId = 2;
+            for (final Map.Entry<String, String> entry : pdaInfo.entrySet()) {
+                final SXSSFRow dataRow = summarySheet.createRow(dataRowId);
+                dataRow.createCell(0).setCellValue(entry.getKey());
+                dataRow.createCell(1).setCellValue(entry.getValue());
+                widths[0] = Math.max(widths[0], entry.getKey().length());
+                widths[1] = Math.max(widths[1], entry.getValue().length());
+                columnId = 2;
+                for (final Map<String, String> values : columns.values()) {
+                    final String value = values.get(entry.getKey());
+                    if (value != null) {
+                        dataRow.createCell(columnId).setCellValue(value);
+                        widths[columnId] = Math.max(widths[columnId], value.length());
+                    }
+                    columnId++;
+                }
+                dataRowId++;
+            }
+            for (columnId = 0; columnId < widths.length; columnId++) {
+                summarySheet.setColumnWidth(columnId, toColumnWidth(widths[columnId]));
+            }
+            try (OutputStream reportStream = Files.newOutputStream(destination.resolve(baseName + ".xlsx"))) {
+                workbook.write(reportStream);
+            }
+        } catch (IOException e) {
+            log.error("Error when saving Excel report: " + e.getMessage());
+        } finally {
+            workbook.dispose();
+        }
+    }
+
+    /**
+     * Converts number of characters to Excel column width.
+     *
+     * @param characters number of characters
+     * @return column width in units of 1/256 of character width
+     */
+    private static int toColumnWidth(final int characters) {
+        return Math.min(characters + COLUMN_PADDING, MAX_COLUMN_WIDTH) * CHARACTER_WIDTH;
+    }
+
+    /**
+     * Generates report in HTML format.
+     *
+     * @param pdaInfo map describing information about dependencies age
+     * @param columns additional columns, by column name
+     */
+    private void generateHTMLReport(final Map<String, String> pdaInfo, final Map<String, Map<String, String>> columns) {
+        final Path reportPath = destination.resolve(baseName + ".html");
+        try (Writer reportWriter = Files.newBufferedWriter(reportPath, Charset.defaultCharset())) {
+            reportWriter.write(HTML_START);
+            tr(th(title).attr("colspan", String.valueOf(columns.size() + 2))).render(reportWriter);
+            final ContainerTag header = tr(th("Name"), th("Age"));
+            for (final String column : columns.keySet()) {
+                header.with(th(column));
+            }
+            header.render(reportWriter);
+            for (final Map.Entry<String, String> entry : pdaInfo.entrySet()) {
+                final ContainerTag row = tr(
+                    td(entry.getKey()),
+                    td(entry.getValue())
+                );
+                for (final Map<String, String> values : columns.values()) {
+                    row.with(td(values.getOrDefault(entry.getKey(), "")));
+                }
+                row.render(reportWriter);
+            }
+            reportWriter.write(HTML_END);
+        } catch (IOException e) {
+            log.error("Error when saving report: " + e.getMessage());
+            return;
+        }
+        log.info("Report saved to " + reportPath.toString()); //NOPMD
+    }
+
+    /**
+     * Converts column name to JSON field name.
+     *
+     * @param column name of column, for example "Releases behind"
+     * @return field name, for example "releasesBehind"
+     */
+    private static String toFieldName(final String column) {
+        final StringBuilder field = new StringBuilder(column.length());
+        for (final String word : column.trim().split("\\s+")) {
+            if (field.length() == 0) {
+                field.append(word.toLowerCase(Locale.ROOT));
+            } else {
+                field.append(StringUtils.capitalize(word.toLowerCase(Locale.ROOT)));
+            }
+        }
+        return field.toString();
+    }
+}
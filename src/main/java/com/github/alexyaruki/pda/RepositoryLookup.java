@@ -0,0 +1,142 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.maven.artifact.repository.Authentication;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class for looking up dependency timestamps in Maven repository (for example Nexus or Artifactory).
+ * <p>
+ * Timestamp is {@code Last-Modified} time of POM file of release, or of version level
+ * {@code maven-metadata.xml} of snapshot, read with HEAD request. Every dependency is queried separately.
+ */
+final class RepositoryLookup implements TimestampResolver {
+
+    /**
+     * Suffix of snapshot versions.
+     */
+    private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
+
+    /**
+     * Maven logger instance.
+     */
+    private final Log log;
+
+    /**
+     * Client used for HTTP requests.
+     */
+    private final LookupClient client;
+
+    /**
+     * Base URL of repository, without trailing slash.
+     */
+    private final String url;
+
+    /**
+     * Value of {@code Authorization} header, {@code null} if repository is accessed anonymously.
+     */
+    private final String authorization;
+
+    /**
+     * Creates repository lookup.
+     *
+     * @param mavenLog       Maven logger instance
+     * @param lookupClient   client used for HTTP requests
+     * @param repositoryUrl  base URL of repository
+     * @param authentication credentials of repository, {@code null} if repository is accessed anonymously
+     */
+    RepositoryLookup(final Log mavenLog, final LookupClient lookupClient, final String repositoryUrl, final Authentication authentication) {
+        this.log = mavenLog;
+        this.client = lookupClient;
+        this.url = repositoryUrl.replaceAll("/+$", "");
+        if (authentication == null || authentication.getUsername() == null) {
+            this.authorization = null;
+        } else {
+            final String credentials = authentication.getUsername() + ":" + authentication.getPassword();
+            this.authorization = "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    public boolean fits(final List<Dependency> batch, final Dependency dependency) {
+        return batch.isEmpty();
+    }
+
+    @Override
+    public Map<String, Long> downloadTimestamps(final List<Dependency> batch) {
+        final Map<String, Long> timestamps = new HashMap<>();
+        for (final Dependency dependency : batch) {
+            timestamps.put(InfoGenerator.coordinates(dependency), downloadTimestamp(dependency));
+        }
+        return timestamps;
+    }
+
+    /**
+     * Downloads timestamp of dependency.
+     *
+     * @param dependency dependency to look up
+     * @return timestamp of dependency, 0 if version was not found, -1 if lookup failed
+     */
+    long downloadTimestamp(final Dependency dependency) {
+        final HttpHead request = new HttpHead(createUrl(dependency));
+        if (authorization != null) {
+            request.setHeader(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("HEAD - > " + request.getURI().toString());
+        }
+        try (CloseableHttpResponse response = client.execute(request)) {
+            final int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode == HttpStatus.SC_NOT_FOUND) {
+                return 0;
+            }
+            final Header lastModified = response.getFirstHeader(HttpHeaders.LAST_MODIFIED);
+            if (statusCode != HttpStatus.SC_OK || lastModified == null) {
+                return -1;
+            }
+            final Date date = DateUtils.parseDate(lastModified.getValue());
+            if (date == null) {
+                return -1;
+            }
+            return date.getTime();
+        } catch (IOException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Lookup of " + InfoGenerator.coordinates(dependency) + " in " + url + " failed: " + e.getMessage());
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Creates URL of file whose modification time is timestamp of dependency.
+     *
+     * @param dependency dependency
+     * @return URL of POM file, or of version level metadata for snapshot
+     */
+    private String createUrl(final Dependency dependency) {
+        final StringBuilder fileUrl = new StringBuilder(url)
+            .append('/').append(dependency.getGroupId().replace('.', '/'))
+            .append('/').append(dependency.getArtifactId())
+            .append('/').append(dependency.getVersion()).append('/');
+        if (dependency.getVersion().endsWith(SNAPSHOT_SUFFIX)) {
+            fileUrl.append("maven-metadata.xml");
+        } else {
+            fileUrl.append(dependency.getArtifactId()).append('-').append(dependency.getVersion()).append(".pom");
+        }
+        return fileUrl.toString();
+    }
+}
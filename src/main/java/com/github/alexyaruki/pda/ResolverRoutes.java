@@ -0,0 +1,70 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routing of dependencies to timestamp resolvers by groupId prefix.
+ * <p>
+ * Prefix matches whole groupId segments, so {@code com.acme} matches {@code com.acme}
+ * and {@code com.acme.tools}, but not {@code com.acmecorp}. Longest matching prefix wins,
+ * dependencies not matching any prefix go to default resolver.
+ */
+final class ResolverRoutes {
+
+    /**
+     * Resolver of dependencies not matching any prefix.
+     */
+    private final TimestampResolver defaultResolver;
+
+    /**
+     * Routes ordered from longest prefix.
+     */
+    private final List<Map.Entry<String, TimestampResolver>> routes = new ArrayList<>();
+
+    /**
+     * Creates routing sending all dependencies to default resolver.
+     *
+     * @param resolver resolver of dependencies not matching any prefix
+     */
+    ResolverRoutes(final TimestampResolver resolver) {
+        this.defaultResolver = resolver;
+    }
+
+    /**
+     * Routes dependencies with groupId starting with given prefix to resolver.
+     *
+     * @param groupPrefix groupId prefix
+     * @param resolver    resolver of matching dependencies
+     */
+    void add(final String groupPrefix, final TimestampResolver resolver) {
+        String prefix = groupPrefix.trim();
+        if (prefix.endsWith(".")) {
+            prefix = prefix.substring(0, prefix.length() - 1);
+        }
+        routes.add(new AbstractMap.SimpleImmutableEntry<>(prefix, resolver));
+        routes.sort(Comparator.comparingInt((Map.Entry<String, TimestampResolver> route) -> route.getKey().length()).reversed());
+    }
+
+    /**
+     * Finds resolver of dependency.
+     *
+     * @param dependency dependency to look up
+     * @return resolver routed by longest matching groupId prefix, default resolver if none matches
+     */
+    TimestampResolver route(final Dependency dependency) {
+        final String groupId = dependency.getGroupId();
+        for (final Map.Entry<String, TimestampResolver> route : routes) {
+            final String prefix = route.getKey();
+            if (groupId.startsWith(prefix) && (groupId.length() == prefix.length() || groupId.charAt(prefix.length()) == '.')) {
+                return route.getValue();
+            }
+        }
+        return defaultResolver;
+    }
+}
@@ -0,0 +1,271 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.plugin.logging.Log;
+import org.eclipse.aether.SessionData;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persistent store of mutable search responses (version lists of artifacts), keyed by groupId:artifactId.
+ * <p>
+ * Every response is single gzip compressed file with its validators, replaced atomically,
+ * so several builds can share one store. Revalidation of stale responses runs on background
+ * daemon thread, while stale response is already served. Every goal waits for revalidations
+ * queued during its execution before it ends, so they are not cut off when JVM exits.
+ */
+final class ResponseStore {
+
+    /**
+     * Name of store directory inside cache directory.
+     */
+    private static final String DIRECTORY_NAME = "responses";
+
+    /**
+     * Marker written at beginning of every stored response.
+     */
+    private static final int MAGIC = 0x50444132;
+
+    /**
+     * Extension of stored response files.
+     */
+    private static final String EXTENSION = ".bin.gz";
+
+    /**
+     * Directory of stored responses, {@code null} if store is disabled.
+     */
+    private final Path directory;
+
+    /**
+     * Keys of responses being revalidated in background.
+     */
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Worker revalidating stale responses, {@code null} if store is disabled.
+     */
+    private final ExecutorService worker;
+
+    /**
+     * Creates store backed by given directory.
+     *
+     * @param storeDirectory directory of stored responses, {@code null} for disabled store
+     */
+    private ResponseStore(final Path storeDirectory) {
+        this.directory = storeDirectory;
+        if (storeDirectory == null) {
+            this.worker = null;
+        } else {
+            this.worker = Executors.newSingleThreadExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "pda-revalidate");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Creates store which never stores anything.
+     *
+     * @return disabled store
+     */
+    static ResponseStore disabled() {
+        return new ResponseStore(null);
+    }
+
+    /**
+     * Provides key of store in session data, so all mojo executions of build share one store per directory.
+     *
+     * @param directory directory of store
+     * @return key unique for directory
+     */
+    static String sessionKey(final Path directory) {
+        return ResponseStore.class.getName() + ":" + directory.toAbsolutePath();
+    }
+
+    /**
+     * Opens store inside given cache directory.
+     * <p>
+     * If store cannot be created, problem is logged and disabled store is returned.
+     *
+     * @param cacheDirectory cache directory
+     * @param clear          whether to remove all stored responses first
+     * @param log            Maven logger instance
+     * @return opened store
+     */
+    static ResponseStore open(final Path cacheDirectory, final boolean clear, final Log log) {
+        final Path storeDirectory = cacheDirectory.resolve(DIRECTORY_NAME);
+        try {
+            Files.createDirectories(storeDirectory);
+            if (clear) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(storeDirectory, "*" + EXTENSION)) {
+                    for (final Path file : files) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+            return new ResponseStore(storeDirectory);
+        } catch (IOException e) {
+            log.warn("Response store " + storeDirectory + " not used: " + e.getMessage());
+            return disabled();
+        }
+    }
+
+    /**
+     * Checks whether responses are stored.
+     *
+     * @return true if store is backed by directory
+     */
+    boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Reads stored response.
+     *
+     * @param key groupId:artifactId
+     * @param log Maven logger instance
+     * @return stored response, {@code null} if not stored or unreadable
+     */
+    StoredResponse get(final String key, final Log log) {
+        if (directory == null) {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(new GZIPInputStream(Files.newInputStream(toFile(key))))) {
+            if (input.readInt() != MAGIC) {
+                return null;
+            }
+            final long validatedAt = input.readLong();
+            final String etag = input.readUTF();
+            final String lastModified = input.readUTF();
+            final byte[] body = new byte[input.readInt()];
+            input.readFully(body);
+            return new StoredResponse(etag, lastModified, validatedAt, body);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Stored response of " + key + " not readable: " + e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Stores response, replacing previously stored one.
+     *
+     * @param key      groupId:artifactId
+     * @param response response to store
+     * @param log      Maven logger instance
+     */
+    void put(final String key, final StoredResponse response, final Log log) {
+        if (directory == null) {
+            return;
+        }
+        final Path file = toFile(key);
+        try {
+            final Path temporary = Files.createTempFile(directory, "response", ".tmp");
+            try {
+                try (DataOutputStream output = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(temporary)))) {
+                    output.writeInt(MAGIC);
+                    output.writeLong(response.getValidatedAt());
+                    output.writeUTF(response.getEtag());
+                    output.writeUTF(response.getLastModified());
+                    output.writeInt(response.getBody().length);
+                    output.write(response.getBody());
+                }
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            log.warn("Cannot store response " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Revalidates stale response on background thread, unless it is already being revalidated.
+     *
+     * @param key  groupId:artifactId
+     * @param task task fetching and storing response
+     */
+    void revalidateLater(final String key, final Runnable task) {
+        if (worker == null || !revalidating.add(key)) {
+            return;
+        }
+        worker.execute(() -> {
+            try {
+                task.run();
+            } finally {
+                revalidating.remove(key);
+            }
+        });
+    }
+
+    /**
+     * Waits until revalidations queued so far by store shared in current build are finished.
+     *
+     * @param sessionData data of current build session
+     * @param directory   directory of store
+     * @param timeout     maximum time to wait, in milliseconds
+     * @param log         Maven logger instance
+     */
+    static void awaitRevalidations(final SessionData sessionData, final Path directory, final long timeout, final Log log) {
+        final ResponseStore responseStore;
+        synchronized (ResponseStore.class) {
+            responseStore = (ResponseStore) sessionData.get(sessionKey(directory));
+        }
+        if (responseStore != null) {
+            responseStore.awaitRevalidations(timeout, log);
+        }
+    }
+
+    /**
+     * Waits until revalidations queued so far are finished.
+     * <p>
+     * Revalidations still running after timeout are left to background thread.
+     *
+     * @param timeout maximum time to wait, in milliseconds
+     * @param log     Maven logger instance
+     */
+    void awaitRevalidations(final long timeout, final Log log) {
+        if (worker == null || revalidating.isEmpty()) {
+            return;
+        }
+        try {
+            worker.submit(() -> {
+            }).get(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Revalidation of stored responses not finished: " + e);
+            }
+        }
+    }
+
+    /**
+     * Resolves file of stored response.
+     *
+     * @param key groupId:artifactId
+     * @return file of stored response
+     */
+    private Path toFile(final String key) {
+        return directory.resolve(key.replace(':', '+').replaceAll("[^A-Za-z0-9._+-]", "_") + EXTENSION);
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.alexyaruki.pda;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Policy deciding how many times and after which delay failed lookup request is retried.
+ * <p>
+ * Delays grow exponentially with number of attempt and are randomized (full jitter), so
+ * workers throttled at the same moment do not retry at the same moment. Delay requested
+ * by server with {@code Retry-After} header is honored, up to maximum delay.
+ */
+final class RetryPolicy {
+
+    /**
+     * Largest shift of base delay, keeps exponential delay from overflowing.
+     */
+    private static final int MAX_SHIFT = 30;
+
+    /**
+     * Maximum number of retries of single request.
+     */
+    private final int retries;
+
+    /**
+     * Base delay (in milliseconds) before first retry.
+     */
+    private final long delay;
+
+    /**
+     * Maximum delay (in milliseconds) before retry.
+     */
+    private final long maxDelay;
+
+    /**
+     * Creates retry policy.
+     *
+     * @param maxRetries    maximum number of retries of single request, 0 disables retries
+     * @param retryDelay    base delay (in milliseconds) before first retry
+     * @param maxRetryDelay maximum delay (in milliseconds) before retry
+     */
+    RetryPolicy(final int maxRetries, final long retryDelay, final long maxRetryDelay) {
+        this.retries = Math.max(0, maxRetries);
+        this.delay = Math.max(1, retryDelay);
+        this.maxDelay = Math.max(this.delay, maxRetryDelay);
+    }
+
+    /**
+     * Checks whether request can be retried after failed attempt.
+     *
+     * @param attempt number of failed attempt, starting from 0
+     * @return true if request can be retried
+     */
+    boolean canRetry(final int attempt) {
+        return attempt < retries;
+    }
+
+    /**
+     * Computes delay before next attempt.
+     *
+     * @param attempt    number of failed attempt, starting from 0
+     * @param retryAfter delay (in milliseconds) requested by server, 0 if none
+     * @return delay (in milliseconds) before next attempt
+     */
+    long backoff(final int attempt, final long retryAfter) {
+        final long ceiling = Math.min(maxDelay, delay << Math.min(attempt, MAX_SHIFT));
+        final long backoff = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        if (retryAfter > backoff) {
+            return Math.min(retryAfter, maxDelay);
+        }
+        return backoff;
+    }
+}
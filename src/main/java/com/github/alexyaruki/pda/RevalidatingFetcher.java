@@ -0,0 +1,181 @@
+package com.github.alexyaruki.pda;
+
+import com.fasterxml.jackson.core.JsonParser;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fetcher of version lists of artifacts, keeping responses in {@link ResponseStore}.
+ * <p>
+ * Stored response younger than TTL is used without request. Older one is still used if it
+ * contains looked up version, and revalidated on background thread with {@code If-None-Match}
+ * and {@code If-Modified-Since} headers, so unchanged list costs only 304 response.
+ * Stored response not containing looked up version, or stale one when whole version list
+ * is needed, is revalidated before it is used.
+ */
+final class RevalidatingFetcher {
+
+    /**
+     * Maven logger instance.
+     */
+    private final Log log;
+
+    /**
+     * Client used for HTTP requests.
+     */
+    private final LookupClient client;
+
+    /**
+     * Store of fetched responses.
+     */
+    private final ResponseStore store;
+
+    /**
+     * How long (in milliseconds) stored response is used without revalidation.
+     */
+    private final long ttl;
+
+    /**
+     * Creates fetcher.
+     *
+     * @param mavenLog        Maven logger instance
+     * @param lookupClient    client used for HTTP requests
+     * @param responseStore   store of fetched responses
+     * @param revalidateAfter how long (in milliseconds) stored response is used without revalidation
+     */
+    RevalidatingFetcher(final Log mavenLog, final LookupClient lookupClient, final ResponseStore responseStore, final long revalidateAfter) {
+        this.log = mavenLog;
+        this.client = lookupClient;
+        this.store = responseStore;
+        this.ttl = revalidateAfter;
+    }
+
+    /**
+     * Fetches timestamps of all versions of artifact.
+     *
+     * @param key         groupId:artifactId of artifact
+     * @param url         search query URL listing versions of artifact
+     * @param coordinates groupId:artifactId:version of looked up version
+     * @param current     whether stale response must be revalidated before it is used, for example
+     *                    when all versions of artifact are indexed
+     * @return map of coordinates (groupId:artifactId:version) to timestamp, {@code null} if lookup failed
+     */
+    Map<String, Long> fetch(final String key, final String url, final String coordinates, final boolean current) {
+        final StoredResponse stored = store.get(key, log);
+        if (stored == null) {
+            return download(key, url, null);
+        }
+        final Map<String, Long> found = parse(stored.getBody());
+        if (found == null || !found.containsKey(coordinates)) {
+            return download(key, url, stored);
+        }
+        if (stored.isFresh(System.currentTimeMillis(), ttl)) {
+            return found;
+        }
+        if (!current) {
+            store.revalidateLater(key, () -> download(key, url, stored));
+            return found;
+        }
+        final Map<String, Long> revalidated = download(key, url, stored);
+        if (revalidated == null) {
+            return found;
+        }
+        return revalidated;
+    }
+
+    /**
+     * Downloads response, conditionally if response is stored, and stores it.
+     *
+     * @param key    groupId:artifactId of artifact
+     * @param url    search query URL listing versions of artifact
+     * @param stored previously stored response, {@code null} if none
+     * @return map of coordinates (groupId:artifactId:version) to timestamp, {@code null} if lookup failed
+     */
+    private Map<String, Long> download(final String key, final String url, final StoredResponse stored) {
+        final HttpGet request = new HttpGet(url);
+        if (stored != null) {
+            setValidators(request, stored);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("GET - > " + request.getURI().toString());
+        }
+        try (CloseableHttpResponse response = client.execute(request)) {
+            final int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode == HttpStatus.SC_NOT_MODIFIED && stored != null) {
+                store.put(key, stored.revalidated(System.currentTimeMillis()), log);
+                return parse(stored.getBody());
+            }
+            if (statusCode != HttpStatus.SC_OK) {
+                EntityUtils.consume(response.getEntity());
+                return null;
+            }
+            final byte[] body = EntityUtils.toByteArray(response.getEntity());
+            store.put(key, new StoredResponse(getHeader(response, HttpHeaders.ETAG), getHeader(response, HttpHeaders.LAST_MODIFIED),
+                System.currentTimeMillis(), body), log);
+            return parse(body);
+        } catch (IOException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Lookup of " + key + " failed: " + e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Makes request conditional on validators of stored response.
+     *
+     * @param request request to make conditional
+     * @param stored  stored response
+     */
+    private static void setValidators(final HttpGet request, final StoredResponse stored) {
+        if (!stored.getEtag().isEmpty()) {
+            request.setHeader(HttpHeaders.IF_NONE_MATCH, stored.getEtag());
+        }
+        if (!stored.getLastModified().isEmpty()) {
+            request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, stored.getLastModified());
+        }
+    }
+
+    /**
+     * Parses timestamps of all versions from search response.
+     *
+     * @param body search response body
+     * @return map of coordinates (groupId:artifactId:version) to timestamp, {@code null} if response is malformed
+     */
+    private Map<String, Long> parse(final byte[] body) {
+        final Map<String, Long> found = new HashMap<>();
+        try (JsonParser parser = client.getReader().getFactory().createParser(body)) {
+            SearchResponseParser.parseTimestamps(parser, found);
+            return found;
+        } catch (IOException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Malformed search response: " + e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Reads value of response header.
+     *
+     * @param response HTTP response
+     * @param name     name of header
+     * @return value of header, empty if response has no such header
+     */
+    private static String getHeader(final CloseableHttpResponse response, final String name) {
+        final Header header = response.getFirstHeader(name);
+        if (header == null) {
+            return "";
+        }
+        return header.getValue();
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trie of {@link IgnoreRule} keyed by characters of literal groupId or groupId prefix.
+ * <p>
+ * Nodes are stored as positions in parallel lists, node 0 is root.
+ */
+final class RuleTrie {
+
+    /**
+     * Children of nodes, by next character of groupId.
+     */
+    private final List<Map<Character, Integer>> children = new ArrayList<>();
+
+    /**
+     * Rules matching groupIds starting with prefix ending at node.
+     */
+    private final List<List<IgnoreRule>> prefixRules = new ArrayList<>();
+
+    /**
+     * Rules matching groupId ending at node.
+     */
+    private final List<List<IgnoreRule>> exactRules = new ArrayList<>();
+
+    /**
+     * Whether any rule was added.
+     */
+    private boolean empty = true;
+
+    /**
+     * Creates trie with root node only.
+     */
+    RuleTrie() {
+        addNode();
+    }
+
+    /**
+     * Adds rule matching single groupId.
+     *
+     * @param groupId groupId
+     * @param rule    rule
+     */
+    void addExact(final String groupId, final IgnoreRule rule) {
+        exactRules.get(find(groupId)).add(rule);
+        empty = false;
+    }
+
+    /**
+     * Adds rule matching groupIds with prefix.
+     *
+     * @param prefix prefix of groupId, may be empty
+     * @param rule   rule
+     */
+    void addPrefix(final String prefix, final IgnoreRule rule) {
+        prefixRules.get(find(prefix)).add(rule);
+        empty = false;
+    }
+
+    /**
+     * Checks whether trie contains no rules.
+     *
+     * @return true if no rule was added
+     */
+    boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Matches dependency against rules whose groupId or groupId prefix matches groupId of dependency.
+     *
+     * @param dependency dependency
+     * @return result as in {@link IgnoreRule#match(List, Dependency)}
+     */
+    int match(final Dependency dependency) {
+        final String groupId = dependency.getGroupId();
+        int result = IgnoreRule.NO_MATCH;
+        Integer node = 0;
+        int depth = 0;
+        while (node != null) {
+            result = Math.max(result, IgnoreRule.match(prefixRules.get(node), dependency));
+            if (depth == groupId.length()) {
+                result = Math.max(result, IgnoreRule.match(exactRules.get(node), dependency));
+                break;
+            }
+            if (result == IgnoreRule.INCLUDED) {
+                break;
+            }
+            node = children.get(node).get(groupId.charAt(depth));
+            depth++;
+        }
+        return result;
+    }
+
+    /**
+     * Finds node of key, creating missing nodes.
+     *
+     * @param key characters of path from root
+     * @return node ending path
+     */
+    private int find(final String key) {
+        int node = 0;
+        for (int index = 0; index < key.length(); index++) {
+            final Character character = key.charAt(index);
+            Integer child = children.get(node).get(character);
+            if (child == null) {
+                child = addNode();
+                children.get(node).put(character, child);
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * Adds node without children and rules.
+     *
+     * @return added node
+     */
+    private int addNode() {
+        children.add(new HashMap<>());
+        prefixRules.add(new ArrayList<>());
+        exactRules.add(new ArrayList<>());
+        return children.size() - 1;
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.alexyaruki.pda;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Class for streaming parsing of Maven Central search responses.
+ */
+final class SearchResponseParser {
+
+    /**
+     * Name of groupId field of search document.
+     */
+    private static final String GROUP_FIELD = "g";
+
+    /**
+     * Name of artifactId field of search document.
+     */
+    private static final String ARTIFACT_FIELD = "a";
+
+    /**
+     * Name of version field of search document.
+     */
+    private static final String VERSION_FIELD = "v";
+
+    /**
+     * Name of timestamp field of search document.
+     */
+    private static final String TIMESTAMP_FIELD = "timestamp";
+
+    /**
+     * Hidden default constructor.
+     */
+    private SearchResponseParser() {
+    }
+
+    /**
+     * Sends search query, parsing timestamps of all found documents.
+     *
+     * @param client     client used for HTTP requests
+     * @param url        search query URL
+     * @param timestamps map receiving coordinates (groupId:artifactId:version) to timestamp
+     * @param log        Maven logger instance
+     * @return false if search API did not answer successfully
+     * @throws IOException in case of connection problems or malformed response
+     */
+    static boolean search(final LookupClient client, final String url, final Map<String, Long> timestamps, final Log log) throws IOException {
+        final HttpGet request = new HttpGet(url);
+        if (log.isDebugEnabled()) {
+            log.debug("GET - > " + request.getURI().toString());
+        }
+        try (CloseableHttpResponse response = client.execute(request)) {
+            if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+                EntityUtils.consume(response.getEntity());
+                return false;
+            }
+            try (InputStream jsonStream = response.getEntity().getContent();
+                 JsonParser parser = client.getReader().getFactory().createParser(jsonStream)) {
+                parseTimestamps(parser, timestamps);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Parses timestamps of all documents from search response.
+     *
+     * @param parser     parser positioned before search response
+     * @param timestamps map receiving coordinates (groupId:artifactId:version) to timestamp
+     * @throws IOException in case of malformed response
+     */
+    static void parseTimestamps(final JsonParser parser, final Map<String, Long> timestamps) throws IOException {
+        if (!skipToDocs(parser)) {
+            return;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            parseCoordinatesDoc(parser, timestamps);
+        }
+    }
+
+    /**
+     * Moves parser to start of documents array.
+     *
+     * @param parser parser positioned before search response
+     * @return true if parser is at start of documents array, false if response has no documents
+     * @throws IOException in case of malformed response
+     */
+    private static boolean skipToDocs(final JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        while (token != null) {
+            if (token == JsonToken.FIELD_NAME && "docs".equals(parser.getCurrentName())) {
+                return parser.nextToken() == JsonToken.START_ARRAY;
+            }
+            token = parser.nextToken();
+        }
+        return false;
+    }
+
+    /**
+     * Parses coordinates and timestamp of single search document.
+     *
+     * @param parser     parser positioned at start of document
+     * @param timestamps map receiving coordinates (groupId:artifactId:version) to timestamp
+     * @throws IOException in case of malformed response
+     */
+    private static void parseCoordinatesDoc(final JsonParser parser, final Map<String, Long> timestamps) throws IOException {
+        String group = null;
+        String artifact = null;
+        String docVersion = null;
+        long timestamp = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            parser.nextToken();
+            if (GROUP_FIELD.equals(field)) {
+                group = parser.getText();
+            } else if (ARTIFACT_FIELD.equals(field)) {
+                artifact = parser.getText();
+            } else if (VERSION_FIELD.equals(field)) {
+                docVersion = parser.getText();
+            } else if (TIMESTAMP_FIELD.equals(field)) {
+                timestamp = parser.getValueAsLong();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (timestamp > 0 && isComplete(group, artifact, docVersion)) {
+            timestamps.put(group + ":" + artifact + ":" + docVersion, timestamp);
+        }
+    }
+
+    /**
+     * Checks whether all coordinates of search document were present.
+     *
+     * @param group    groupId from document
+     * @param artifact artifactId from document
+     * @param version  version from document
+     * @return true if all coordinates are present
+     */
+    private static boolean isComplete(final String group, final String artifact, final String version) {
+        return group != null && artifact != null && version != null;
+    }
+}
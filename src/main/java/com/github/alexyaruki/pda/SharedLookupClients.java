@@ -0,0 +1,96 @@
+package com.github.alexyaruki.pda;
+
+import org.eclipse.aether.SessionData;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Lookup clients shared by all mojo executions of a build, by endpoint.
+ * <p>
+ * Executions using clients are tracked, clients are closed once last project of the build
+ * released them and no other execution uses them any more, in parallel builds possibly after
+ * other projects finished. Plugin declared as build extension
+ * also closes them when build session ends.
+ */
+final class SharedLookupClients {
+
+    /**
+     * Lookup clients, by endpoint.
+     */
+    private final Map<String, LookupClient> clients = new HashMap<>();
+
+    /**
+     * Executions using clients.
+     */
+    private final Set<Object> owners = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Whether execution of last project of the build released clients, so they may be closed once unused.
+     */
+    private boolean lastReleased;
+
+    /**
+     * Provides lookup clients shared by all mojo executions of current build.
+     *
+     * @param sessionData data of current build session
+     * @return shared lookup clients
+     */
+    static SharedLookupClients shared(final SessionData sessionData) {
+        final String key = SharedLookupClients.class.getName();
+        synchronized (SharedLookupClients.class) {
+            SharedLookupClients shared = (SharedLookupClients) sessionData.get(key);
+            if (shared == null) {
+                shared = new SharedLookupClients();
+                sessionData.set(key, shared);
+            }
+            return shared;
+        }
+    }
+
+    /**
+     * Provides client of endpoint, creating it if needed, and marks execution as using clients.
+     *
+     * @param endpoint name of endpoint, for example repository URL
+     * @param owner    execution using client
+     * @param factory  factory of client, used if endpoint has no client yet
+     * @return shared lookup client
+     */
+    LookupClient get(final String endpoint, final Object owner, final Supplier<LookupClient> factory) {
+        synchronized (clients) {
+            owners.add(owner);
+            return clients.computeIfAbsent(endpoint, key -> factory.get());
+        }
+    }
+
+    /**
+     * Marks execution as no longer using clients, closing them if they are not used any more
+     * and last project of the build already released them.
+     *
+     * @param owner       execution which used clients
+     * @param lastProject whether execution belongs to last project of the build
+     */
+    void release(final Object owner, final boolean lastProject) {
+        synchronized (clients) {
+            owners.remove(owner);
+            lastReleased |= lastProject;
+            if (owners.isEmpty() && lastReleased) {
+                close();
+            }
+        }
+    }
+
+    /**
+     * Closes all clients. Clients needed later are created again.
+     */
+    void close() {
+        synchronized (clients) {
+            clients.values().forEach(LookupClient::close);
+            clients.clear();
+        }
+    }
+}
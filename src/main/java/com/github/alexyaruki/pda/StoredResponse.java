@@ -0,0 +1,99 @@
+package com.github.alexyaruki.pda;
+
+/**
+ * Search response body stored with its validators.
+ */
+final class StoredResponse {
+
+    /**
+     * Value of {@code ETag} header, empty if server sent none.
+     */
+    private final String etag;
+
+    /**
+     * Value of {@code Last-Modified} header, empty if server sent none.
+     */
+    private final String lastModified;
+
+    /**
+     * When response was last fetched or revalidated, in milliseconds since epoch.
+     */
+    private final long validatedAt;
+
+    /**
+     * Response body.
+     */
+    private final byte[] body;
+
+    /**
+     * Creates stored response.
+     *
+     * @param entityTag    value of {@code ETag} header, empty if server sent none
+     * @param modified     value of {@code Last-Modified} header, empty if server sent none
+     * @param validated    when response was last fetched or revalidated, in milliseconds since epoch
+     * @param responseBody response body
+     */
+    StoredResponse(final String entityTag, final String modified, final long validated, final byte[] responseBody) {
+        this.etag = entityTag;
+        this.lastModified = modified;
+        this.validatedAt = validated;
+        this.body = responseBody;
+    }
+
+    /**
+     * Creates copy of response confirmed unchanged by server.
+     *
+     * @param now current time, in milliseconds since epoch
+     * @return revalidated response
+     */
+    StoredResponse revalidated(final long now) {
+        return new StoredResponse(etag, lastModified, now, body);
+    }
+
+    /**
+     * Checks whether response may be used without revalidation.
+     *
+     * @param now current time, in milliseconds since epoch
+     * @param ttl how long (in milliseconds) response is used without revalidation
+     * @return true if response was validated less than ttl ago
+     */
+    boolean isFresh(final long now, final long ttl) {
+        return now - validatedAt < ttl;
+    }
+
+    /**
+     * Returns value of {@code ETag} header.
+     *
+     * @return entity tag, empty if server sent none
+     */
+    String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Returns value of {@code Last-Modified} header.
+     *
+     * @return modification date, empty if server sent none
+     */
+    String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Returns when response was last fetched or revalidated.
+     *
+     * @return time in milliseconds since epoch
+     */
+    long getValidatedAt() {
+        return validatedAt;
+    }
+
+    /**
+     * Returns response body.
+     *
+     * @return response body, not copied
+     */
+    byte[] getBody() {
+        return body; //NOPMD
+    }
+}
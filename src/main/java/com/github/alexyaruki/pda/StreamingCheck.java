@@ -0,0 +1,178 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.logging.Log;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Check of dependencies evaluating every timestamp as soon as lookup pipeline finds it.
+ * <p>
+ * Violations are logged immediately. First violation with {@link AgePolicy.Severity#FAIL}
+ * stops pipeline, so build which is going to fail does not wait for remaining lookups.
+ */
+final class StreamingCheck {
+
+    /**
+     * Maven logger instance.
+     */
+    private final Log log;
+
+    /**
+     * Compiled age policies.
+     */
+    private final AgePolicies policies;
+
+    /**
+     * Limits of distance from latest release.
+     */
+    private final DistanceLimits limits;
+
+    /**
+     * Index of released versions, {@code null} if distance is not limited.
+     */
+    private final VersionIndex versionIndex;
+
+    /**
+     * Severity of exceeding limits of distance.
+     */
+    private final AgePolicy.Severity distanceSeverity;
+
+    /**
+     * Map of dependency name to path leading to it in dependency graph.
+     */
+    private final Map<String, String> paths;
+
+    /**
+     * Time of check, in milliseconds since epoch.
+     */
+    private final long now = System.currentTimeMillis();
+
+    /**
+     * Number of checked dependencies.
+     */
+    private int checked;
+
+    /**
+     * Number of violations with {@link AgePolicy.Severity#FAIL}.
+     */
+    private int failures;
+
+    /**
+     * Creates streaming check.
+     *
+     * @param mavenLog        Maven logger instance
+     * @param agePolicies     compiled age policies
+     * @param distanceLimits  limits of distance from latest release
+     * @param index           index of released versions, {@code null} if distance is not limited
+     * @param severity        severity of exceeding limits of distance
+     * @param dependencyPaths map of dependency name to path leading to it in dependency graph
+     */
+    StreamingCheck(final Log mavenLog, final AgePolicies agePolicies, final DistanceLimits distanceLimits, final VersionIndex index,
+                   final AgePolicy.Severity severity, final Map<String, String> dependencyPaths) {
+        this.log = mavenLog;
+        this.policies = agePolicies;
+        this.limits = distanceLimits;
+        this.versionIndex = index;
+        this.distanceSeverity = severity;
+        this.paths = dependencyPaths;
+    }
+
+    /**
+     * Orders dependencies so likely offenders are looked up first.
+     * <p>
+     * Dependencies with cached timestamp go first (they need no lookup), oldest first. The rest is ordered by newest
+     * cached release of the same artifact, oldest first, as artifact without recent release is likely to be
+     * used in old version. Artifacts never seen before go last.
+     *
+     * @param dependencies dependencies to order
+     * @param cache        persistent cache of release timestamps
+     * @return dependencies ordered by expected age, oldest first
+     */
+    static List<Dependency> prioritize(final Collection<Dependency> dependencies, final TimestampCache cache) {
+        final Map<String, Long> newest = cache.getNewestReleases();
+        final List<Dependency> ordered = new ArrayList<>(dependencies);
+        ordered.sort(Comparator.comparing((Dependency dependency) -> cache.get(InfoGenerator.coordinates(dependency)) == null)
+            .thenComparingLong(dependency -> {
+                final Long cached = cache.get(InfoGenerator.coordinates(dependency));
+                if (cached != null) {
+                    return cached;
+                }
+                return newest.getOrDefault(dependency.getGroupId() + ":" + dependency.getArtifactId(), Long.MAX_VALUE);
+            }));
+        return ordered;
+    }
+
+    /**
+     * Checks dependency as soon as its timestamp is known.
+     *
+     * @param dependency dependency
+     * @param timestamp  its timestamp, 0 if not found, -1 if lookup failed
+     * @return false once dependency failing the build was found
+     */
+    boolean evaluate(final Dependency dependency, final long timestamp) {
+        checked++;
+        final AgePolicy policy = policies.findViolated(dependency, timestamp, now);
+        if (policy != null) {
+            report(policy.getSeverity(), DependencyAgeCheck.describe(dependency, paths) + DependencyAgeCheck.LOG_PART
+                + policy.getDescription() + ": " + InfoGenerator.generateInfo(timestamp));
+        }
+        if (versionIndex != null) {
+            checkDistance(dependency);
+        }
+        return failures == 0;
+    }
+
+    /**
+     * Checks distance of dependency from latest release, if versions of its artifact are indexed.
+     *
+     * @param dependency dependency
+     */
+    private void checkDistance(final Dependency dependency) {
+        final ArtifactVersions versions = versionIndex.get(dependency);
+        if (versions == null || versions.isEmpty()) {
+            return;
+        }
+        final String exceeded = limits.check(versions, dependency.getVersion());
+        if (exceeded != null) {
+            report(distanceSeverity, DependencyAgeCheck.describe(dependency, paths) + " is " + exceeded);
+        }
+    }
+
+    /**
+     * Returns number of checked dependencies.
+     *
+     * @return number of dependencies checked so far
+     */
+    int getChecked() {
+        return checked;
+    }
+
+    /**
+     * Returns number of violations failing the build.
+     *
+     * @return number of violations with {@link AgePolicy.Severity#FAIL}
+     */
+    int getFailures() {
+        return failures;
+    }
+
+    /**
+     * Logs violation.
+     *
+     * @param severity severity of violation
+     * @param message  description of violation
+     */
+    private void report(final AgePolicy.Severity severity, final String message) {
+        if (severity == AgePolicy.Severity.FAIL) {
+            failures++;
+            log.error(message);
+        } else {
+            log.warn(message);
+        }
+    }
+}
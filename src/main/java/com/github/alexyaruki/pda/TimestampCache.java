@@ -0,0 +1,271 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent cache of release timestamps, keyed by groupId:artifactId:version.
+ * <p>
+ * Cache is a single append-only file of records ({@code int} key length, UTF-8 key,
+ * {@code long} timestamp). File is memory-mapped once on startup to build in-memory
+ * index, new records are appended under exclusive file lock, so several builds
+ * can share one cache file. Snapshot timestamps change with every deployment, so they are never cached.
+ */
+final class TimestampCache {
+
+    /**
+     * Name of cache file inside cache directory.
+     */
+    static final String FILE_NAME = "timestamps.bin";
+
+    /**
+     * Marker written at beginning of cache file.
+     */
+    private static final int MAGIC = 0x50444131;
+
+    /**
+     * Size of record fields other than key.
+     */
+    private static final int RECORD_OVERHEAD = Integer.BYTES + Long.BYTES;
+
+    /**
+     * Suffix of snapshot versions.
+     */
+    private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
+
+    /**
+     * Path to cache file, {@code null} if cache is disabled.
+     */
+    private final Path file;
+
+    /**
+     * In-memory index of cached timestamps.
+     */
+    private final Map<String, Long> index = new ConcurrentHashMap<>();
+
+    /**
+     * Lock serializing writes of this build to cache file.
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * Creates cache backed by given file.
+     *
+     * @param cacheFile path to cache file, {@code null} for disabled cache
+     */
+    private TimestampCache(final Path cacheFile) {
+        this.file = cacheFile;
+    }
+
+    /**
+     * Creates cache which never stores anything.
+     *
+     * @return disabled cache
+     */
+    static TimestampCache disabled() {
+        return new TimestampCache(null);
+    }
+
+    /**
+     * Opens cache stored in given directory.
+     * <p>
+     * If cache cannot be read, problem is logged and disabled cache is returned.
+     *
+     * @param directory directory of cache
+     * @param clear     whether to remove all cached timestamps first
+     * @param log       Maven logger instance
+     * @return opened cache
+     */
+    static TimestampCache open(final Path directory, final boolean clear, final Log log) {
+        final Path cacheFile = directory.resolve(FILE_NAME);
+        try {
+            Files.createDirectories(directory);
+            final TimestampCache cache = new TimestampCache(cacheFile);
+            if (clear) {
+                cache.clear();
+            } else {
+                cache.load();
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Timestamp cache " + cacheFile + " -> " + cache.index.size() + " entries");
+            }
+            return cache;
+        } catch (IOException e) {
+            log.warn("Timestamp cache " + cacheFile + " not used: " + e.getMessage());
+            return disabled();
+        }
+    }
+
+    /**
+     * Returns cached timestamp.
+     *
+     * @param key groupId:artifactId:version
+     * @return cached timestamp, {@code null} if not cached
+     */
+    Long get(final String key) {
+        return index.get(key);
+    }
+
+    /**
+     * Finds newest cached release of every artifact.
+     *
+     * @return map of groupId:artifactId to timestamp of its newest cached version
+     */
+    Map<String, Long> getNewestReleases() {
+        final Map<String, Long> newest = new HashMap<>();
+        index.forEach((key, timestamp) -> newest.merge(key.substring(0, key.lastIndexOf(':')), timestamp, Math::max));
+        return newest;
+    }
+
+    /**
+     * Stores timestamp in cache.
+     * <p>
+     * Only successfully found timestamps of releases are stored, failed lookups and snapshots are ignored.
+     *
+     * @param key       groupId:artifactId:version
+     * @param timestamp timestamp of dependency
+     * @param log       Maven logger instance
+     */
+    void put(final String key, final long timestamp, final Log log) {
+        putAll(Collections.singletonMap(key, timestamp), log);
+    }
+
+    /**
+     * Stores timestamps in cache.
+     * <p>
+     * Records of all new timestamps are appended with single write under single file lock.
+     * Only successfully found timestamps of releases are stored, failed lookups and snapshots are ignored.
+     *
+     * @param timestamps map of groupId:artifactId:version to timestamp of dependency
+     * @param log        Maven logger instance
+     */
+    void putAll(final Map<String, Long> timestamps, final Log log) {
+        if (file == null) {
+            return;
+        }
+        final Map<String, Long> added = new HashMap<>();
+        final ByteArrayOutputStream records = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(records)) {
+            for (final Map.Entry<String, Long> entry : timestamps.entrySet()) {
+                final String key = entry.getKey();
+                if (entry.getValue() > 0 && !key.endsWith(SNAPSHOT_SUFFIX) && !index.containsKey(key)) {
+                    final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+                    output.writeInt(keyBytes.length);
+                    output.write(keyBytes);
+                    output.writeLong(entry.getValue());
+                    added.put(key, entry.getValue());
+                }
+            }
+            if (!added.isEmpty()) {
+                append(ByteBuffer.wrap(records.toByteArray()));
+                index.putAll(added);
+            }
+        } catch (IOException e) {
+            log.warn("Cannot write timestamp cache " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends records to cache file under exclusive file lock, writing file header first if file is empty.
+     *
+     * @param records encoded records
+     * @throws IOException in case of I/O problems
+     */
+    private void append(final ByteBuffer records) throws IOException {
+        synchronized (writeLock) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                final FileLock lock = channel.lock();
+                try {
+                    if (channel.size() == 0) {
+                        final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+                        header.putInt(MAGIC);
+                        ((Buffer) header).flip();
+                        channel.write(header);
+                    }
+                    while (records.hasRemaining()) {
+                        channel.write(records);
+                    }
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all cached timestamps.
+     *
+     * @throws IOException in case of I/O problems
+     */
+    private void clear() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            final FileLock lock = channel.lock();
+            try {
+                channel.truncate(0);
+            } finally {
+                lock.release();
+            }
+        }
+        index.clear();
+    }
+
+    /**
+     * Loads index from memory-mapped cache file.
+     * <p>
+     * Incomplete record at end of file (written by concurrently running build) is skipped.
+     *
+     * @throws IOException in case of I/O problems or unknown file format
+     */
+    private void load() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size == 0) {
+                return;
+            }
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.remaining() < Integer.BYTES || buffer.getInt() != MAGIC) {
+                throw new IOException("unknown file format");
+            }
+            while (buffer.remaining() >= RECORD_OVERHEAD) {
+                final int keyLength = buffer.getInt();
+                if (keyLength <= 0 || buffer.remaining() < keyLength + Long.BYTES) {
+                    break;
+                }
+                index.put(readKey(buffer, keyLength), buffer.getLong());
+            }
+        }
+    }
+
+    /**
+     * Reads key of single record and moves buffer past it.
+     *
+     * @param buffer    buffer positioned at beginning of key
+     * @param keyLength length of key in bytes
+     * @return decoded key
+     */
+    private static String readKey(final ByteBuffer buffer, final int keyLength) {
+        final ByteBuffer keyBytes = buffer.slice();
+        ((Buffer) keyBytes).limit(keyLength);
+        ((Buffer) buffer).position(buffer.position() + keyLength);
+        return StandardCharsets.UTF_8.decode(keyBytes).toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Source of dependency timestamps, queried in batches of dependencies.
+ */
+interface TimestampResolver {
+
+    /**
+     * Checks whether dependency can be added to batch queried in single request.
+     *
+     * @param batch      current batch
+     * @param dependency dependency to add
+     * @return true if dependency can be added to batch
+     * @throws IOException if query cannot be encoded
+     */
+    boolean fits(List<Dependency> batch, Dependency dependency) throws IOException;
+
+    /**
+     * Downloads timestamps of batch of dependencies.
+     *
+     * @param batch dependencies to look up
+     * @return map of coordinates (groupId:artifactId:version) to timestamp, 0 if version was not found,
+     * -1 if lookup failed
+     */
+    Map<String, Long> downloadTimestamps(List<Dependency> batch);
+
+    /**
+     * Checks whether dependency must be looked up even if its timestamp is cached.
+     *
+     * @param dependency dependency to look up
+     * @return true if lookup provides more than cached timestamp
+     */
+    default boolean needsLookup(final Dependency dependency) {
+        return false;
+    }
+
+    /**
+     * Identifies request looking up dependency, so lookups of dependencies sharing request are sent once.
+     *
+     * @param dependency dependency to look up
+     * @return key of lookup, coordinates (groupId:artifactId:version) of dependency by default
+     */
+    default String lookupKey(final Dependency dependency) {
+        return InfoGenerator.coordinates(dependency);
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Released versions of looked up artifacts, keyed by groupId:artifactId.
+ * <p>
+ * Filled from version lists already downloaded by {@link LookupMode#ARTIFACT} lookups,
+ * shared by all mojo executions of build. Safe for use from lookup worker threads.
+ */
+final class VersionIndex {
+
+    /**
+     * Versions by groupId:artifactId.
+     */
+    private final Map<String, ArtifactVersions> artifacts = new ConcurrentHashMap<>();
+
+    /**
+     * Stores versions of artifact found in search response.
+     *
+     * @param group    groupId of artifact
+     * @param artifact artifactId of artifact
+     * @param found    map of coordinates (groupId:artifactId:version) to timestamp of all versions of artifact
+     */
+    void put(final String group, final String artifact, final Map<String, Long> found) {
+        final String prefix = group + ":" + artifact + ":";
+        final List<String> versions = new ArrayList<>();
+        for (final String coordinates : found.keySet()) {
+            if (coordinates.startsWith(prefix)) {
+                versions.add(coordinates.substring(prefix.length()));
+            }
+        }
+        artifacts.put(group + ":" + artifact, new ArtifactVersions(versions));
+    }
+
+    /**
+     * Returns versions of artifact of dependency.
+     *
+     * @param dependency dependency
+     * @return versions of artifact, {@code null} if artifact was not looked up
+     */
+    ArtifactVersions get(final Dependency dependency) {
+        return artifacts.get(dependency.getGroupId() + ":" + dependency.getArtifactId());
+    }
+
+    /**
+     * Checks whether versions of artifact of dependency are known.
+     *
+     * @param dependency dependency
+     * @return true if artifact was looked up
+     */
+    boolean contains(final Dependency dependency) {
+        return get(dependency) != null;
+    }
+}
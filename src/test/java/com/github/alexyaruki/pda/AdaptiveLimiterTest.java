@@ -0,0 +1,83 @@
+package com.github.alexyaruki.pda;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link AdaptiveLimiter}.
+ */
+public class AdaptiveLimiterTest {
+
+    /**
+     * Runs requests with given outcome.
+     *
+     * @param limiter    limiter
+     * @param count      number of requests
+     * @param overloaded whether requests were throttled or failed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static void run(final AdaptiveLimiter limiter, final int count, final boolean overloaded) throws InterruptedException {
+        for (int request = 0; request < count; request++) {
+            limiter.acquire();
+            limiter.release(overloaded);
+        }
+    }
+
+    @Test
+    public void limitStartsAtHalfOfMaximum() {
+        assertEquals(4, new AdaptiveLimiter(8).getLimit());
+        assertEquals(1, new AdaptiveLimiter(1).getLimit());
+        assertEquals(1, new AdaptiveLimiter(0).getLimit());
+    }
+
+    @Test
+    public void overloadHalvesLimitDownToOne() throws InterruptedException {
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(16);
+        run(limiter, 1, true);
+        assertEquals(4, limiter.getLimit());
+        run(limiter, 10, true);
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    public void healthyResponsesRaiseLimitGradually() throws InterruptedException {
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(8);
+        run(limiter, 3, false);
+        assertEquals(4, limiter.getLimit());
+        run(limiter, 2, false);
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    public void limitNeverExceedsMaximum() throws InterruptedException {
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(3);
+        run(limiter, 100, false);
+        assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    public void requestOverLimitWaitsForRelease() throws InterruptedException {
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(2);
+        limiter.acquire();
+        final CountDownLatch started = new CountDownLatch(1);
+        final Thread waiting = new Thread(() -> {
+            try {
+                limiter.acquire();
+                started.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiting.start();
+        assertFalse(started.await(100, TimeUnit.MILLISECONDS));
+        limiter.release(false);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        waiting.join();
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.alexyaruki.pda;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.alexyaruki.pda.DependencyFilterTest.dependency;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests of {@link AgePolicies}.
+ */
+public class AgePoliciesTest {
+
+    /**
+     * Current time used in tests.
+     */
+    private static final long NOW = 1_500_000_000_000L;
+
+    /**
+     * Timestamp of dependency released one hundred days ago.
+     */
+    private static final long OLD = NOW - TimeUnit.DAYS.toMillis(100);
+
+    /**
+     * Compiles ten days default policy with overrides.
+     *
+     * @param defaultSeverity severity of default policy and overrides without one
+     * @param overrides       overrides of policy per groupId
+     * @return compiled policies
+     */
+    private static AgePolicies compile(final AgePolicy.Severity defaultSeverity, final String... overrides) {
+        return AgePolicies.compile(AgePolicy.parse("10d", defaultSeverity), Arrays.asList(overrides), defaultSeverity);
+    }
+
+    /**
+     * Returns severity of policy violated by old dependency.
+     *
+     * @param policies    compiled policies
+     * @param coordinates coordinates (groupId:artifactId:version) of dependency
+     * @return severity, {@code null} if no policy is violated
+     */
+    private static AgePolicy.Severity violatedSeverity(final AgePolicies policies, final String coordinates) {
+        final AgePolicy violated = policies.findViolated(dependency(coordinates), OLD, NOW);
+        if (violated == null) {
+            return null;
+        }
+        return violated.getSeverity();
+    }
+
+    @Test
+    public void overrideWithoutSeverityUsesDefaultSeverity() {
+        final AgePolicies policies = compile(AgePolicy.Severity.WARN, "com.acme=30d", "org.example*=30d:fail");
+        assertEquals(AgePolicy.Severity.WARN, violatedSeverity(policies, "com.acme:lib:1"));
+        assertEquals(AgePolicy.Severity.FAIL, violatedSeverity(policies, "org.example.tools:lib:1"));
+        assertEquals(AgePolicy.Severity.WARN, violatedSeverity(policies, "org.other:lib:1"));
+        assertEquals(AgePolicy.Severity.FAIL, violatedSeverity(compile(AgePolicy.Severity.FAIL, "com.acme=30d"), "com.acme:lib:1"));
+    }
+
+    @Test
+    public void literalGroupIdTakesPrecedenceOverLongerPrefix() {
+        final AgePolicies policies = compile(AgePolicy.Severity.FAIL, "com.acme.*=30d:warn", "com.acme.tools=1000d", "com.*=1000d");
+        assertNull(violatedSeverity(policies, "com.acme.tools:lib:1"));
+        assertEquals(AgePolicy.Severity.WARN, violatedSeverity(policies, "com.acme.db:lib:1"));
+        assertNull(violatedSeverity(policies, "com.other:lib:1"));
+    }
+}
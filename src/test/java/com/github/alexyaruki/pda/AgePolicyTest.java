@@ -0,0 +1,87 @@
+package com.github.alexyaruki.pda;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of {@link AgePolicy}.
+ */
+public class AgePolicyTest {
+
+    /**
+     * Current time used in tests.
+     */
+    private static final long NOW = 1_500_000_000_000L;
+
+    /**
+     * Asserts that age is rejected.
+     *
+     * @param age malformed age
+     */
+    private static void assertMalformed(final String age) {
+        try {
+            AgePolicy.parse(age, AgePolicy.Severity.FAIL);
+            fail("Accepted malformed age: " + age);
+        } catch (IllegalArgumentException e) {
+            assertEquals("Malformed age: " + age, e.getMessage());
+        }
+    }
+
+    @Test
+    public void parsesSpelledUnits() {
+        final AgePolicy policy = AgePolicy.parse("1 year 30 days", AgePolicy.Severity.FAIL);
+        assertEquals(NOW - TimeUnit.DAYS.toMillis(395), policy.cutoff(NOW));
+        assertEquals("1 year 30 days", policy.getDescription());
+        assertEquals(AgePolicy.Severity.FAIL, policy.getSeverity());
+    }
+
+    @Test
+    public void parsesAbbreviatedUnits() {
+        final AgePolicy policy = AgePolicy.parse("1y30d", AgePolicy.Severity.WARN);
+        assertEquals(NOW - TimeUnit.DAYS.toMillis(395), policy.cutoff(NOW));
+        assertEquals("1 year 30 days", policy.getDescription());
+        assertEquals(AgePolicy.Severity.WARN, policy.getSeverity());
+    }
+
+    @Test
+    public void parsesHoursAndMinutesSeparatedByCommas() {
+        final AgePolicy policy = AgePolicy.parse(" 2 Hours, 15 min ", AgePolicy.Severity.WARN);
+        assertEquals(NOW - TimeUnit.MINUTES.toMillis(135), policy.cutoff(NOW));
+        assertEquals("2 hours 15 minutes", policy.getDescription());
+    }
+
+    @Test
+    public void addsRepeatedUnits() {
+        final AgePolicy policy = AgePolicy.parse("10d 5 days 1m", AgePolicy.Severity.WARN);
+        assertEquals(NOW - TimeUnit.DAYS.toMillis(15) - TimeUnit.MINUTES.toMillis(1), policy.cutoff(NOW));
+        assertEquals("15 days 1 minute", policy.getDescription());
+    }
+
+    @Test
+    public void rejectsMalformedAge() {
+        assertMalformed("");
+        assertMalformed("days");
+        assertMalformed("10");
+        assertMalformed("1 week");
+        assertMalformed("1 month");
+        assertMalformed("1 year and 2 days");
+        assertMalformed("-1 days");
+    }
+
+    @Test
+    public void rejectsZeroAge() {
+        assertMalformed("0 days");
+        assertMalformed("0y 0d");
+    }
+
+    @Test
+    public void limitersWithoutAgeGiveNoPolicy() {
+        assertNull(AgePolicy.ofLimiters(0, 0, 0, 0, AgePolicy.Severity.FAIL));
+        assertEquals("1 day 1 hour", AgePolicy.ofLimiters(0, 1, 1, 0, AgePolicy.Severity.FAIL).getDescription());
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.alexyaruki.pda;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link ArtifactVersions}.
+ */
+public class ArtifactVersionsTest {
+
+    /**
+     * Versions of artifact, in no particular order, with pre-releases.
+     */
+    private final ArtifactVersions versions = new ArtifactVersions(Arrays.asList(
+        "1.2", "2.0", "1.0", "1.10", "2.1-RC1", "2.0.1", "3.0-SNAPSHOT", "3.0-beta-1", "3.0.M1", "1.1"));
+
+    @Test
+    public void preReleasesAreNotCounted() {
+        assertFalse(versions.isEmpty());
+        assertEquals("2.0.1", versions.getLatest());
+    }
+
+    @Test
+    public void artifactWithoutReleasesIsEmpty() {
+        final ArtifactVersions snapshots = new ArtifactVersions(Arrays.asList("1.0-SNAPSHOT", "1.0-alpha-1", "1.0-rc2"));
+        assertTrue(snapshots.isEmpty());
+        assertNull(snapshots.getLatest());
+        assertEquals(0, snapshots.releasesBehind("1.0"));
+    }
+
+    @Test
+    public void releasesBehindCountsNewerReleasesInMavenOrder() {
+        assertEquals(5, versions.releasesBehind("1.0"));
+        assertEquals(4, versions.releasesBehind("1.1"));
+        assertEquals(2, versions.releasesBehind("1.10"));
+        assertEquals(0, versions.releasesBehind("2.0.1"));
+    }
+
+    @Test
+    public void releasesBehindCountsNewerReleasesOfUnknownVersion() {
+        assertEquals(3, versions.releasesBehind("1.5"));
+        assertEquals(2, versions.releasesBehind("2.0-RC1"));
+        assertEquals(0, versions.releasesBehind("3.0"));
+    }
+
+    @Test
+    public void majorsBehindCountsNewerMajorVersions() {
+        assertEquals(1, versions.majorsBehind("1.1"));
+        assertEquals(0, versions.majorsBehind("2.0"));
+        assertEquals(2, versions.majorsBehind("0.9"));
+        assertEquals(0, versions.majorsBehind("3.0"));
+    }
+
+    @Test
+    public void minorsBehindCountsNewerMinorLines() {
+        assertEquals(4, versions.minorsBehind("1.0"));
+        assertEquals(3, versions.minorsBehind("1.1.5"));
+        assertEquals(1, versions.minorsBehind("1.10"));
+        assertEquals(0, versions.minorsBehind("2.0.1"));
+        assertEquals(1, versions.minorsBehind("1.11"));
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.alexyaruki.pda.DependencyFilterTest.dependency;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of batching in {@link CentralLookup}.
+ */
+public class CentralLookupTest {
+
+    /**
+     * Address of search API, never contacted by batching checks.
+     */
+    private static final String SEARCH_URL = "http://localhost/solrsearch/select";
+
+    /**
+     * Client used for HTTP requests.
+     */
+    private final LookupClient client = new LookupClient(1, 1, 0, 1000, 1000, new RetryPolicy(0, 0, 0), new CircuitBreaker(0, 0));
+
+    @After
+    public void closeClient() {
+        client.close();
+    }
+
+    /**
+     * Creates lookup.
+     *
+     * @param url          address of search API
+     * @param mode         how Maven Central is queried
+     * @param batchSize    maximum number of dependencies queried in single request
+     * @param maxUrlLength maximum length of batched query URL
+     * @return lookup
+     */
+    private CentralLookup lookup(final String url, final LookupMode mode, final int batchSize, final int maxUrlLength) {
+        return new CentralLookup(new SystemStreamLog(), client, url, mode, 100, batchSize, maxUrlLength);
+    }
+
+    @Test
+    public void batchIsLimitedBySize() throws IOException {
+        final CentralLookup lookup = lookup(SEARCH_URL, LookupMode.VERSION, 2, Integer.MAX_VALUE);
+        final List<Dependency> batch = new ArrayList<>();
+        assertTrue(lookup.fits(batch, dependency("g:a:1")));
+        batch.add(dependency("g:a:1"));
+        assertTrue(lookup.fits(batch, dependency("g:b:1")));
+        batch.add(dependency("g:b:1"));
+        assertFalse(lookup.fits(batch, dependency("g:c:1")));
+    }
+
+    @Test
+    public void batchIsLimitedByUrlLength() throws IOException {
+        final CentralLookup lookup = lookup(SEARCH_URL, LookupMode.VERSION, 100, 200);
+        final List<Dependency> batch = new ArrayList<>(Collections.singletonList(dependency("g:a:1")));
+        assertTrue(lookup.fits(batch, dependency("g:b:1")));
+        batch.add(dependency("g:b:1"));
+        assertFalse(lookup.fits(batch, dependency("org.example.long.group:long-artifact-name:1.0.0")));
+        assertTrue(lookup(SEARCH_URL, LookupMode.VERSION, 1, 1).fits(Collections.emptyList(), dependency("g:a:1")));
+    }
+
+    @Test
+    public void artifactModeQueriesEveryArtifactSeparately() throws IOException {
+        final CentralLookup lookup = lookup(SEARCH_URL, LookupMode.ARTIFACT, 100, Integer.MAX_VALUE);
+        assertFalse(lookup.fits(Collections.singletonList(dependency("g:a:1")), dependency("g:a:2")));
+        assertEquals("g:a", lookup.lookupKey(dependency("g:a:1")));
+        assertEquals("g:a:1", lookup(SEARCH_URL, LookupMode.VERSION, 100, Integer.MAX_VALUE).lookupKey(dependency("g:a:1")));
+    }
+
+    @Test
+    public void batchResultsAreMappedBackToDependencies() throws IOException {
+        try (StubServer server = new StubServer(exchange -> StubServer.respond(exchange, 200, "{\"response\":{\"docs\":["
+            + "{\"g\":\"g\",\"a\":\"b\",\"v\":\"2\",\"timestamp\":20},"
+            + "{\"g\":\"g\",\"a\":\"a\",\"v\":\"1\",\"timestamp\":10},"
+            + "{\"g\":\"g\",\"a\":\"x\",\"v\":\"9\",\"timestamp\":90}]}}"))) {
+            final Map<String, Long> timestamps = lookup(server.url("/solrsearch/select"), LookupMode.VERSION, 100, Integer.MAX_VALUE)
+                .downloadTimestamps(Arrays.asList(dependency("g:a:1"), dependency("g:b:2"), dependency("g:c:3")));
+            final Map<String, Long> expected = new HashMap<>();
+            expected.put("g:a:1", 10L);
+            expected.put("g:b:2", 20L);
+            expected.put("g:c:3", 0L);
+            assertEquals(expected, timestamps);
+            assertEquals(Collections.singletonList("GET /solrsearch/select?q="
+                + "%28g%3A%22g%22+AND+a%3A%22a%22+AND+v%3A%221%22%29+OR+%28g%3A%22g%22+AND+a%3A%22b%22+AND+v%3A%222%22%29"
+                + "+OR+%28g%3A%22g%22+AND+a%3A%22c%22+AND+v%3A%223%22%29&core=gav&rows=3&wt=json"), server.getRequests());
+        }
+    }
+
+    @Test
+    public void failedBatchFailsAllDependencies() throws IOException {
+        try (StubServer server = new StubServer(exchange -> StubServer.respond(exchange, 500, null))) {
+            final Map<String, Long> timestamps = lookup(server.url("/solrsearch/select"), LookupMode.VERSION, 100, Integer.MAX_VALUE)
+                .downloadTimestamps(Arrays.asList(dependency("g:a:1"), dependency("g:b:2")));
+            final Map<String, Long> expected = new HashMap<>();
+            expected.put("g:a:1", -1L);
+            expected.put("g:b:2", -1L);
+            assertEquals(expected, timestamps);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.alexyaruki.pda;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link CircuitBreaker} state machine.
+ */
+public class CircuitBreakerTest {
+
+    /**
+     * Open delay long enough to never pass during test.
+     */
+    private static final long LONG_DELAY = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * Open delay passing during test.
+     */
+    private static final long SHORT_DELAY = 100;
+
+    /**
+     * Opens circuit and waits until its open delay passes.
+     *
+     * @return circuit with probe request allowed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static CircuitBreaker openedAndWaited() throws InterruptedException {
+        final CircuitBreaker breaker = new CircuitBreaker(1, SHORT_DELAY);
+        breaker.record(false);
+        assertFalse(breaker.allowRequest());
+        Thread.sleep(SHORT_DELAY * 2);
+        return breaker;
+    }
+
+    @Test
+    public void breakerWithoutThresholdNeverOpens() {
+        final CircuitBreaker breaker = new CircuitBreaker(0, LONG_DELAY);
+        for (int failure = 0; failure < 10; failure++) {
+            breaker.record(false);
+        }
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void consecutiveFailuresOpenCircuit() {
+        final CircuitBreaker breaker = new CircuitBreaker(2, LONG_DELAY);
+        breaker.record(false);
+        assertTrue(breaker.allowRequest());
+        breaker.record(false);
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void successResetsFailures() {
+        final CircuitBreaker breaker = new CircuitBreaker(2, LONG_DELAY);
+        breaker.record(false);
+        breaker.record(true);
+        breaker.record(false);
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void singleProbeIsAllowedAfterDelay() throws InterruptedException {
+        final CircuitBreaker breaker = openedAndWaited();
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+        breaker.record(true);
+        assertTrue(breaker.allowRequest());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void failedProbeKeepsCircuitOpen() throws InterruptedException {
+        final CircuitBreaker breaker = openedAndWaited();
+        assertTrue(breaker.allowRequest());
+        breaker.record(false);
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void lostProbeIsReplacedAfterDelay() throws InterruptedException {
+        final CircuitBreaker breaker = openedAndWaited();
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+        Thread.sleep(SHORT_DELAY * 2);
+        assertTrue(breaker.allowRequest());
+    }
+}
@@ -0,0 +1,161 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link DependencyFilter}.
+ */
+public class DependencyFilterTest {
+
+    /**
+     * Creates dependency.
+     *
+     * @param coordinates groupId:artifactId:version
+     * @return dependency
+     */
+    static Dependency dependency(final String coordinates) {
+        final String[] parts = coordinates.split(":");
+        final Dependency dependency = new Dependency();
+        dependency.setGroupId(parts[0]);
+        dependency.setArtifactId(parts[1]);
+        dependency.setVersion(parts[2]);
+        return dependency;
+    }
+
+    /**
+     * Compiles filter from rules.
+     *
+     * @param rules rules
+     * @return compiled filter
+     */
+    private static DependencyFilter filter(final String... rules) {
+        return DependencyFilter.compile(null, Arrays.asList(rules));
+    }
+
+    @Test
+    public void filterWithoutRulesIgnoresNothing() {
+        assertFalse(DependencyFilter.compile(null, null).isIgnored(dependency("com.acme:lib:1.0")));
+        assertFalse(DependencyFilter.compile("", Collections.singletonList(" ")).isIgnored(dependency("com.acme:lib:1.0")));
+    }
+
+    @Test
+    public void ignoreStringMatchesGroupIdOrArtifactId() {
+        final DependencyFilter filter = DependencyFilter.compile("acme", null);
+        assertTrue(filter.isIgnored(dependency("com.acme:lib:1.0")));
+        assertTrue(filter.isIgnored(dependency("org.example:acme-lib:1.0")));
+        assertFalse(filter.isIgnored(dependency("org.example:lib:1.0-acme")));
+    }
+
+    @Test
+    public void literalGroupIdMatchesExactly() {
+        final DependencyFilter filter = filter("com.acme");
+        assertTrue(filter.isIgnored(dependency("com.acme:lib:1.0")));
+        assertFalse(filter.isIgnored(dependency("com.acme.sub:lib:1.0")));
+        assertFalse(filter.isIgnored(dependency("com.acm:lib:1.0")));
+    }
+
+    @Test
+    public void prefixGroupIdMatchesGroupIdsStartingWithPrefix() {
+        final DependencyFilter filter = filter("com.acme.*");
+        assertTrue(filter.isIgnored(dependency("com.acme.sub:lib:1.0")));
+        assertTrue(filter.isIgnored(dependency("com.acme.sub.deeper:lib:1.0")));
+        assertFalse(filter.isIgnored(dependency("com.acme:lib:1.0")));
+        assertFalse(filter.isIgnored(dependency("com.acmecorp:lib:1.0")));
+    }
+
+    @Test
+    public void wildcardGroupIdMatchesEveryGroupId() {
+        final DependencyFilter filter = filter("*:lib");
+        assertTrue(filter.isIgnored(dependency("com.acme:lib:1.0")));
+        assertTrue(filter.isIgnored(dependency("org.example:lib:2.0")));
+        assertFalse(filter.isIgnored(dependency("com.acme:other:1.0")));
+    }
+
+    @Test
+    public void globMatchesAnyCharactersAndSingleCharacter() {
+        final DependencyFilter filter = filter("org.*ample:lib-?");
+        assertTrue(filter.isIgnored(dependency("org.example:lib-a:1.0")));
+        assertTrue(filter.isIgnored(dependency("org.sample:lib-b:1.0")));
+        assertFalse(filter.isIgnored(dependency("org.example:lib-ab:1.0")));
+        assertFalse(filter.isIgnored(dependency("com.example:lib-a:1.0")));
+    }
+
+    @Test
+    public void globQuotesRegularExpressionCharacters() {
+        final DependencyFilter filter = filter("org.ex?mple:lib+");
+        assertTrue(filter.isIgnored(dependency("org.example:lib+:1.0")));
+        assertFalse(filter.isIgnored(dependency("orgXexample:lib+:1.0")));
+        assertFalse(filter.isIgnored(dependency("org.example:libb:1.0")));
+    }
+
+    @Test
+    public void regularExpressionMayContainColons() {
+        final DependencyFilter filter = filter("/x:y|com\\.(acme|example)/:lib");
+        assertTrue(filter.isIgnored(dependency("com.acme:lib:1.0")));
+        assertTrue(filter.isIgnored(dependency("com.example:lib:1.0")));
+        assertFalse(filter.isIgnored(dependency("com.acme:other:1.0")));
+        assertFalse(filter.isIgnored(dependency("com.other:lib:1.0")));
+    }
+
+    @Test
+    public void missingAndEmptyPartsMatchAnything() {
+        final DependencyFilter filter = filter("com.acme::1.0");
+        assertTrue(filter.isIgnored(dependency("com.acme:lib:1.0")));
+        assertTrue(filter.isIgnored(dependency("com.acme:other:1.0")));
+        assertFalse(filter.isIgnored(dependency("com.acme:lib:2.0")));
+    }
+
+    @Test
+    public void versionPartIsMatched() {
+        final DependencyFilter filter = filter("com.acme:lib:1.*");
+        assertTrue(filter.isIgnored(dependency("com.acme:lib:1.2.3")));
+        assertFalse(filter.isIgnored(dependency("com.acme:lib:2.0")));
+    }
+
+    @Test
+    public void includeRuleTakesPrecedenceInTrie() {
+        final DependencyFilter filter = filter("com.acme.*", "!com.acme.keep:*");
+        assertTrue(filter.isIgnored(dependency("com.acme.other:lib:1.0")));
+        assertFalse(filter.isIgnored(dependency("com.acme.keep:lib:1.0")));
+    }
+
+    @Test
+    public void includeRuleTakesPrecedenceRegardlessOfOrder() {
+        final DependencyFilter filter = filter("!com.acme:lib-core", "*:lib-*");
+        assertTrue(filter.isIgnored(dependency("com.acme:lib-api:1.0")));
+        assertFalse(filter.isIgnored(dependency("com.acme:lib-core:1.0")));
+    }
+
+    @Test
+    public void residualIncludeRuleOverridesTrieRule() {
+        final DependencyFilter filter = filter("com.acme", "!*:special");
+        assertTrue(filter.isIgnored(dependency("com.acme:lib:1.0")));
+        assertFalse(filter.isIgnored(dependency("com.acme:special:1.0")));
+    }
+
+    @Test
+    public void includeRuleOverridesIgnoreString() {
+        final DependencyFilter filter = DependencyFilter.compile("test", Collections.singletonList("!*:testng"));
+        assertTrue(filter.isIgnored(dependency("org.test:lib:1.0")));
+        assertFalse(filter.isIgnored(dependency("org.testng:testng:1.0")));
+    }
+
+    @Test
+    public void includeRuleAloneIgnoresNothing() {
+        final DependencyFilter filter = filter("!com.acme");
+        assertFalse(filter.isIgnored(dependency("com.acme:lib:1.0")));
+        assertFalse(filter.isIgnored(dependency("org.example:lib:1.0")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformedRegularExpressionIsRejected() {
+        filter("/[/:lib");
+    }
+}
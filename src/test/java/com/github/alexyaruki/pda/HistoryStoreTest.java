@@ -0,0 +1,178 @@
+package com.github.alexyaruki.pda;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of {@link HistoryStore} and its binary file format.
+ */
+public class HistoryStoreTest {
+
+    /**
+     * Marker at beginning of both history files.
+     */
+    private static final int MAGIC = 0x50444133;
+
+    /**
+     * Size of rows file header.
+     */
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * Size of single row.
+     */
+    private static final int ROW_SIZE = 24;
+
+    /**
+     * Directory of history.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Creates map of coordinates to timestamp.
+     *
+     * @param entries alternating coordinates and timestamps
+     * @return map in given order
+     */
+    private static Map<String, Long> timestamps(final Object... entries) {
+        final Map<String, Long> timestamps = new LinkedHashMap<>();
+        for (int index = 0; index < entries.length; index += 2) {
+            timestamps.put((String) entries[index], (Long) entries[index + 1]);
+        }
+        return timestamps;
+    }
+
+    /**
+     * Packs dictionary ids of row.
+     *
+     * @param module      id of module
+     * @param coordinates id of coordinates
+     * @return packed ids, as stored in second column of row
+     */
+    private static long ids(final int module, final int coordinates) {
+        return (long) module << Integer.SIZE | coordinates;
+    }
+
+    /**
+     * Scans rows as readable strings.
+     *
+     * @param store history
+     * @param since earliest build time of scanned rows
+     * @return rows as buildTime/module/coordinates/timestamp
+     * @throws IOException in case of I/O problems
+     */
+    private static List<String> scan(final HistoryStore store, final long since) throws IOException {
+        final List<long[]> rows = new ArrayList<>();
+        final List<String> strings = store.scan(since, (buildTime, module, coordinates, timestamp) ->
+            rows.add(new long[]{buildTime, module, coordinates, timestamp}));
+        final List<String> described = new ArrayList<>();
+        for (final long[] row : rows) {
+            described.add(row[0] + "/" + strings.get((int) row[1]) + "/" + strings.get((int) row[2]) + "/" + row[3]);
+        }
+        return described;
+    }
+
+    @Test
+    public void missingHistoryHasNoRows() throws IOException {
+        final HistoryStore store = new HistoryStore(folder.getRoot().toPath().resolve("missing"));
+        assertEquals(Collections.emptyList(), scan(store, 0));
+    }
+
+    @Test
+    public void appendedRowsAreScannedInOrder() throws IOException {
+        final HistoryStore store = new HistoryStore(folder.getRoot().toPath());
+        assertEquals(2, store.append(100, "g:app", timestamps("g:a:1", 10L, "g:b:2", 20L)));
+        assertEquals(2, store.append(200, "g:lib", timestamps("g:a:1", 11L, "g:c:3", 30L)));
+        assertEquals(Arrays.asList("100/g:app/g:a:1/10", "100/g:app/g:b:2/20", "200/g:lib/g:a:1/11", "200/g:lib/g:c:3/30"), scan(store, 0));
+        assertEquals(Arrays.asList("200/g:lib/g:a:1/11", "200/g:lib/g:c:3/30"), scan(store, 200));
+    }
+
+    @Test
+    public void unknownTimestampsAreNotRecorded() throws IOException {
+        final HistoryStore store = new HistoryStore(folder.getRoot().toPath());
+        assertEquals(1, store.append(100, "g:app", timestamps("g:a:1", 0L, "g:b:2", -1L, "g:c:3", 30L)));
+        assertEquals(Collections.singletonList("100/g:app/g:c:3/30"), scan(store, 0));
+    }
+
+    @Test
+    public void filesHaveDocumentedLayout() throws IOException {
+        final Path directory = folder.getRoot().toPath();
+        new HistoryStore(directory).append(100, "g:app", timestamps("g:a:1", 10L, "g:b:2", 20L));
+        new HistoryStore(directory).append(200, "g:app", timestamps("g:a:1", 11L));
+
+        final ByteBuffer rows = ByteBuffer.wrap(Files.readAllBytes(directory.resolve(HistoryStore.ROWS_FILE)));
+        assertEquals(HEADER_SIZE + 3 * ROW_SIZE, rows.limit());
+        assertEquals(MAGIC, rows.getInt(0));
+        assertEquals(100L, rows.getLong(HEADER_SIZE));
+        assertEquals(ids(0, 1), rows.getLong(HEADER_SIZE + Long.BYTES));
+        assertEquals(10L, rows.getLong(HEADER_SIZE + 2 * Long.BYTES));
+        assertEquals(ids(0, 2), rows.getLong(HEADER_SIZE + ROW_SIZE + Long.BYTES));
+        assertEquals(200L, rows.getLong(HEADER_SIZE + 2 * ROW_SIZE));
+        assertEquals(ids(0, 1), rows.getLong(HEADER_SIZE + 2 * ROW_SIZE + Long.BYTES));
+
+        final ByteBuffer dictionary = ByteBuffer.wrap(Files.readAllBytes(directory.resolve(HistoryStore.DICTIONARY_FILE)));
+        assertEquals(MAGIC, dictionary.getInt());
+        final List<String> strings = new ArrayList<>();
+        while (dictionary.hasRemaining()) {
+            final byte[] bytes = new byte[dictionary.getInt()];
+            dictionary.get(bytes);
+            strings.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        assertEquals(Arrays.asList("g:app", "g:a:1", "g:b:2"), strings);
+    }
+
+    @Test
+    public void incompleteRowIsSkippedAndOverwritten() throws IOException {
+        final Path directory = folder.getRoot().toPath();
+        final HistoryStore store = new HistoryStore(directory);
+        store.append(100, "g:app", timestamps("g:a:1", 10L));
+        Files.write(directory.resolve(HistoryStore.ROWS_FILE), new byte[]{1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+        assertEquals(Collections.singletonList("100/g:app/g:a:1/10"), scan(store, 0));
+
+        store.append(200, "g:app", timestamps("g:b:2", 20L));
+        assertEquals(HEADER_SIZE + 2 * ROW_SIZE, Files.size(directory.resolve(HistoryStore.ROWS_FILE)));
+        assertEquals(Arrays.asList("100/g:app/g:a:1/10", "200/g:app/g:b:2/20"), scan(store, 0));
+    }
+
+    @Test
+    public void incompleteDictionaryRecordIsReplaced() throws IOException {
+        final Path directory = folder.getRoot().toPath();
+        final HistoryStore store = new HistoryStore(directory);
+        store.append(100, "g:app", timestamps("g:a:1", 10L));
+        Files.write(directory.resolve(HistoryStore.DICTIONARY_FILE), new byte[]{0, 0, 0, 100, 'x'}, StandardOpenOption.APPEND);
+
+        store.append(200, "g:app", timestamps("g:b:2", 20L));
+        assertEquals(Arrays.asList("100/g:app/g:a:1/10", "200/g:app/g:b:2/20"), scan(store, 0));
+    }
+
+    @Test
+    public void unknownFileFormatIsRejected() throws IOException {
+        final Path directory = folder.getRoot().toPath();
+        Files.write(directory.resolve(HistoryStore.ROWS_FILE), new byte[HEADER_SIZE + ROW_SIZE]);
+        try {
+            new HistoryStore(directory).scan(0, (buildTime, module, coordinates, timestamp) -> fail("Row of unknown file format visited"));
+            fail("Accepted unknown file format");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("unknown file format"));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link InFlightLookups} shared by pipelines.
+ */
+public class InFlightLookupsTest {
+
+    /**
+     * Maven logger instance.
+     */
+    private final Log log = new SystemStreamLog();
+
+    /**
+     * Lookups shared by all pipelines of test.
+     */
+    private final InFlightLookups shared = new InFlightLookups();
+
+    @Test
+    public void joinedLookupReceivesTimestampOfItsDependency() {
+        final InFlightLookups first = shared.tracking();
+        final InFlightLookups second = shared.tracking();
+        assertFalse(first.join("g:a", "g:a:1"));
+        assertTrue(second.join("g:a", "g:a:2"));
+        assertTrue(second.join("g:a", "g:a:3"));
+        final CompletableFuture<Map<String, Long>> request = new CompletableFuture<>();
+        first.track(request, Collections.singletonList("g:a"));
+        final Map<String, Long> versions = new HashMap<>();
+        versions.put("g:a:1", 10L);
+        versions.put("g:a:2", 20L);
+        request.complete(versions);
+
+        assertEquals(versions, first.await(log));
+        assertFalse(first.hasPending());
+        final Map<String, Long> joined = new HashMap<>(second.await(log));
+        joined.putAll(second.await(log));
+        final Map<String, Long> expected = new HashMap<>();
+        expected.put("g:a:2", 20L);
+        expected.put("g:a:3", 0L);
+        assertEquals(expected, joined);
+        assertFalse(second.hasPending());
+    }
+
+    @Test
+    public void completedLookupIsClaimedAgain() {
+        final InFlightLookups first = shared.tracking();
+        assertFalse(first.join("g:a:1", "g:a:1"));
+        final CompletableFuture<Map<String, Long>> request = new CompletableFuture<>();
+        first.track(request, Collections.singletonList("g:a:1"));
+        request.complete(Collections.singletonMap("g:a:1", 10L));
+        first.await(log);
+        assertFalse(shared.tracking().join("g:a:1", "g:a:1"));
+    }
+
+    @Test
+    public void abandonedLookupFailsJoinedPipelines() {
+        final InFlightLookups first = shared.tracking();
+        final InFlightLookups second = shared.tracking();
+        assertFalse(first.join("g:a:1", "g:a:1"));
+        assertTrue(second.join("g:a:1", "g:a:1"));
+        first.abandon("g:a:1");
+        assertEquals(Collections.singletonMap("g:a:1", -1L), second.await(log));
+        assertFalse(shared.tracking().join("g:a:1", "g:a:1"));
+    }
+
+    @Test
+    public void closedPipelineAbandonsAllClaimedLookups() {
+        final InFlightLookups first = shared.tracking();
+        final InFlightLookups second = shared.tracking();
+        first.join("g:a:1", "g:a:1");
+        first.join("g:b:1", "g:b:1");
+        second.join("g:a:1", "g:a:1");
+        second.join("g:b:1", "g:b:1");
+        first.abandonAll();
+        final Map<String, Long> joined = new HashMap<>(second.await(log));
+        joined.putAll(second.await(log));
+        final Map<String, Long> expected = new HashMap<>();
+        expected.put("g:a:1", -1L);
+        expected.put("g:b:1", -1L);
+        assertEquals(expected, joined);
+    }
+
+    @Test
+    public void failedRequestFailsJoinedPipelines() {
+        final InFlightLookups first = shared.tracking();
+        final InFlightLookups second = shared.tracking();
+        first.join("g:a", "g:a:1");
+        second.join("g:a", "g:a:2");
+        final CompletableFuture<Map<String, Long>> request = new CompletableFuture<>();
+        first.track(request, Collections.singletonList("g:a"));
+        request.completeExceptionally(new IllegalStateException("connection refused"));
+        assertEquals(Collections.emptyMap(), first.await(log));
+        assertEquals(Collections.singletonMap("g:a:2", -1L), second.await(log));
+    }
+}
@@ -0,0 +1,155 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.alexyaruki.pda.DependencyFilterTest.dependency;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link LookupPipeline}.
+ */
+public class LookupPipelineTest {
+
+    /**
+     * Modification time of POM files in local repository.
+     */
+    private static final long FILE_TIME = 1_500_000_000_000L;
+
+    /**
+     * Maven logger instance.
+     */
+    private final Log log = new SystemStreamLog();
+
+    /**
+     * Sources of timestamps found in local repository.
+     */
+    private final Map<String, String> localSources = new HashMap<>();
+
+    /**
+     * Local repository.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Creates resolver answering with fixed timestamps.
+     *
+     * @param answers map of coordinates (groupId:artifactId:version) to timestamp, 0 for others
+     * @return resolver
+     */
+    private static TimestampResolver resolver(final Map<String, Long> answers) {
+        return new TimestampResolver() {
+            @Override
+            public boolean fits(final List<Dependency> batch, final Dependency dependency) {
+                return true;
+            }
+
+            @Override
+            public Map<String, Long> downloadTimestamps(final List<Dependency> batch) {
+                final Map<String, Long> timestamps = new HashMap<>();
+                for (final Dependency dependency : batch) {
+                    final String key = InfoGenerator.coordinates(dependency);
+                    timestamps.put(key, answers.getOrDefault(key, 0L));
+                }
+                return timestamps;
+            }
+        };
+    }
+
+    /**
+     * Puts POM of every looked up dependency into local repository.
+     *
+     * @throws IOException in case of I/O problems
+     */
+    @Before
+    public void installPoms() throws IOException {
+        for (final String artifact : new String[]{"found", "unknown", "failed"}) {
+            final Path pom = folder.getRoot().toPath().resolve("g").resolve(artifact).resolve("1").resolve(artifact + "-1.pom");
+            Files.createDirectories(pom.getParent());
+            Files.createFile(pom);
+            Files.setLastModifiedTime(pom, FileTime.fromMillis(FILE_TIME));
+        }
+    }
+
+    /**
+     * Looks up all dependencies.
+     *
+     * @param answers map of coordinates (groupId:artifactId:version) to timestamp answered remotely
+     * @param offline whether remote repositories must not be contacted
+     * @return map of coordinates (groupId:artifactId:version) to timestamp
+     */
+    private Map<String, Long> lookUp(final Map<String, Long> answers, final boolean offline) {
+        final LocalRepositoryLookup local = new LocalRepositoryLookup(log, folder.getRoot().toString(), new LookupMetrics(), localSources);
+        try (LookupPipeline pipeline = new LookupPipeline(log, new ResolverRoutes(resolver(answers)), local, offline,
+            TimestampCache.disabled(), 2, new LookupMetrics())) {
+            pipeline.add(dependency("g:found:1"));
+            pipeline.add(dependency("g:unknown:1"));
+            pipeline.add(dependency("g:failed:1"));
+            return pipeline.finish();
+        }
+    }
+
+    @Test
+    public void localRepositoryIsUsedOnlyAfterFailedLookup() {
+        final Map<String, Long> answers = new HashMap<>();
+        answers.put("g:found:1", 10L);
+        answers.put("g:failed:1", -1L);
+        final Map<String, Long> found = lookUp(answers, false);
+        assertEquals(Long.valueOf(10L), found.get("g:found:1"));
+        assertEquals(Long.valueOf(0L), found.get("g:unknown:1"));
+        assertEquals(Long.valueOf(FILE_TIME), found.get("g:failed:1"));
+        assertEquals(Collections.singletonMap("g:failed:1", "file time"), localSources);
+    }
+
+    @Test
+    public void listenerReceivesEveryFinalTimestamp() {
+        final Map<String, Long> answers = new HashMap<>();
+        answers.put("g:found:1", 10L);
+        answers.put("g:failed:1", -1L);
+        final Map<String, Long> notified = new HashMap<>();
+        final LocalRepositoryLookup local = new LocalRepositoryLookup(log, folder.getRoot().toString(), new LookupMetrics(), localSources);
+        try (LookupPipeline pipeline = new LookupPipeline(log, new ResolverRoutes(resolver(answers)), local, false,
+            TimestampCache.disabled(), 2, new LookupMetrics())) {
+            pipeline.listen((dependency, timestamp) -> notified.put(InfoGenerator.coordinates(dependency), timestamp) == null);
+            pipeline.add(dependency("g:found:1"));
+            pipeline.add(dependency("g:unknown:1"));
+            pipeline.add(dependency("g:failed:1"));
+            assertEquals(pipeline.finish(), notified);
+        }
+    }
+
+    @Test
+    public void localRepositoryIsUsedForAllDependenciesOffline() {
+        final Map<String, Long> found = lookUp(Collections.singletonMap("g:found:1", 10L), true);
+        assertEquals(Long.valueOf(FILE_TIME), found.get("g:found:1"));
+        assertEquals(Long.valueOf(FILE_TIME), found.get("g:unknown:1"));
+        assertEquals(3, localSources.size());
+    }
+
+    @Test
+    public void sourceOfLocalTimestampIsReported() {
+        final Map<Dependency, Long> timestampMap = new LinkedHashMap<>();
+        timestampMap.put(dependency("g:remote:1"), FILE_TIME);
+        timestampMap.put(dependency("g:local:1"), FILE_TIME);
+        final Map<String, String> info = InfoGenerator.generateInfoMap(timestampMap, Collections.singletonMap("g:local:1", "file time"));
+        assertTrue(info.get("g:remote:1").endsWith(" seconds"));
+        assertTrue(info.get("g:local:1").endsWith(" seconds (local: file time)"));
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.artifact.repository.Authentication;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.github.alexyaruki.pda.DependencyFilterTest.dependency;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests of {@link RepositoryLookup} against embedded HTTP server.
+ */
+public class RepositoryLookupTest {
+
+    /**
+     * {@code Last-Modified} value answered by server.
+     */
+    private static final String LAST_MODIFIED = "Fri, 14 Jul 2017 02:40:00 GMT";
+
+    /**
+     * Timestamp of {@link #LAST_MODIFIED}.
+     */
+    private static final long TIMESTAMP = 1_500_000_000_000L;
+
+    /**
+     * Client used for HTTP requests.
+     */
+    private final LookupClient client = new LookupClient(1, 1, 0, 1000, 1000, new RetryPolicy(0, 0, 0), new CircuitBreaker(0, 0));
+
+    @After
+    public void closeClient() {
+        client.close();
+    }
+
+    /**
+     * Looks up timestamp of dependency in repository served by stub server.
+     *
+     * @param server         stub server
+     * @param authentication credentials of repository, {@code null} for anonymous access
+     * @param coordinates    coordinates (groupId:artifactId:version) of dependency
+     * @return timestamp of dependency
+     */
+    private long lookUp(final StubServer server, final Authentication authentication, final String coordinates) {
+        return new RepositoryLookup(new SystemStreamLog(), client, server.url("/repo/"), authentication)
+            .downloadTimestamp(dependency(coordinates));
+    }
+
+    @Test
+    public void releaseTimestampIsLastModifiedTimeOfPom() throws IOException {
+        try (StubServer server = new StubServer(exchange -> {
+            exchange.getResponseHeaders().add("Last-Modified", LAST_MODIFIED);
+            StubServer.respond(exchange, 200, null);
+        })) {
+            assertEquals(TIMESTAMP, lookUp(server, null, "com.acme:tool:1.0"));
+            assertEquals(Collections.singletonList("HEAD /repo/com/acme/tool/1.0/tool-1.0.pom"), server.getRequests());
+        }
+    }
+
+    @Test
+    public void snapshotTimestampIsLastModifiedTimeOfMetadata() throws IOException {
+        try (StubServer server = new StubServer(exchange -> {
+            exchange.getResponseHeaders().add("Last-Modified", LAST_MODIFIED);
+            StubServer.respond(exchange, 200, null);
+        })) {
+            assertEquals(TIMESTAMP, lookUp(server, null, "com.acme:tool:1.1-SNAPSHOT"));
+            assertEquals(Collections.singletonList("HEAD /repo/com/acme/tool/1.1-SNAPSHOT/maven-metadata.xml"), server.getRequests());
+        }
+    }
+
+    @Test
+    public void missingVersionIsNotFound() throws IOException {
+        try (StubServer server = new StubServer(exchange -> StubServer.respond(exchange, 404, null))) {
+            assertEquals(0, lookUp(server, null, "com.acme:tool:1.0"));
+        }
+    }
+
+    @Test
+    public void serverErrorFailsLookup() throws IOException {
+        try (StubServer server = new StubServer(exchange -> StubServer.respond(exchange, 503, null))) {
+            assertEquals(-1, lookUp(server, null, "com.acme:tool:1.0"));
+        }
+    }
+
+    @Test
+    public void responseWithoutLastModifiedFailsLookup() throws IOException {
+        try (StubServer server = new StubServer(exchange -> StubServer.respond(exchange, 200, null))) {
+            assertEquals(-1, lookUp(server, null, "com.acme:tool:1.0"));
+        }
+    }
+
+    @Test
+    public void credentialsAreSentAsBasicAuthorization() throws IOException {
+        final List<String> authorizations = Collections.synchronizedList(new ArrayList<>());
+        try (StubServer server = new StubServer(exchange -> {
+            authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            exchange.getResponseHeaders().add("Last-Modified", LAST_MODIFIED);
+            StubServer.respond(exchange, 200, null);
+        })) {
+            lookUp(server, new Authentication("user", "secret"), "com.acme:tool:1.0");
+            lookUp(server, null, "com.acme:tool:1.0");
+            assertEquals(2, authorizations.size());
+            assertEquals("Basic dXNlcjpzZWNyZXQ=", authorizations.get(0));
+            assertNull(authorizations.get(1));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.alexyaruki.pda.DependencyFilterTest.dependency;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of {@link ResolverRoutes}.
+ */
+public class ResolverRoutesTest {
+
+    /**
+     * Resolver of dependencies not matching any prefix.
+     */
+    private final TimestampResolver central = resolver();
+
+    /**
+     * Resolver routed by {@code com.acme} prefix.
+     */
+    private final TimestampResolver acme = resolver();
+
+    /**
+     * Resolver routed by {@code com.acme.internal} prefix.
+     */
+    private final TimestampResolver internal = resolver();
+
+    /**
+     * Creates resolver which is never queried.
+     *
+     * @return resolver
+     */
+    private static TimestampResolver resolver() {
+        return new TimestampResolver() {
+            @Override
+            public boolean fits(final List<Dependency> batch, final Dependency dependency) {
+                return true;
+            }
+
+            @Override
+            public Map<String, Long> downloadTimestamps(final List<Dependency> batch) {
+                return Collections.emptyMap();
+            }
+        };
+    }
+
+    /**
+     * Creates routing of test resolvers.
+     *
+     * @return routing
+     */
+    private ResolverRoutes routes() {
+        final ResolverRoutes routes = new ResolverRoutes(central);
+        routes.add("com.acme", acme);
+        routes.add(" com.acme.internal. ", internal);
+        return routes;
+    }
+
+    @Test
+    public void prefixMatchesWholeGroupIdSegments() {
+        final ResolverRoutes routes = routes();
+        assertSame(acme, routes.route(dependency("com.acme:tool:1")));
+        assertSame(acme, routes.route(dependency("com.acme.tools:tool:1")));
+        assertSame(central, routes.route(dependency("com.acmecorp:tool:1")));
+        assertSame(central, routes.route(dependency("com:tool:1")));
+    }
+
+    @Test
+    public void longestPrefixWins() {
+        final ResolverRoutes routes = routes();
+        assertSame(internal, routes.route(dependency("com.acme.internal:tool:1")));
+        assertSame(internal, routes.route(dependency("com.acme.internal.db:tool:1")));
+        assertSame(acme, routes.route(dependency("com.acme.internals:tool:1")));
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests of {@link ResponseStore}.
+ */
+public class ResponseStoreTest {
+
+    /**
+     * Body of stored response.
+     */
+    private static final byte[] BODY = "{\"response\":{\"docs\":[]}}".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Maven logger instance.
+     */
+    private final Log log = new SystemStreamLog();
+
+    /**
+     * Cache directory.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Opens store in temporary folder.
+     *
+     * @param clear whether to remove all stored responses first
+     * @return opened store
+     */
+    private ResponseStore open(final boolean clear) {
+        return ResponseStore.open(folder.getRoot().toPath(), clear, log);
+    }
+
+    @Test
+    public void storedResponseSurvivesReopening() {
+        open(false).put("g:a", new StoredResponse("\"v1\"", "Fri, 14 Jul 2017 02:40:00 GMT", 10L, BODY), log);
+        final StoredResponse stored = open(false).get("g:a", log);
+        assertEquals("\"v1\"", stored.getEtag());
+        assertEquals("Fri, 14 Jul 2017 02:40:00 GMT", stored.getLastModified());
+        assertEquals(10L, stored.getValidatedAt());
+        assertArrayEquals(BODY, stored.getBody());
+        assertNull(open(false).get("g:b", log));
+    }
+
+    @Test
+    public void responseIsReplacedWithoutLeavingTemporaryFiles() throws IOException {
+        final ResponseStore store = open(false);
+        store.put("g:a", new StoredResponse("\"v1\"", "", 10L, BODY), log);
+        store.put("g:a", new StoredResponse("\"v1\"", "", 10L, BODY).revalidated(20L), log);
+        assertEquals(20L, store.get("g:a", log).getValidatedAt());
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath().resolve("responses"))) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void unreadableResponseIsNotUsed() throws IOException {
+        final ResponseStore store = open(false);
+        store.put("g:a", new StoredResponse("", "", 10L, BODY), log);
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath().resolve("responses"))) {
+            Files.write(files.findFirst().get(), new byte[]{1, 2, 3});
+        }
+        assertNull(store.get("g:a", log));
+    }
+
+    @Test
+    public void clearRemovesStoredResponses() {
+        open(false).put("g:a", new StoredResponse("", "", 10L, BODY), log);
+        assertNull(open(true).get("g:a", log));
+    }
+
+    @Test
+    public void disabledStoreStoresNothing() {
+        final ResponseStore store = ResponseStore.disabled();
+        assertFalse(store.isEnabled());
+        store.put("g:a", new StoredResponse("", "", 10L, BODY), log);
+        assertNull(store.get("g:a", log));
+    }
+
+    @Test
+    public void sameResponseIsRevalidatedOnceAtTime() throws InterruptedException {
+        final ResponseStore store = open(false);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger runs = new AtomicInteger();
+        final Runnable task = () -> {
+            runs.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        store.revalidateLater("g:a", task);
+        store.revalidateLater("g:a", task);
+        release.countDown();
+        store.awaitRevalidations(5000, log);
+        assertEquals(1, runs.get());
+        store.revalidateLater("g:a", task);
+        store.awaitRevalidations(5000, log);
+        assertEquals(2, runs.get());
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.alexyaruki.pda;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link RetryPolicy} bounds.
+ */
+public class RetryPolicyTest {
+
+    /**
+     * Number of samples of randomized delay.
+     */
+    private static final int SAMPLES = 1000;
+
+    /**
+     * Asserts that all sampled delays of attempt are within bounds.
+     *
+     * @param policy  retry policy
+     * @param attempt number of failed attempt
+     * @param ceiling largest allowed delay
+     */
+    private static void assertBackoffWithin(final RetryPolicy policy, final int attempt, final long ceiling) {
+        for (int sample = 0; sample < SAMPLES; sample++) {
+            final long backoff = policy.backoff(attempt, 0);
+            assertTrue("Delay " + backoff + " of attempt " + attempt, backoff >= 0 && backoff <= ceiling);
+        }
+    }
+
+    @Test
+    public void retriesAreLimited() {
+        final RetryPolicy policy = new RetryPolicy(2, 100, 1000);
+        assertTrue(policy.canRetry(0));
+        assertTrue(policy.canRetry(1));
+        assertFalse(policy.canRetry(2));
+        assertFalse(new RetryPolicy(0, 100, 1000).canRetry(0));
+        assertFalse(new RetryPolicy(-1, 100, 1000).canRetry(0));
+    }
+
+    @Test
+    public void backoffGrowsExponentiallyUpToMaximum() {
+        final RetryPolicy policy = new RetryPolicy(10, 100, 1000);
+        assertBackoffWithin(policy, 0, 100);
+        assertBackoffWithin(policy, 1, 200);
+        assertBackoffWithin(policy, 3, 800);
+        assertBackoffWithin(policy, 4, 1000);
+        assertBackoffWithin(policy, Integer.MAX_VALUE, 1000);
+    }
+
+    @Test
+    public void retryAfterIsHonoredUpToMaximum() {
+        final RetryPolicy policy = new RetryPolicy(10, 1, 1000);
+        assertEquals(500, policy.backoff(0, 500));
+        assertEquals(1000, policy.backoff(0, 60_000));
+    }
+
+    @Test
+    public void maximumIsNeverBelowBaseDelay() {
+        assertBackoffWithin(new RetryPolicy(10, 100, 10), 5, 100);
+    }
+}
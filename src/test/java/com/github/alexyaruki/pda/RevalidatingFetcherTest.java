@@ -0,0 +1,152 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link RevalidatingFetcher} against embedded HTTP server.
+ */
+public class RevalidatingFetcherTest {
+
+    /**
+     * Artifact whose versions are listed.
+     */
+    private static final String KEY = "g:a";
+
+    /**
+     * Entity tag of version list.
+     */
+    private static final String ETAG = "\"v1\"";
+
+    /**
+     * Version list answered by server.
+     */
+    private static final String VERSIONS = "{\"response\":{\"docs\":[{\"g\":\"g\",\"a\":\"a\",\"v\":\"1\",\"timestamp\":10}]}}";
+
+    /**
+     * Maven logger instance.
+     */
+    private final Log log = new SystemStreamLog();
+
+    /**
+     * Client used for HTTP requests.
+     */
+    private final LookupClient client = new LookupClient(1, 1, 0, 1000, 1000, new RetryPolicy(0, 0, 0), new CircuitBreaker(0, 0));
+
+    /**
+     * {@code If-None-Match} headers of received requests, {@code null} for unconditional ones.
+     */
+    private final List<String> validators = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Cache directory.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void closeClient() {
+        client.close();
+    }
+
+    /**
+     * Starts server answering 304 to requests with matching entity tag and version list to others.
+     *
+     * @return started server
+     * @throws IOException if server cannot be started
+     */
+    private StubServer startServer() throws IOException {
+        return new StubServer(exchange -> {
+            final String validator = exchange.getRequestHeaders().getFirst("If-None-Match");
+            validators.add(validator);
+            if (ETAG.equals(validator)) {
+                StubServer.respond(exchange, 304, null);
+                return;
+            }
+            exchange.getResponseHeaders().add("ETag", ETAG);
+            StubServer.respond(exchange, 200, VERSIONS);
+        });
+    }
+
+    /**
+     * Creates fetcher.
+     *
+     * @param store store of fetched responses
+     * @param ttl   how long (in milliseconds) stored response is used without revalidation
+     * @return fetcher
+     */
+    private RevalidatingFetcher fetcher(final ResponseStore store, final long ttl) {
+        return new RevalidatingFetcher(log, client, store, ttl);
+    }
+
+    @Test
+    public void freshResponseIsUsedWithoutRequest() throws IOException {
+        final ResponseStore store = ResponseStore.open(folder.getRoot().toPath(), false, log);
+        try (StubServer server = startServer()) {
+            final RevalidatingFetcher fetcher = fetcher(store, Long.MAX_VALUE);
+            assertEquals(Collections.singletonMap("g:a:1", 10L), fetcher.fetch(KEY, server.url("/versions"), "g:a:1", true));
+            assertEquals(Collections.singletonMap("g:a:1", 10L), fetcher.fetch(KEY, server.url("/versions"), "g:a:1", true));
+            assertEquals(Collections.singletonList(null), validators);
+            assertEquals(ETAG, store.get(KEY, log).getEtag());
+        }
+    }
+
+    @Test
+    public void staleResponseIsRevalidatedWithEntityTag() throws IOException {
+        final ResponseStore store = ResponseStore.open(folder.getRoot().toPath(), false, log);
+        store.put(KEY, new StoredResponse(ETAG, "", 0L, VERSIONS.getBytes(StandardCharsets.UTF_8)), log);
+        try (StubServer server = startServer()) {
+            final Map<String, Long> found = fetcher(store, 1000).fetch(KEY, server.url("/versions"), "g:a:1", true);
+            assertEquals(Collections.singletonMap("g:a:1", 10L), found);
+            assertEquals(Collections.singletonList(ETAG), validators);
+            assertTrue(store.get(KEY, log).isFresh(System.currentTimeMillis(), 1000));
+        }
+    }
+
+    @Test
+    public void staleResponseContainingVersionIsRevalidatedInBackground() throws IOException {
+        final ResponseStore store = ResponseStore.open(folder.getRoot().toPath(), false, log);
+        store.put(KEY, new StoredResponse(ETAG, "", 0L, VERSIONS.getBytes(StandardCharsets.UTF_8)), log);
+        try (StubServer server = startServer()) {
+            final Map<String, Long> found = fetcher(store, 1000).fetch(KEY, server.url("/versions"), "g:a:1", false);
+            assertEquals(Collections.singletonMap("g:a:1", 10L), found);
+            store.awaitRevalidations(5000, log);
+            assertEquals(Collections.singletonList(ETAG), validators);
+            assertTrue(store.get(KEY, log).isFresh(System.currentTimeMillis(), 1000));
+        }
+    }
+
+    @Test
+    public void responseMissingVersionIsRevalidatedBeforeUse() throws IOException {
+        final ResponseStore store = ResponseStore.open(folder.getRoot().toPath(), false, log);
+        store.put(KEY, new StoredResponse("\"v0\"", "", System.currentTimeMillis(), "{\"response\":{\"docs\":[]}}".getBytes(StandardCharsets.UTF_8)), log);
+        try (StubServer server = startServer()) {
+            final Map<String, Long> found = fetcher(store, Long.MAX_VALUE).fetch(KEY, server.url("/versions"), "g:a:1", false);
+            assertEquals(Collections.singletonMap("g:a:1", 10L), found);
+            assertEquals(Collections.singletonList("\"v0\""), validators);
+            assertEquals(ETAG, store.get(KEY, log).getEtag());
+        }
+    }
+
+    @Test
+    public void failedDownloadIsReported() throws IOException {
+        try (StubServer server = new StubServer(exchange -> StubServer.respond(exchange, 500, null))) {
+            assertNull(fetcher(ResponseStore.disabled(), 0).fetch(KEY, server.url("/versions"), "g:a:1", true));
+        }
+    }
+}
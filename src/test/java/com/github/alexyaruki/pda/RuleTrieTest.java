@@ -0,0 +1,99 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.Predicate;
+
+import static com.github.alexyaruki.pda.DependencyFilterTest.dependency;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link RuleTrie} and {@link IgnoreRule}.
+ */
+public class RuleTrieTest {
+
+    /**
+     * Creates rule matching any groupId.
+     *
+     * @param artifactId artifactId matched by rule
+     * @param include    whether rule excludes matching dependencies from being ignored
+     * @return rule
+     */
+    private static IgnoreRule rule(final String artifactId, final boolean include) {
+        final Predicate<String> any = value -> true;
+        return new IgnoreRule(any, artifactId::equals, any, include);
+    }
+
+    @Test
+    public void newTrieIsEmpty() {
+        final RuleTrie trie = new RuleTrie();
+        assertTrue(trie.isEmpty());
+        assertEquals(IgnoreRule.NO_MATCH, trie.match(dependency("com.acme:lib:1.0")));
+    }
+
+    @Test
+    public void exactRuleMatchesOnlyWholeGroupId() {
+        final RuleTrie trie = new RuleTrie();
+        trie.addExact("com.acme", rule("lib", false));
+        assertFalse(trie.isEmpty());
+        assertEquals(IgnoreRule.IGNORED, trie.match(dependency("com.acme:lib:1.0")));
+        assertEquals(IgnoreRule.NO_MATCH, trie.match(dependency("com.acme.sub:lib:1.0")));
+        assertEquals(IgnoreRule.NO_MATCH, trie.match(dependency("com.acm:lib:1.0")));
+        assertEquals(IgnoreRule.NO_MATCH, trie.match(dependency("com.acme:other:1.0")));
+    }
+
+    @Test
+    public void prefixRuleMatchesGroupIdsStartingWithPrefix() {
+        final RuleTrie trie = new RuleTrie();
+        trie.addPrefix("com.acme", rule("lib", false));
+        assertEquals(IgnoreRule.IGNORED, trie.match(dependency("com.acme:lib:1.0")));
+        assertEquals(IgnoreRule.IGNORED, trie.match(dependency("com.acme.sub:lib:1.0")));
+        assertEquals(IgnoreRule.NO_MATCH, trie.match(dependency("com.ac:lib:1.0")));
+    }
+
+    @Test
+    public void emptyPrefixMatchesEveryGroupId() {
+        final RuleTrie trie = new RuleTrie();
+        trie.addPrefix("", rule("lib", false));
+        assertEquals(IgnoreRule.IGNORED, trie.match(dependency("org.example:lib:1.0")));
+        assertEquals(IgnoreRule.IGNORED, trie.match(dependency("com.acme:lib:1.0")));
+    }
+
+    @Test
+    public void includeRuleOnShorterPrefixWins() {
+        final RuleTrie trie = new RuleTrie();
+        trie.addPrefix("com", rule("lib", true));
+        trie.addExact("com.acme", rule("lib", false));
+        assertEquals(IgnoreRule.INCLUDED, trie.match(dependency("com.acme:lib:1.0")));
+    }
+
+    @Test
+    public void includeRuleOnExactGroupIdWins() {
+        final RuleTrie trie = new RuleTrie();
+        trie.addPrefix("com", rule("lib", false));
+        trie.addExact("com.acme", rule("lib", true));
+        assertEquals(IgnoreRule.INCLUDED, trie.match(dependency("com.acme:lib:1.0")));
+        assertEquals(IgnoreRule.IGNORED, trie.match(dependency("com.other:lib:1.0")));
+    }
+
+    @Test
+    public void matchOfRuleListPrefersIncludeRule() {
+        assertEquals(IgnoreRule.NO_MATCH, IgnoreRule.match(Collections.emptyList(), dependency("com.acme:lib:1.0")));
+        assertEquals(IgnoreRule.IGNORED, IgnoreRule.match(Arrays.asList(rule("lib", false), rule("other", true)), dependency("com.acme:lib:1.0")));
+        assertEquals(IgnoreRule.INCLUDED, IgnoreRule.match(Arrays.asList(rule("lib", false), rule("lib", true)), dependency("com.acme:lib:1.0")));
+    }
+
+    @Test
+    public void ruleMatchesDependencyWithoutVersion() {
+        final Predicate<String> any = value -> true;
+        final IgnoreRule rule = new IgnoreRule(any, any, "null"::equals, false);
+        final Dependency dependency = dependency("com.acme:lib:1.0");
+        dependency.setVersion(null);
+        assertTrue(rule.matches(dependency));
+    }
+}
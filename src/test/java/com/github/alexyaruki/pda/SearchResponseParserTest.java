@@ -0,0 +1,68 @@
+package com.github.alexyaruki.pda;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of {@link SearchResponseParser}.
+ */
+public class SearchResponseParserTest {
+
+    /**
+     * Factory of JSON parsers.
+     */
+    private final JsonFactory factory = new JsonFactory();
+
+    /**
+     * Parses search response.
+     *
+     * @param json search response
+     * @return map of coordinates (groupId:artifactId:version) to timestamp
+     * @throws IOException in case of malformed response
+     */
+    private Map<String, Long> parse(final String json) throws IOException {
+        final Map<String, Long> timestamps = new HashMap<>();
+        try (JsonParser parser = factory.createParser(json.replace('\'', '"'))) {
+            SearchResponseParser.parseTimestamps(parser, timestamps);
+        }
+        return timestamps;
+    }
+
+    @Test
+    public void parsesAllDocuments() throws IOException {
+        final Map<String, Long> timestamps = parse("{'responseHeader':{'status':0,'params':{'q':'x'}},'response':{'numFound':2,'docs':["
+            + "{'id':'g:a:1','g':'g','a':'a','v':'1','p':'jar','timestamp':10,'ec':['.jar','.pom']},"
+            + "{'timestamp':20,'v':'2','tags':{'x':[1,2]},'a':'a','g':'g'}]}}");
+        final Map<String, Long> expected = new HashMap<>();
+        expected.put("g:a:1", 10L);
+        expected.put("g:a:2", 20L);
+        assertEquals(expected, timestamps);
+    }
+
+    @Test
+    public void documentsWithMissingFieldsAreSkipped() throws IOException {
+        final Map<String, Long> timestamps = parse("{'response':{'docs':["
+            + "{'a':'a','v':'1','timestamp':10},"
+            + "{'g':'g','v':'2','timestamp':20},"
+            + "{'g':'g','a':'a','timestamp':30},"
+            + "{'g':'g','a':'a','v':'4'},"
+            + "{'g':'g','a':'a','v':'5','timestamp':0},"
+            + "{'g':'g','a':'a','v':'6','timestamp':60}]}}");
+        assertEquals(Collections.singletonMap("g:a:6", 60L), timestamps);
+    }
+
+    @Test
+    public void responseWithoutDocumentsHasNoTimestamps() throws IOException {
+        assertEquals(Collections.emptyMap(), parse("{'response':{'numFound':0,'docs':[]}}"));
+        assertEquals(Collections.emptyMap(), parse("{'error':{'msg':'undefined field'}}"));
+        assertEquals(Collections.emptyMap(), parse("{'response':{'docs':null}}"));
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.alexyaruki.pda;
+
+import org.junit.Test;
+
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of {@link SharedLookupClients}.
+ */
+public class SharedLookupClientsTest {
+
+    /**
+     * Factory of clients.
+     */
+    private final Supplier<LookupClient> factory = () -> new LookupClient(1, 1, 0, 1000, 1000, new RetryPolicy(0, 0, 0), new CircuitBreaker(0, 0));
+
+    /**
+     * Clients under test.
+     */
+    private final SharedLookupClients shared = new SharedLookupClients();
+
+    @Test
+    public void clientIsSharedByEndpoint() {
+        final LookupClient client = shared.get("central", "first", factory);
+        assertSame(client, shared.get("central", "second", factory));
+        assertNotSame(client, shared.get("other", "second", factory));
+    }
+
+    @Test
+    public void clientsAreKeptUntilLastProjectReleasesThem() {
+        final LookupClient client = shared.get("central", "first", factory);
+        shared.release("first", false);
+        assertSame(client, shared.get("central", "last", factory));
+        shared.release("last", true);
+        assertNotSame(client, shared.get("central", "next", factory));
+    }
+
+    @Test
+    public void clientsAreKeptWhileOtherExecutionUsesThem() {
+        final LookupClient client = shared.get("central", "first", factory);
+        shared.get("central", "last", factory);
+        shared.release("last", true);
+        assertSame(client, shared.get("central", "other", factory));
+        shared.release("first", false);
+        shared.release("other", false);
+        assertNotSame(client, shared.get("central", "next", factory));
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.alexyaruki.pda.DependencyFilterTest.dependency;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link StreamingCheck}.
+ */
+public class StreamingCheckTest {
+
+    /**
+     * Timestamp of dependency released long ago.
+     */
+    private static final long OLD = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1000);
+
+    /**
+     * Timestamp of dependency released recently.
+     */
+    private static final long RECENT = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * Maven logger instance.
+     */
+    private final Log log = new SystemStreamLog();
+
+    /**
+     * Cache directory.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Creates check allowing dependencies up to thirty days old.
+     *
+     * @param severity severity of violation
+     * @return check
+     */
+    private StreamingCheck check(final AgePolicy.Severity severity) {
+        return new StreamingCheck(log, AgePolicies.compile(AgePolicy.parse("30d", severity), null, severity),
+            new DistanceLimits(0, 0, 0), null, severity, new HashMap<>());
+    }
+
+    /**
+     * Lists coordinates of dependencies.
+     *
+     * @param dependencies dependencies
+     * @return coordinates (groupId:artifactId:version), in order of dependencies
+     */
+    private static List<String> coordinates(final List<Dependency> dependencies) {
+        final List<String> coordinates = new ArrayList<>();
+        dependencies.forEach(dependency -> coordinates.add(InfoGenerator.coordinates(dependency)));
+        return coordinates;
+    }
+
+    @Test
+    public void cachedDependenciesAreLookedUpFirst() {
+        final TimestampCache cache = TimestampCache.open(folder.getRoot().toPath(), false, log);
+        cache.put("g:cached:2", RECENT, log);
+        cache.put("g:cached:1", OLD, log);
+        cache.put("g:stale:1", OLD - 1, log);
+        final List<Dependency> ordered = StreamingCheck.prioritize(Arrays.asList(dependency("g:unknown:1"), dependency("g:stale:2"),
+            dependency("g:cached:2"), dependency("g:cached:1")), cache);
+        assertEquals(Arrays.asList("g:cached:1", "g:cached:2", "g:stale:2", "g:unknown:1"), coordinates(ordered));
+    }
+
+    @Test
+    public void failingViolationStopsCheck() {
+        final StreamingCheck check = check(AgePolicy.Severity.FAIL);
+        assertTrue(check.evaluate(dependency("g:a:1"), RECENT));
+        assertFalse(check.evaluate(dependency("g:b:1"), OLD));
+        assertEquals(2, check.getChecked());
+        assertEquals(1, check.getFailures());
+    }
+
+    @Test
+    public void warningDoesNotStopCheck() {
+        final StreamingCheck check = check(AgePolicy.Severity.WARN);
+        assertTrue(check.evaluate(dependency("g:b:1"), OLD));
+        assertEquals(0, check.getFailures());
+    }
+
+    @Test
+    public void failingViolationStopsPipeline() {
+        final TimestampCache cache = TimestampCache.open(folder.getRoot().toPath(), false, log);
+        cache.put("g:old:1", OLD, log);
+        final List<Dependency> requested = Collections.synchronizedList(new ArrayList<>());
+        final TimestampResolver resolver = new TimestampResolver() {
+            @Override
+            public boolean fits(final List<Dependency> batch, final Dependency dependency) {
+                return true;
+            }
+
+            @Override
+            public Map<String, Long> downloadTimestamps(final List<Dependency> batch) {
+                requested.addAll(batch);
+                return Collections.emptyMap();
+            }
+        };
+        final StreamingCheck check = check(AgePolicy.Severity.FAIL);
+        final List<Dependency> dependencies = Arrays.asList(dependency("g:new:1"), dependency("g:old:1"), dependency("g:other:1"));
+        try (LookupPipeline pipeline = new LookupPipeline(log, new ResolverRoutes(resolver),
+            new LocalRepositoryLookup(log, folder.getRoot().toString(), new LookupMetrics(), new HashMap<>()), false, cache, 1, new LookupMetrics())) {
+            pipeline.listen(check::evaluate);
+            StreamingCheck.prioritize(dependencies, cache).forEach(pipeline::add);
+            pipeline.finish();
+        }
+        assertEquals(1, check.getChecked());
+        assertEquals(1, check.getFailures());
+        assertEquals(Collections.emptyList(), requested);
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.alexyaruki.pda;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Embedded HTTP server on loopback address, answering every request by given handler.
+ * <p>
+ * Request lines (method and URI) are recorded, so tests can check what was sent.
+ */
+final class StubServer implements AutoCloseable {
+
+    /**
+     * Underlying server.
+     */
+    private final HttpServer server;
+
+    /**
+     * Received request lines, in order they arrived.
+     */
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Starts server on free local port.
+     *
+     * @param handler handler of all requests
+     * @throws IOException if server cannot be started
+     */
+    StubServer(final HttpHandler handler) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI());
+            try {
+                handler.handle(exchange);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * Sends response.
+     *
+     * @param exchange HTTP exchange
+     * @param status   status code
+     * @param body     response body, {@code null} for none
+     * @throws IOException if response cannot be written
+     */
+    static void respond(final HttpExchange exchange, final int status, final String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream responseStream = exchange.getResponseBody()) {
+            responseStream.write(bytes);
+        }
+    }
+
+    /**
+     * Returns URL of path on this server.
+     *
+     * @param path absolute path
+     * @return URL
+     */
+    String url(final String path) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + path;
+    }
+
+    /**
+     * Returns received request lines.
+     *
+     * @return method and URI of every request, in order they arrived
+     */
+    List<String> getRequests() {
+        synchronized (requests) {
+            return new ArrayList<>(requests);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
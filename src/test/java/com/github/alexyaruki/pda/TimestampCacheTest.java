@@ -0,0 +1,157 @@
+package com.github.alexyaruki.pda;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests of {@link TimestampCache} and its file format.
+ */
+public class TimestampCacheTest {
+
+    /**
+     * Marker at beginning of cache file.
+     */
+    private static final int MAGIC = 0x50444131;
+
+    /**
+     * Maven logger instance.
+     */
+    private final Log log = new SystemStreamLog();
+
+    /**
+     * Directory of cache.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Opens cache in temporary folder.
+     *
+     * @param clear whether to remove all cached timestamps first
+     * @return opened cache
+     */
+    private TimestampCache open(final boolean clear) {
+        return TimestampCache.open(folder.getRoot().toPath(), clear, log);
+    }
+
+    @Test
+    public void storedTimestampsSurviveReopening() {
+        final TimestampCache cache = open(false);
+        cache.put("g:a:1", 10L, log);
+        cache.put("g:a:2", 20L, log);
+        assertEquals(Long.valueOf(10L), cache.get("g:a:1"));
+
+        final TimestampCache reopened = open(false);
+        assertEquals(Long.valueOf(10L), reopened.get("g:a:1"));
+        assertEquals(Long.valueOf(20L), reopened.get("g:a:2"));
+        assertNull(reopened.get("g:a:3"));
+    }
+
+    @Test
+    public void failedLookupsAndSnapshotsAreNotStored() {
+        final TimestampCache cache = open(false);
+        cache.put("g:a:1", 0L, log);
+        cache.put("g:a:2", -1L, log);
+        cache.put("g:a:3-SNAPSHOT", 30L, log);
+        assertNull(cache.get("g:a:1"));
+        assertNull(cache.get("g:a:2"));
+        assertNull(cache.get("g:a:3-SNAPSHOT"));
+        assertNull(open(false).get("g:a:3-SNAPSHOT"));
+    }
+
+    @Test
+    public void batchOfTimestampsIsAppendedOnce() throws IOException {
+        final TimestampCache cache = open(false);
+        cache.put("g:a:1", 10L, log);
+        final Map<String, Long> timestamps = new LinkedHashMap<>();
+        timestamps.put("g:a:1", 11L);
+        timestamps.put("g:a:2", 20L);
+        timestamps.put("g:a:3", 0L);
+        timestamps.put("g:a:4-SNAPSHOT", 40L);
+        timestamps.put("g:b:1", 15L);
+        cache.putAll(timestamps, log);
+        final TimestampCache reopened = open(false);
+        assertEquals(Long.valueOf(10L), reopened.get("g:a:1"));
+        assertEquals(Long.valueOf(20L), reopened.get("g:a:2"));
+        assertEquals(Long.valueOf(15L), reopened.get("g:b:1"));
+        assertNull(reopened.get("g:a:3"));
+        assertNull(reopened.get("g:a:4-SNAPSHOT"));
+        assertEquals(Integer.BYTES + 3 * (Integer.BYTES + "g:a:1".length() + Long.BYTES),
+            Files.size(folder.getRoot().toPath().resolve(TimestampCache.FILE_NAME)));
+    }
+
+    @Test
+    public void firstTimestampIsKept() {
+        final TimestampCache cache = open(false);
+        cache.put("g:a:1", 10L, log);
+        cache.put("g:a:1", 11L, log);
+        assertEquals(Long.valueOf(10L), open(false).get("g:a:1"));
+    }
+
+    @Test
+    public void fileHasDocumentedLayout() throws IOException {
+        open(false).put("g:a:1", 10L, log);
+        final ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(folder.getRoot().toPath().resolve(TimestampCache.FILE_NAME)));
+        assertEquals(MAGIC, file.getInt());
+        final byte[] key = new byte[file.getInt()];
+        file.get(key);
+        assertEquals("g:a:1", new String(key, StandardCharsets.UTF_8));
+        assertEquals(10L, file.getLong());
+        assertEquals(0, file.remaining());
+    }
+
+    @Test
+    public void incompleteRecordIsSkipped() throws IOException {
+        open(false).put("g:a:1", 10L, log);
+        final Path file = folder.getRoot().toPath().resolve(TimestampCache.FILE_NAME);
+        Files.write(file, new byte[]{0, 0, 0, 5, 'g', ':'}, StandardOpenOption.APPEND);
+        final TimestampCache reopened = open(false);
+        assertEquals(Long.valueOf(10L), reopened.get("g:a:1"));
+        assertEquals(1, reopened.getNewestReleases().size());
+    }
+
+    @Test
+    public void clearRemovesAllTimestamps() throws IOException {
+        open(false).put("g:a:1", 10L, log);
+        final TimestampCache cleared = open(true);
+        assertNull(cleared.get("g:a:1"));
+        assertEquals(0, Files.size(folder.getRoot().toPath().resolve(TimestampCache.FILE_NAME)));
+        cleared.put("g:a:2", 20L, log);
+        assertEquals(Long.valueOf(20L), open(false).get("g:a:2"));
+    }
+
+    @Test
+    public void unknownFileFormatDisablesCache() throws IOException {
+        final Path file = folder.getRoot().toPath().resolve(TimestampCache.FILE_NAME);
+        Files.write(file, new byte[]{1, 2, 3, 4});
+        final TimestampCache cache = open(false);
+        cache.put("g:a:1", 10L, log);
+        assertNull(cache.get("g:a:1"));
+        assertEquals(4, Files.size(file));
+    }
+
+    @Test
+    public void newestReleasesAreFoundPerArtifact() {
+        final TimestampCache cache = open(false);
+        cache.put("g:a:1", 10L, log);
+        cache.put("g:a:2", 20L, log);
+        cache.put("g:b:1", 15L, log);
+        assertEquals(Long.valueOf(20L), cache.getNewestReleases().get("g:a"));
+        assertEquals(Long.valueOf(15L), cache.getNewestReleases().get("g:b"));
+    }
+}